@@ -0,0 +1,99 @@
+package com.example.demo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result against the committed baseline ({@code src/jmh/baseline/jmh-baseline.json}) and
+ * prints throughput and normalized allocation side by side.
+ * <p>
+ * Arguments: {@code <baseline.json> <result.json> [max-regression-percent]}. Fails when any benchmark allocates
+ * more per operation than the given percentage (default 15), or when its throughput drops by more than that
+ * percentage and the drop also exceeds the two runs' combined error margins. Allocation per operation is
+ * deterministic, so it is the more reliable signal on shared machines. Benchmarks missing from either file are
+ * listed but never fail the comparison.
+ * <p>
+ * To re-record the baseline after an intentional change, copy {@code target/jmh-result.json} over the baseline
+ * file from a full run on a quiet machine.
+ */
+public final class BaselineComparison {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: BaselineComparison <baseline.json> <result.json> [max-regression-percent]");
+        }
+        double maxRegression = args.length > 2 ? Double.parseDouble(args[2]) : 15.0;
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, Score> baseline = read(objectMapper, Path.of(args[0]));
+        Map<String, Score> current = read(objectMapper, Path.of(args[1]));
+
+        List<String> regressions = new ArrayList<>();
+        System.out.printf("%-70s %14s %14s %8s %12s %12s %8s%n",
+                "Benchmark", "Baseline", "Current", "change", "B/op base", "B/op now", "change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            String key = entry.getKey();
+            Score now = entry.getValue();
+            Score base = baseline.get(key);
+            if (base == null) {
+                System.out.printf("%-70s %14s %14.3f %8s%n", key, "-", now.score(), "new");
+                continue;
+            }
+            double scoreDelta = percent(base.score(), now.score());
+            double allocDelta = percent(base.allocatedBytes(), now.allocatedBytes());
+            System.out.printf("%-70s %14.3f %14.3f %+7.1f%% %12.0f %12.0f %+7.1f%%%n",
+                    key, base.score(), now.score(), scoreDelta, base.allocatedBytes(), now.allocatedBytes(), allocDelta);
+            boolean outsideError = base.score() - now.score() > base.error() + now.error();
+            if (-scoreDelta > maxRegression && outsideError) {
+                regressions.add(key + " throughput " + String.format("%+.1f%%", scoreDelta));
+            }
+            if (allocDelta > maxRegression) {
+                regressions.add(key + " allocation " + String.format("%+.1f%%", allocDelta));
+            }
+        }
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.printf("%-70s %14.3f %14s %8s%n", key, baseline.get(key).score(), "-", "missing"));
+
+        if (!regressions.isEmpty()) {
+            throw new IllegalStateException("Regressions beyond " + maxRegression + "%: " + regressions);
+        }
+    }
+
+    private static Map<String, Score> read(ObjectMapper objectMapper, Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : objectMapper.readTree(Files.readAllBytes(file))) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText().replace("com.example.demo.", ""));
+            Iterator<Map.Entry<String, JsonNode>> params = run.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(':').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            JsonNode primary = run.path("primaryMetric");
+            JsonNode alloc = run.path("secondaryMetrics").path(ALLOC_NORM);
+            scores.put(key.toString(), new Score(primary.path("score").asDouble(), primary.path("scoreError").asDouble(),
+                    alloc.isMissingNode() ? 0.0 : alloc.path("score").asDouble()));
+        }
+        return scores;
+    }
+
+    private static double percent(double before, double after) {
+        return before == 0.0 ? 0.0 : (after - before) * 100.0 / before;
+    }
+
+    private record Score(double score, double error, double allocatedBytes) {
+    }
+}
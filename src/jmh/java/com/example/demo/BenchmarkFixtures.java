@@ -0,0 +1,131 @@
+package com.example.demo;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clinical payloads shared by the benchmarks: a short admission note and a ~8KB discharge summary from
+ * {@code src/jmh/resources/fixtures}, plus NLP Cloud responses derived from them.
+ */
+public final class BenchmarkFixtures {
+
+    /** Terms and entity types as they appear in {@code note-large.txt}. */
+    private static final Map<String, String> TERMS = new LinkedHashMap<>();
+
+    static {
+        TERMS.put("ischemic cardiomyopathy", "PROBLEM");
+        TERMS.put("coronary artery disease", "PROBLEM");
+        TERMS.put("paroxysmal atrial fibrillation", "PROBLEM");
+        TERMS.put("apixaban", "DRUG");
+        TERMS.put("hypertension", "PROBLEM");
+        TERMS.put("type 2 diabetes mellitus", "PROBLEM");
+        TERMS.put("chronic kidney disease stage 3a", "PROBLEM");
+        TERMS.put("dyspnea on exertion", "SYMPTOM");
+        TERMS.put("orthopnea", "SYMPTOM");
+        TERMS.put("furosemide", "DRUG");
+        TERMS.put("NT-proBNP", "TEST");
+        TERMS.put("troponin I", "TEST");
+        TERMS.put("procalcitonin", "TEST");
+        TERMS.put("metoprolol succinate", "DRUG");
+        TERMS.put("sacubitril-valsartan", "DRUG");
+        TERMS.put("dapagliflozin", "DRUG");
+        TERMS.put("amiodarone", "DRUG");
+        TERMS.put("Streptococcus pneumoniae", "ORGANISM");
+        TERMS.put("ceftriaxone", "DRUG");
+        TERMS.put("atorvastatin", "DRUG");
+    }
+
+    private BenchmarkFixtures() {
+    }
+
+    /** {@code "small"} or {@code "large"}. */
+    public static String note(String size) {
+        String resource = "/fixtures/note-" + size + ".txt";
+        try (InputStream in = BenchmarkFixtures.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Unknown fixture: " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Entities with offsets into the large note, cycling through the known terms. */
+    public static List<Map<String, Object>> entities(int count) {
+        String note = note("large");
+        List<Map.Entry<String, String>> terms = new ArrayList<>(TERMS.entrySet());
+        List<Map<String, Object>> entities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map.Entry<String, String> term = terms.get(i % terms.size());
+            int start = note.indexOf(term.getKey());
+            entities.add(Map.of("entity", term.getValue(), "text", term.getKey(),
+                    "start", start, "end", start + term.getKey().length(), "confidence", 0.8 + (i % 20) / 100.0));
+        }
+        return entities;
+    }
+
+    /** {@code {"entities": [...]}} as returned by the NER endpoint. */
+    public static String entitiesPayload(ObjectMapper objectMapper, int count) {
+        return json(objectMapper, Map.of("entities", entities(count)));
+    }
+
+    /** Entities serialized inside {@code summary_text}, as returned by generative models. */
+    public static String embeddedEntitiesPayload(ObjectMapper objectMapper, int count) {
+        return json(objectMapper, Map.of("summary_text", entitiesPayload(objectMapper, count)));
+    }
+
+    /** A summarization response with {@code count} key findings. */
+    public static String summaryPayload(ObjectMapper objectMapper, int count) {
+        List<String> findings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            findings.add("Blood pressure elevated at visit " + i + ", continue current regimen.");
+        }
+        return json(objectMapper, Map.of(
+                "summary_text", "Patient with hypertension, stable on metoprolol. ".repeat(20),
+                "key_findings", findings));
+    }
+
+    /** {@code {"keywords": [...]}} with {@code count} terms. */
+    public static String keywordsPayload(ObjectMapper objectMapper, int count) {
+        List<String> terms = new ArrayList<>(TERMS.keySet());
+        List<String> keywords = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            keywords.add(terms.get(i % terms.size()));
+        }
+        return json(objectMapper, Map.of("keywords", keywords));
+    }
+
+    /**
+     * Generative keyword output: comma separated, wrapped onto a new line every eight terms, with repeats once
+     * {@code count} exceeds the number of distinct terms.
+     */
+    public static String keywordsText(int count) {
+        List<String> terms = new ArrayList<>(TERMS.keySet());
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(i % 8 == 0 ? ",\n" : ", ");
+            }
+            builder.append(terms.get(i % terms.size()));
+        }
+        return builder.toString();
+    }
+
+    private static String json(ObjectMapper objectMapper, Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
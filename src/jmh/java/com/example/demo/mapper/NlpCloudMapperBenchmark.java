@@ -0,0 +1,95 @@
+package com.example.demo.mapper;
+
+import com.example.demo.BenchmarkFixtures;
+import com.example.demo.dto.EntityExtractionResponse;
+import com.example.demo.dto.KeywordResponse;
+import com.example.demo.dto.SummaryResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming {@link NlpCloudMapper} against the former tree-based mapping ({@link TreeNlpCloudMapper}).
+ * Run with {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NlpCloudMapperBenchmark {
+
+    @Param({"10", "1000"})
+    private int entityCount;
+
+    private NlpCloudMapper streaming;
+    private TreeNlpCloudMapper tree;
+    private String entitiesPayload;
+    private String embeddedEntitiesPayload;
+    private String summaryPayload;
+    private String keywordsPayload;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        streaming = new NlpCloudMapper(objectMapper);
+        tree = new TreeNlpCloudMapper(objectMapper);
+
+        entitiesPayload = BenchmarkFixtures.entitiesPayload(objectMapper, entityCount);
+        embeddedEntitiesPayload = BenchmarkFixtures.embeddedEntitiesPayload(objectMapper, entityCount);
+        summaryPayload = BenchmarkFixtures.summaryPayload(objectMapper, entityCount);
+        keywordsPayload = BenchmarkFixtures.keywordsPayload(objectMapper, entityCount);
+    }
+
+    @Benchmark
+    public EntityExtractionResponse entitiesStreaming() {
+        return streaming.toEntityExtractionResponse(entitiesPayload);
+    }
+
+    @Benchmark
+    public EntityExtractionResponse entitiesTree() {
+        return tree.toEntityExtractionResponse(entitiesPayload);
+    }
+
+    @Benchmark
+    public EntityExtractionResponse embeddedEntitiesStreaming() {
+        return streaming.toEntityExtractionResponse(embeddedEntitiesPayload);
+    }
+
+    @Benchmark
+    public EntityExtractionResponse embeddedEntitiesTree() {
+        return tree.toEntityExtractionResponse(embeddedEntitiesPayload);
+    }
+
+    @Benchmark
+    public SummaryResponse summaryStreaming() {
+        return streaming.toSummaryResponse(summaryPayload);
+    }
+
+    @Benchmark
+    public SummaryResponse summaryTree() {
+        return tree.toSummaryResponse(summaryPayload);
+    }
+
+    @Benchmark
+    public KeywordResponse keywordsStreaming() {
+        return streaming.toKeywordResponse(keywordsPayload);
+    }
+
+    @Benchmark
+    public KeywordResponse keywordsTree() {
+        return tree.toKeywordResponse(keywordsPayload);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.service;
+
+/**
+ * The hand-written prompt builders that {@link PromptTemplates} replaced, kept verbatim as the benchmark baseline.
+ */
+final class LegacyPrompts {
+
+    private LegacyPrompts() {
+    }
+
+    static String grammarPrompt(String note, String context) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("You are a medical writing assistant. Correct grammar, spelling, and clarity in the following note. Return only the corrected text without explanations.\n\n");
+        if (context != null && !context.isBlank()) {
+            builder.append("Clinical context: ").append(context.trim()).append("\n\n");
+        }
+        builder.append("Note: ").append(note);
+        return builder.toString();
+    }
+
+    static String entityPrompt(String note, String context) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Extract medical entities from the note and respond as JSON with an 'entities' array where each object contains entity, text, start, end, and confidence fields.\n\n");
+        if (context != null && !context.isBlank()) {
+            builder.append("Clinical context: ").append(context.trim()).append("\n\n");
+        }
+        builder.append("Note: ").append(note);
+        return builder.toString();
+    }
+
+    static String summarizationPrompt(String note, String context) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Summarize the following clinical information in 3-4 sentences highlighting key findings and recommendations.\n\n");
+        if (context != null && !context.isBlank()) {
+            builder.append("Clinical context: ").append(context.trim()).append("\n\n");
+        }
+        builder.append("Note: ").append(note);
+        return builder.toString();
+    }
+
+    static String keywordPrompt(String note, String context) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Extract concise medical keywords or keyphrases from the following note. Respond with a comma-separated list only.\n\n");
+        if (context != null && !context.isBlank()) {
+            builder.append("Clinical context: ").append(context.trim()).append("\n\n");
+        }
+        builder.append("Note: ").append(note);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.service;
+
+import com.example.demo.BenchmarkFixtures;
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.Entity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dictionary extraction with the bundled term list, which answers keyword and entity requests in-process when
+ * {@code nlpcloud.local-extraction} allows it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocalTermExtractorBenchmark {
+
+    @Param({"small", "large"})
+    private String noteSize;
+
+    private final LocalTermExtractor extractor = new LocalTermExtractor(new NlpCloudProperties());
+    private String note;
+
+    @Setup
+    public void setUp() {
+        note = BenchmarkFixtures.note(noteSize);
+    }
+
+    @Benchmark
+    public List<Entity> localEntities() {
+        return extractor.localEntities(note);
+    }
+
+    @Benchmark
+    public List<String> localKeywords() {
+        return extractor.localKeywords(note);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.service;
+
+import com.example.demo.BenchmarkFixtures;
+import com.example.demo.config.NlpCloudProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request CPU work in {@link UnifiedNlpService} that runs before and after the upstream call: prompt rendering
+ * for each task and {@code parseKeywords} on generative keyword output. The {@code *Legacy} benchmarks run the
+ * hand-written builders that {@link PromptTemplates} replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnifiedNlpServiceBenchmark {
+
+    private static final String CONTEXT = "Known heart failure with reduced ejection fraction, on apixaban.";
+
+    @Param({"small", "large"})
+    private String noteSize;
+
+    private final PromptTemplates prompts = new PromptTemplates(new NlpCloudProperties());
+    private String note;
+    private String keywordsText;
+
+    @Setup
+    public void setUp() {
+        note = BenchmarkFixtures.note(noteSize);
+        keywordsText = BenchmarkFixtures.keywordsText("small".equals(noteSize) ? 12 : 400);
+    }
+
+    @Benchmark
+    public String grammarPrompt() {
+        return prompts.render(PromptTemplates.GRAMMAR, note, CONTEXT);
+    }
+
+    @Benchmark
+    public String grammarPromptLegacy() {
+        return LegacyPrompts.grammarPrompt(note, CONTEXT);
+    }
+
+    @Benchmark
+    public String summarizationPrompt() {
+        return prompts.render(PromptTemplates.SUMMARY, note, CONTEXT);
+    }
+
+    @Benchmark
+    public String summarizationPromptLegacy() {
+        return LegacyPrompts.summarizationPrompt(note, CONTEXT);
+    }
+
+    @Benchmark
+    public String keywordPrompt() {
+        return prompts.render(PromptTemplates.KEYWORDS, note, CONTEXT);
+    }
+
+    @Benchmark
+    public String keywordPromptLegacy() {
+        return LegacyPrompts.keywordPrompt(note, CONTEXT);
+    }
+
+    @Benchmark
+    public String entityPrompt() {
+        return prompts.render(PromptTemplates.ENTITIES, note, CONTEXT);
+    }
+
+    @Benchmark
+    public String entityPromptLegacy() {
+        return LegacyPrompts.entityPrompt(note, CONTEXT);
+    }
+
+    @Benchmark
+    public List<String> parseKeywords() {
+        return UnifiedNlpService.parseKeywords(keywordsText);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.demo.cache;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.service.NlpTask;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Content-addressed cache for raw NLP Cloud response bodies.
+ * <p>
+ * Entries are keyed by a SHA-256 digest of task, model path and prompt, so identical
+ * submissions are served from memory. Bodies are kept as UTF-8 bytes and deflated once
+ * they reach the configured threshold.
+ */
+@Component
+public class NlpResponseCache {
+
+    private static final byte RAW = 0;
+    private static final byte DEFLATED = 1;
+
+    private final NlpCloudProperties.ResponseCache settings;
+    private final Cache<String, byte[]> entries;
+    private final Map<NlpTask, LongAdder> hits = new EnumMap<>(NlpTask.class);
+    private final Map<NlpTask, LongAdder> misses = new EnumMap<>(NlpTask.class);
+
+    public NlpResponseCache(NlpCloudProperties properties) {
+        this.settings = properties.getResponseCache();
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxEntries())
+                .expireAfterWrite(settings.getTtl())
+                .build();
+        for (NlpTask task : NlpTask.values()) {
+            hits.put(task, new LongAdder());
+            misses.put(task, new LongAdder());
+        }
+    }
+
+    /**
+     * Returns the cached body for the given request or invokes {@code loader} and caches its result.
+     * Failures thrown by the loader are propagated and never cached.
+     */
+    public String get(NlpTask task, String path, String prompt, Supplier<String> loader) {
+        byte[] body = getBytes(task, path, prompt, () -> {
+            String loaded = loader.get();
+            return loaded == null ? null : loaded.getBytes(StandardCharsets.UTF_8);
+        });
+        return body == null ? null : new String(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Byte-oriented variant of {@link #get} for callers that read upstream bodies without decoding them to a
+     * {@code String}.
+     */
+    public byte[] getBytes(NlpTask task, String path, String prompt, Supplier<byte[]> loader) {
+        if (!settings.isEnabled()) {
+            return loader.get();
+        }
+        String key = RequestFingerprint.of(task, path, prompt);
+        byte[] cached = entries.getIfPresent(key);
+        if (cached != null) {
+            hits.get(task).increment();
+            return decode(cached);
+        }
+        misses.get(task).increment();
+        byte[] body = loader.get();
+        if (body != null) {
+            entries.put(key, encode(body));
+        }
+        return body;
+    }
+
+    public Map<NlpTask, TaskStats> stats() {
+        Map<NlpTask, TaskStats> stats = new EnumMap<>(NlpTask.class);
+        for (NlpTask task : NlpTask.values()) {
+            stats.put(task, new TaskStats(hits.get(task).sum(), misses.get(task).sum()));
+        }
+        return Collections.unmodifiableMap(stats);
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    private byte[] encode(byte[] raw) {
+        if (raw.length >= settings.getCompressionThreshold()) {
+            byte[] deflated = deflate(raw);
+            if (deflated.length < raw.length) {
+                return withMarker(DEFLATED, deflated);
+            }
+        }
+        return withMarker(RAW, raw);
+    }
+
+    private byte[] decode(byte[] stored) {
+        if (stored[0] == DEFLATED) {
+            return inflate(stored);
+        }
+        return Arrays.copyOfRange(stored, 1, stored.length);
+    }
+
+    private static byte[] withMarker(byte marker, byte[] data) {
+        byte[] stored = new byte[data.length + 1];
+        stored[0] = marker;
+        System.arraycopy(data, 0, stored, 1, data.length);
+        return stored;
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] stored) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored, 1, stored.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(stored.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && inflater.needsInput()) {
+                    break;
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted cache entry", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public record TaskStats(long hits, long misses) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.client;
+
+import com.example.demo.config.NlpCloudProperties;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Engine backed by a pooled Apache HttpClient 5. Connections are kept alive, bounded per route and in total,
+ * and evicted once idle for longer than the configured idle timeout.
+ */
+public class ApacheUpstreamClientEngine implements UpstreamClientEngine {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+
+    public ApacheUpstreamClientEngine(NlpCloudProperties properties) {
+        NlpCloudProperties.Http settings = properties.getHttp();
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(settings.getMaxConnectionsPerRoute())
+                .setMaxConnTotal(settings.getMaxConnectionsTotal())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getTimeout()))
+                        .setTimeToLive(TimeValue.of(settings.getConnectionTimeToLive()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictIdleConnections(TimeValue.of(settings.getIdleTimeout()))
+                .evictExpiredConnections()
+                .disableRedirectHandling()
+                .build();
+    }
+
+    @Override
+    public ClientHttpRequestFactory requestFactory(Duration readTimeout) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setResponseTimeout(Timeout.of(readTimeout))
+                .build();
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        factory.setHttpContextFactory((method, uri) -> {
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(requestConfig);
+            return context;
+        });
+        return factory;
+    }
+
+    @Override
+    public UpstreamPoolStats stats() {
+        PoolStats total = connectionManager.getTotalStats();
+        return new UpstreamPoolStats("apache", "HTTP_1_1", total.getMax(), connectionManager.getDefaultMaxPerRoute(),
+                total.getLeased(), total.getAvailable(), total.getPending(), List.of());
+    }
+
+    @Override
+    public void close() {
+        httpClient.close(CloseMode.GRACEFUL);
+    }
+}
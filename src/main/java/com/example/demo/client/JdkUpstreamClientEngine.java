@@ -0,0 +1,211 @@
+package com.example.demo.client;
+
+import com.example.demo.config.NlpCloudProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Engine backed by {@link HttpClient}. Negotiates HTTP/2 via ALPN when enabled and the base URL uses TLS,
+ * so concurrent calls are multiplexed over one connection; cleartext URLs stay on HTTP/1.1 because many
+ * servers reset h2c upgrade attempts. In virtual-thread mode the client's internal dispatch work also runs on
+ * virtual threads.
+ * <p>
+ * The JDK client has no per-instance pool settings, so the engine bounds in-flight exchanges itself:
+ * {@code max-connections-per-route} per scheme, host and port and {@code max-connections-total} overall. An
+ * exchange holds its permit until the response is closed; a request that cannot get one within the connect
+ * timeout fails with an {@link IOException}. Idle connection counts are not visible and are reported as
+ * unsupported.
+ */
+public class JdkUpstreamClientEngine implements UpstreamClientEngine {
+
+    private final NlpCloudProperties.Http settings;
+    private final Duration acquireTimeout;
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+
+    private final Semaphore totalPermits;
+    private final Map<String, Semaphore> routePermits = new ConcurrentHashMap<>();
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public JdkUpstreamClientEngine(NlpCloudProperties properties) {
+        this.settings = properties.getHttp();
+        this.acquireTimeout = properties.getTimeout();
+        this.totalPermits = new Semaphore(Math.max(settings.getMaxConnectionsTotal(), 1), true);
+        this.executor = properties.getVirtualThreads().isEnabled() ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(useHttp2(properties) ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER);
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        this.httpClient = builder.build();
+    }
+
+    @Override
+    public ClientHttpRequestFactory requestFactory(Duration readTimeout) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(readTimeout);
+        return (uri, method) -> new LimitedRequest(factory.createRequest(uri, method));
+    }
+
+    @Override
+    public UpstreamPoolStats stats() {
+        return new UpstreamPoolStats("jdk", httpClient.version().name(), settings.getMaxConnectionsTotal(),
+                settings.getMaxConnectionsPerRoute(), leased.get(), null, pending.get(), List.of("available"));
+    }
+
+    @Override
+    public void close() {
+        httpClient.shutdownNow();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean useHttp2(NlpCloudProperties properties) {
+        String baseUrl = properties.getBaseUrl();
+        return properties.getHttp().isHttp2() && baseUrl != null && baseUrl.trim().startsWith("https://");
+    }
+
+    private Semaphore routePermits(URI uri) {
+        String route = uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+        return routePermits.computeIfAbsent(route,
+                key -> new Semaphore(Math.max(settings.getMaxConnectionsPerRoute(), 1), true));
+    }
+
+    /** Takes a route permit and a total permit, waiting at most the connect timeout for both together. */
+    private void acquire(Semaphore route) throws IOException {
+        long deadline = System.nanoTime() + acquireTimeout.toNanos();
+        pending.incrementAndGet();
+        try {
+            if (!route.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new IOException("Timed out waiting for an upstream connection slot");
+            }
+            if (!totalPermits.tryAcquire(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) {
+                route.release();
+                throw new IOException("Timed out waiting for an upstream connection slot");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for an upstream connection slot");
+        } finally {
+            pending.decrementAndGet();
+        }
+        leased.incrementAndGet();
+    }
+
+    private void release(Semaphore route) {
+        leased.decrementAndGet();
+        totalPermits.release();
+        route.release();
+    }
+
+    /** Holds a permit from {@link #execute()} until the response is closed, or until the exchange fails. */
+    private final class LimitedRequest implements ClientHttpRequest {
+
+        private final ClientHttpRequest delegate;
+
+        LimitedRequest(ClientHttpRequest delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            Semaphore route = routePermits(delegate.getURI());
+            acquire(route);
+            try {
+                return new LimitedResponse(delegate.execute(), route);
+            } catch (IOException | RuntimeException ex) {
+                release(route);
+                throw ex;
+            }
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+    }
+
+    private final class LimitedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Semaphore route;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        LimitedResponse(ClientHttpResponse delegate, Semaphore route) {
+            this.delegate = delegate;
+            this.route = route;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    release(route);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.client;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.service.NlpTask;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Routes each request to a request factory configured with the read timeout of the task it is made for. The
+ * task is bound explicitly around the call with {@link #forTask}, because several tasks share one upstream
+ * path (every generative task goes to the summarization endpoint). Requests made outside a binding use
+ * {@code http.read-timeout}. All factories share the engine's connection pool.
+ */
+public class PerTaskTimeoutRequestFactory implements ClientHttpRequestFactory {
+
+    private static final ThreadLocal<NlpTask> CURRENT_TASK = new ThreadLocal<>();
+
+    private final ClientHttpRequestFactory defaultFactory;
+    private final Map<NlpTask, ClientHttpRequestFactory> taskFactories = new EnumMap<>(NlpTask.class);
+
+    public PerTaskTimeoutRequestFactory(UpstreamClientEngine engine, NlpCloudProperties properties) {
+        NlpCloudProperties.Http http = properties.getHttp();
+        this.defaultFactory = engine.requestFactory(http.getReadTimeout());
+        for (NlpTask task : NlpTask.values()) {
+            taskFactories.put(task, engine.requestFactory(http.readTimeoutFor(task)));
+        }
+    }
+
+    /**
+     * Runs {@code call} with {@code task} bound to the current thread, so requests it creates get that task's
+     * read timeout. RestTemplate creates the request on the calling thread, which makes a thread binding enough.
+     */
+    public static <T> T forTask(NlpTask task, Supplier<T> call) {
+        NlpTask previous = CURRENT_TASK.get();
+        CURRENT_TASK.set(task);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_TASK.remove();
+            } else {
+                CURRENT_TASK.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        NlpTask task = CURRENT_TASK.get();
+        ClientHttpRequestFactory factory = task != null ? taskFactories.get(task) : defaultFactory;
+        return factory.createRequest(uri, httpMethod);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.demo.client;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Strips protected health information from upstream payload previews before they are logged.
+ * <p>
+ * Free-text JSON fields (the note, prompts, generated text) are replaced by their length, since any of their
+ * content may identify a patient. Identifiers that can also appear elsewhere (emails, phone and social security
+ * numbers, dates, record numbers) are masked by pattern. What remains is the payload structure, field names,
+ * entity types and offsets, which is what debugging upstream responses usually needs.
+ */
+public final class PhiRedactor {
+
+    private static final Pattern FREE_TEXT_FIELD = Pattern.compile(
+            "\"(text|note|context|prompt|summary_text|generated_text|correct_text|correction|patientName|reportText)\""
+                    + "\\s*:\\s*\"((?:[^\"\\\\]|\\\\.)*)(\"|$)");
+    private static final Pattern EMAIL = Pattern.compile("[\\w.+-]+@[\\w-]+\\.[\\w.-]+");
+    private static final Pattern SSN = Pattern.compile("\\b\\d{3}-\\d{2}-\\d{4}\\b");
+    private static final Pattern PHONE = Pattern.compile("(?:\\+?1[ .-]?)?\\(?\\b\\d{3}\\)?[ .-]?\\d{3}[ .-]\\d{4}\\b");
+    private static final Pattern DATE = Pattern.compile(
+            "\\b(?:\\d{4}-\\d{2}-\\d{2}|\\d{1,2}[/.-]\\d{1,2}[/.-]\\d{2,4})\\b");
+    private static final Pattern RECORD_NUMBER = Pattern.compile("\\b\\d{6,}\\b");
+
+    private PhiRedactor() {
+    }
+
+    public static String redact(String payload) {
+        if (payload == null || payload.isEmpty()) {
+            return payload;
+        }
+        Matcher field = FREE_TEXT_FIELD.matcher(payload);
+        StringBuilder redacted = new StringBuilder(Math.min(payload.length(), 1024));
+        while (field.find()) {
+            String replacement = "\"" + field.group(1) + "\":\"[REDACTED " + field.group(2).length() + " chars]"
+                    + field.group(3);
+            field.appendReplacement(redacted, Matcher.quoteReplacement(replacement));
+        }
+        field.appendTail(redacted);
+
+        String masked = EMAIL.matcher(redacted).replaceAll("[EMAIL]");
+        masked = SSN.matcher(masked).replaceAll("[SSN]");
+        masked = PHONE.matcher(masked).replaceAll("[PHONE]");
+        masked = DATE.matcher(masked).replaceAll("[DATE]");
+        return RECORD_NUMBER.matcher(masked).replaceAll("[ID]");
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.client;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.time.Duration;
+
+/**
+ * HTTP engine used for NLP Cloud calls. Engines own the underlying connection pool and hand out
+ * request factories that share it, each with its own read timeout.
+ */
+public interface UpstreamClientEngine extends AutoCloseable {
+
+    ClientHttpRequestFactory requestFactory(Duration readTimeout);
+
+    UpstreamPoolStats stats();
+
+    @Override
+    void close();
+}
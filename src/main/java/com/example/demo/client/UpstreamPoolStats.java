@@ -0,0 +1,22 @@
+package com.example.demo.client;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Snapshot of the upstream connection pool. A counter the engine cannot observe is {@code null} and named in
+ * {@code unsupported}, so a missing value is never mistaken for zero.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record UpstreamPoolStats(
+        String engine,
+        String protocol,
+        int maxTotal,
+        int maxPerRoute,
+        Integer leased,
+        Integer available,
+        Integer pending,
+        List<String> unsupported
+) {
+}
@@ -0,0 +1,127 @@
+package com.example.demo.client;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.exception.UpstreamServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Posts to NLP Cloud and hands the response body stream straight to a mapper instead of materializing it as a
+ * {@code String} first.
+ * <p>
+ * Bodies larger than {@code nlpcloud.http.max-response-size} are rejected, both up front from
+ * {@code Content-Length} and while streaming. Exchanges are logged by {@link UpstreamTrafficLogger}.
+ */
+@Component
+public class UpstreamResponseReader {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamResponseReader.class);
+    private static final String SAFE_UPSTREAM_MESSAGE = "Unable to process NLP request at this time. Please try again later.";
+
+    private final NlpCloudProperties.Http settings;
+
+    public UpstreamResponseReader(NlpCloudProperties properties) {
+        this.settings = properties.getHttp();
+    }
+
+    public <T> T post(RestTemplate restTemplate, String path, HttpEntity<?> request, BodyMapper<T> mapper) {
+        return restTemplate.execute(path, HttpMethod.POST, restTemplate.httpEntityCallback(request),
+                response -> read(path, response, mapper));
+    }
+
+    /**
+     * Like {@link #post}, but also passes the response content type, for callers that consume the body
+     * incrementally as it arrives and need to tell a streamed text body from a complete JSON document.
+     */
+    public <T> T stream(RestTemplate restTemplate, String path, HttpEntity<?> request, StreamMapper<T> mapper) {
+        return restTemplate.execute(path, HttpMethod.POST, restTemplate.httpEntityCallback(request),
+                response -> read(path, response, body -> mapper.map(response.getHeaders().getContentType(), body)));
+    }
+
+    <T> T read(String path, ClientHttpResponse response, BodyMapper<T> mapper) throws IOException {
+        long limit = settings.getMaxResponseSize().toBytes();
+        long contentLength = response.getHeaders().getContentLength();
+        if (contentLength > limit) {
+            throw tooLarge(path, limit);
+        }
+        try (InputStream body = new BoundedInputStream(response.getBody(), path, limit)) {
+            return mapper.map(body);
+        }
+    }
+
+    private static UpstreamServiceException tooLarge(String path, long limit) {
+        log.warn("NLP Cloud response from {} exceeded {} bytes", path, limit);
+        return new UpstreamServiceException(SAFE_UPSTREAM_MESSAGE);
+    }
+
+    @FunctionalInterface
+    public interface BodyMapper<T> {
+        T map(InputStream body) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface StreamMapper<T> {
+        T map(MediaType contentType, InputStream body) throws IOException;
+    }
+
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private final String path;
+        private final long limit;
+        private long count;
+
+        private BoundedInputStream(InputStream in, String path, long limit) {
+            super(in);
+            this.path = path;
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                advance(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                advance(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            advance(skipped);
+            return skipped;
+        }
+
+        /** Re-reads after {@code reset()} would be counted twice. */
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void advance(long bytes) {
+            count += bytes;
+            if (count > limit) {
+                throw tooLarge(path, limit);
+            }
+        }
+    }
+}
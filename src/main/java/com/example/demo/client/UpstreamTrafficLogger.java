@@ -0,0 +1,316 @@
+package com.example.demo.client;
+
+import com.example.demo.config.NlpCloudProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs upstream NLP Cloud exchanges as one structured line each, without writing patient data to the logs.
+ * <p>
+ * A line carries method, path, status, time to headers and to the end of the body, and each body's length and
+ * SHA-256 prefix, so identical requests and responses can be correlated without their content. Only a
+ * {@code nlpcloud.traffic-log.sample-rate} fraction of successful exchanges is logged (INFO); failed ones are
+ * always logged (WARN) when {@code log-failures} is set. With DEBUG enabled, or for failures, the line adds
+ * previews of the bodies that have been passed through {@link PhiRedactor} and capped at {@code max-body-chars}.
+ * <p>
+ * Exchanges that are not logged are passed through untouched. For logged ones the response is hashed as it is
+ * read; redaction, formatting and the write itself happen on a single background thread behind a bounded queue,
+ * and lines are dropped rather than slowing down callers when the queue is full.
+ */
+@Component
+public class UpstreamTrafficLogger implements ClientHttpRequestInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamTrafficLogger.class);
+    private static final int HASH_HEX_CHARS = 16;
+
+    private final NlpCloudProperties.TrafficLog settings;
+    private final Executor writer;
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Autowired
+    public UpstreamTrafficLogger(NlpCloudProperties properties) {
+        this(properties, backgroundWriter(properties.getTrafficLog().getQueueCapacity()));
+    }
+
+    UpstreamTrafficLogger(NlpCloudProperties properties, Executor writer) {
+        this.settings = properties.getTrafficLog();
+        this.writer = writer;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!settings.isEnabled()) {
+            return execution.execute(request, body);
+        }
+        boolean sampled = sampled();
+        if (!sampled && !settings.isLogFailures()) {
+            return execution.execute(request, body);
+        }
+        long started = System.nanoTime();
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException ex) {
+            submit(new Exchange(request, body, started, ex.getClass().getSimpleName()));
+            throw ex;
+        }
+        HttpStatusCode status = response.getStatusCode();
+        if (!sampled && !status.isError()) {
+            return response;
+        }
+        Exchange exchange = new Exchange(request, body, started, String.valueOf(status.value()));
+        exchange.failed = status.isError();
+        exchange.headersNanos = System.nanoTime() - started;
+        return new LoggedResponse(response, exchange);
+    }
+
+    /** Lines dropped because the background queue was full. */
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (writer instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
+
+    private boolean sampled() {
+        double rate = settings.getSampleRate();
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private void submit(Exchange exchange) {
+        exchange.totalNanos = System.nanoTime() - exchange.started;
+        try {
+            writer.execute(() -> write(exchange));
+        } catch (RejectedExecutionException ex) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void write(Exchange exchange) {
+        boolean failed = exchange.failed;
+        if (failed ? !log.isWarnEnabled() : !log.isInfoEnabled()) {
+            return;
+        }
+        StringBuilder line = new StringBuilder(256)
+                .append("upstream_call method=").append(exchange.method)
+                .append(" path=").append(exchange.path)
+                .append(" status=").append(exchange.status)
+                .append(" headers_ms=").append(TimeUnit.NANOSECONDS.toMillis(exchange.headersNanos))
+                .append(" total_ms=").append(TimeUnit.NANOSECONDS.toMillis(exchange.totalNanos))
+                .append(" req_bytes=").append(exchange.requestBody.length)
+                .append(" req_sha256=").append(hash(exchange.requestBody))
+                .append(" resp_bytes=").append(exchange.responseBytes)
+                .append(" resp_sha256=").append(exchange.responseHash == null ? "-" : exchange.responseHash);
+        if (failed || log.isDebugEnabled()) {
+            line.append(" req_preview=").append(preview(exchange.requestBody));
+            if (exchange.responsePrefix != null) {
+                line.append(" resp_preview=").append(preview(exchange.responsePrefix));
+            }
+        }
+        long droppedSoFar = dropped.get();
+        if (droppedSoFar > 0) {
+            line.append(" dropped_lines=").append(droppedSoFar);
+        }
+        if (failed) {
+            log.warn(line.toString());
+        } else {
+            log.info(line.toString());
+        }
+    }
+
+    private String preview(byte[] bytes) {
+        int maxChars = settings.getMaxBodyChars();
+        // Redaction shortens free text, so look at more than the final cap before redacting.
+        String text = new String(bytes, 0, Math.min(bytes.length, captureLimit()), StandardCharsets.UTF_8);
+        String redacted = PhiRedactor.redact(text).replace('\n', ' ').replace('\r', ' ');
+        if (redacted.length() > maxChars) {
+            return '"' + redacted.substring(0, maxChars) + "...[truncated]\"";
+        }
+        return '"' + redacted + '"';
+    }
+
+    private int captureLimit() {
+        return Math.max(settings.getMaxBodyChars(), 0) * 8;
+    }
+
+    private static String hash(byte[] bytes) {
+        MessageDigest digest = sha256();
+        return HexFormat.of().formatHex(digest.digest(bytes)).substring(0, HASH_HEX_CHARS);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private static ExecutorService backgroundWriter(int queueCapacity) {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "upstream-traffic-log");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> {
+                    throw new RejectedExecutionException("Upstream traffic log queue is full");
+                });
+    }
+
+    /** One exchange, filled in on the calling thread and read only by the writer after submission. */
+    private static final class Exchange {
+
+        private final String method;
+        private final String path;
+        private final byte[] requestBody;
+        private final long started;
+        private final String status;
+        private boolean failed = true;
+        private long headersNanos;
+        private long totalNanos;
+        private long responseBytes;
+        private String responseHash;
+        private byte[] responsePrefix;
+
+        private Exchange(HttpRequest request, byte[] requestBody, long started, String status) {
+            this.method = request.getMethod().name();
+            this.path = request.getURI().getPath();
+            this.requestBody = requestBody;
+            this.started = started;
+            this.status = status;
+        }
+    }
+
+    private final class LoggedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Exchange exchange;
+        private final MessageDigest digest = sha256();
+        private final ByteArrayOutputStream prefix = new ByteArrayOutputStream();
+        private boolean submitted;
+        private InputStream body;
+
+        private LoggedResponse(ClientHttpResponse delegate, Exchange exchange) {
+            this.delegate = delegate;
+            this.exchange = exchange;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(delegate.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        int value = super.read();
+                        if (value >= 0) {
+                            observe(value);
+                        }
+                        return value;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int read = super.read(buffer, offset, length);
+                        if (read > 0) {
+                            observe(buffer, offset, read);
+                        }
+                        return read;
+                    }
+
+                    /** Re-reads after {@code reset()} would be hashed twice. */
+                    @Override
+                    public boolean markSupported() {
+                        return false;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        finish();
+                        super.close();
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            finish();
+            delegate.close();
+        }
+
+        private void observe(int value) {
+            exchange.responseBytes++;
+            digest.update((byte) value);
+            if (prefix.size() < captureLimit()) {
+                prefix.write(value);
+            }
+        }
+
+        private void observe(byte[] buffer, int offset, int length) {
+            exchange.responseBytes += length;
+            digest.update(buffer, offset, length);
+            int room = captureLimit() - prefix.size();
+            if (room > 0) {
+                prefix.write(buffer, offset, Math.min(room, length));
+            }
+        }
+
+        private void finish() {
+            if (submitted) {
+                return;
+            }
+            submitted = true;
+            exchange.responseHash = HexFormat.of().formatHex(digest.digest()).substring(0, HASH_HEX_CHARS);
+            exchange.responsePrefix = prefix.toByteArray();
+            submit(exchange);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Async request handling. Async endpoints hand the servlet thread back to the container and wait for
+ * NLP Cloud on a virtual thread from {@code nlpAsyncExecutor}. If no result arrives within
+ * {@code nlpcloud.async.timeout}, the request fails with 504.
+ */
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+
+    private final NlpCloudProperties properties;
+
+    public AsyncConfig(NlpCloudProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService nlpAsyncExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(properties.getAsync().getTimeout().toMillis());
+        configurer.setTaskExecutor(new TaskExecutorAdapter(nlpAsyncExecutor()));
+    }
+}
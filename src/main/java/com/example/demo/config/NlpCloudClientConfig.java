@@ -1,5 +1,12 @@
 package com.example.demo.config;
 
+import com.example.demo.client.ApacheUpstreamClientEngine;
+import com.example.demo.client.JdkUpstreamClientEngine;
+import com.example.demo.client.PerTaskTimeoutRequestFactory;
+import com.example.demo.client.UpstreamClientEngine;
+import com.example.demo.client.UpstreamTrafficLogger;
+import com.example.demo.metrics.UpstreamMetrics;
+import com.example.demo.metrics.UpstreamSizeInterceptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -7,24 +14,35 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.Duration;
-
 @Configuration
 public class NlpCloudClientConfig {
 
     private static final Logger log = LoggerFactory.getLogger(NlpCloudClientConfig.class);
 
     @Bean
-    public RestTemplate nlpCloudRestTemplate(NlpCloudProperties properties, RestTemplateBuilder builder) {
+    public UpstreamClientEngine upstreamClientEngine(NlpCloudProperties properties) {
+        NlpCloudProperties.Http http = properties.getHttp();
+        log.info("NLP Cloud HTTP engine   → {} (max {} connections, {} per route, idle eviction after {})",
+                http.getEngine(), http.getMaxConnectionsTotal(), http.getMaxConnectionsPerRoute(), http.getIdleTimeout());
+        return switch (http.getEngine()) {
+            case JDK -> new JdkUpstreamClientEngine(properties);
+            case APACHE -> new ApacheUpstreamClientEngine(properties);
+        };
+    }
+
+    @Bean
+    public RestTemplate nlpCloudRestTemplate(NlpCloudProperties properties, RestTemplateBuilder builder,
+                                             UpstreamMetrics metrics, UpstreamTrafficLogger trafficLogger) {
         String baseUrl = normalizeBaseUrl(properties.getBaseUrl());
         log.info("NLP Cloud base URL     → {}", baseUrl);
         log.info("Configuring NLP Cloud client with base URL '{}' and summarization model '{}'", baseUrl,
                 safeValue(properties.getSummarizationModel()));
 
+        UpstreamClientEngine engine = upstreamClientEngine(properties);
         return builder
                 .rootUri(baseUrl)
-                .setConnectTimeout(properties.getTimeout())
-                .setReadTimeout(Duration.ofSeconds(60))
+                .requestFactory(() -> new PerTaskTimeoutRequestFactory(engine, properties))
+                .additionalInterceptors(new UpstreamSizeInterceptor(metrics), trafficLogger)
                 .build();
     }
 
@@ -1,10 +1,17 @@
 package com.example.demo.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
+import com.example.demo.service.NlpTask;
 import jakarta.validation.constraints.NotBlank;
 import java.time.Duration;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
 @Validated
 @ConfigurationProperties(prefix = "nlpcloud")
@@ -42,6 +49,85 @@ public class NlpCloudProperties {
 
     private String entityEndpoint = "/entities";
 
+    // ===== HTTP client =====
+
+    private final Http http = new Http();
+
+    // ===== Retries =====
+
+    private final Retry retry = new Retry();
+
+    // ===== Circuit breaker =====
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    // ===== Bulkheads =====
+
+    private final Bulkhead bulkhead = new Bulkhead();
+
+    // ===== Client-side rate limiting =====
+
+    private final RateLimit rateLimit = new RateLimit();
+
+    // ===== Response cache =====
+
+    private final ResponseCache responseCache = new ResponseCache();
+
+    // ===== Request coalescing =====
+
+    private final Coalescing coalescing = new Coalescing();
+
+    // ===== Combined analysis =====
+
+    private final Analysis analysis = new Analysis();
+
+    // ===== Async endpoints =====
+
+    private final Async async = new Async();
+
+    // ===== Batch processing =====
+
+    private final Batch batch = new Batch();
+
+    // ===== Virtual threads =====
+
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    // ===== Request timing (Server-Timing header) =====
+
+    private final Timing timing = new Timing();
+
+    // ===== Upstream traffic logging =====
+
+    private final TrafficLog trafficLog = new TrafficLog();
+
+    // ===== Long-document summarization =====
+
+    private final LongDocument longDocument = new LongDocument();
+
+    // ===== Incremental re-analysis =====
+
+    private final Incremental incremental = new Incremental();
+
+    // ===== Streaming endpoints =====
+
+    private final Streaming streaming = new Streaming();
+
+    // ===== Prompt templates =====
+
+    /** Prompt versions keyed by prompt name (grammar, summary, keywords, entities, combine). */
+    private Map<String, Prompt> prompts = new LinkedHashMap<>();
+
+    // ===== Local keyword and entity extraction =====
+
+    private final LocalExtraction localExtraction = new LocalExtraction();
+
+    // ===== Model backend =====
+
+    private final Backend backend = new Backend();
+
+    private final LocalModel localModel = new LocalModel();
+
     // ===== Getters / Setters =====
 
     public String getApiKey() {
@@ -140,4 +226,1077 @@ public class NlpCloudProperties {
     public void setGrammarEndpoint(String grammarEndpoint) {
         this.grammarEndpoint = grammarEndpoint;
     }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public Retry getRetry() {
+        return retry;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public Coalescing getCoalescing() {
+        return coalescing;
+    }
+
+    public Analysis getAnalysis() {
+        return analysis;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public VirtualThreads getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public Timing getTiming() {
+        return timing;
+    }
+
+    public TrafficLog getTrafficLog() {
+        return trafficLog;
+    }
+
+    public LongDocument getLongDocument() {
+        return longDocument;
+    }
+
+    public Incremental getIncremental() {
+        return incremental;
+    }
+
+    public Streaming getStreaming() {
+        return streaming;
+    }
+
+    public Map<String, Prompt> getPrompts() {
+        return prompts;
+    }
+
+    public void setPrompts(Map<String, Prompt> prompts) {
+        this.prompts = prompts;
+    }
+
+    public LocalExtraction getLocalExtraction() {
+        return localExtraction;
+    }
+
+    public Backend getBackend() {
+        return backend;
+    }
+
+    public LocalModel getLocalModel() {
+        return localModel;
+    }
+
+    public static class ResponseCache {
+
+        private boolean enabled = true;
+
+        private long maxEntries = 10_000;
+
+        private Duration ttl = Duration.ofMinutes(30);
+
+        /** Payloads at or above this size (bytes) are stored deflated. */
+        private int compressionThreshold = 512;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getCompressionThreshold() {
+            return compressionThreshold;
+        }
+
+        public void setCompressionThreshold(int compressionThreshold) {
+            this.compressionThreshold = compressionThreshold;
+        }
+    }
+
+    public static class Coalescing {
+
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class Analysis {
+
+        /** Overall deadline shared by all tasks of one combined analysis. */
+        private Duration deadline = Duration.ofSeconds(20);
+
+        public Duration getDeadline() {
+            return deadline;
+        }
+
+        public void setDeadline(Duration deadline) {
+            this.deadline = deadline;
+        }
+    }
+
+    public static class Batch {
+
+        /** Maximum number of notes processed at the same time within one batch. */
+        private int maxConcurrency = 8;
+
+        /** Maximum number of notes accepted in one batch request. */
+        private int maxItems = 1000;
+
+        /** How long the streamed batch response may stay open. */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public int getMaxItems() {
+            return maxItems;
+        }
+
+        public void setMaxItems(int maxItems) {
+            this.maxItems = maxItems;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class Http {
+
+        public enum Engine {
+            /** {@code java.net.http.HttpClient}: HTTP/2 multiplexing, in-flight exchanges bounded per route and in total. */
+            JDK,
+            /** Apache HttpClient 5 classic: HTTP/1.1 with a per-route connection pool and pool statistics. */
+            APACHE
+        }
+
+        private Engine engine = Engine.JDK;
+
+        /** Negotiate HTTP/2 over TLS when the upstream supports it (JDK engine, https base URLs only). */
+        private boolean http2 = true;
+
+        private Duration readTimeout = Duration.ofSeconds(60);
+
+        /** Read timeout overrides per task, falling back to {@link #readTimeout}. */
+        private Map<NlpTask, Duration> readTimeouts = new EnumMap<>(NlpTask.class);
+
+        /** The JDK engine bounds concurrent exchanges rather than connections, as HTTP/2 multiplexes them. */
+        private int maxConnectionsPerRoute = 20;
+
+        private int maxConnectionsTotal = 50;
+
+        /** Idle connections are evicted after this long (Apache engine; the JDK client uses its own keep-alive). */
+        private Duration idleTimeout = Duration.ofSeconds(30);
+
+        private Duration connectionTimeToLive = Duration.ofMinutes(5);
+
+        /** Upstream response bodies larger than this are rejected with 502. */
+        private DataSize maxResponseSize = DataSize.ofMegabytes(4);
+
+        public Engine getEngine() {
+            return engine;
+        }
+
+        public void setEngine(Engine engine) {
+            this.engine = engine;
+        }
+
+        public boolean isHttp2() {
+            return http2;
+        }
+
+        public void setHttp2(boolean http2) {
+            this.http2 = http2;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Map<NlpTask, Duration> getReadTimeouts() {
+            return readTimeouts;
+        }
+
+        public void setReadTimeouts(Map<NlpTask, Duration> readTimeouts) {
+            this.readTimeouts = readTimeouts;
+        }
+
+        public Duration readTimeoutFor(NlpTask task) {
+            return readTimeouts.getOrDefault(task, readTimeout);
+        }
+
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        }
+
+        public int getMaxConnectionsTotal() {
+            return maxConnectionsTotal;
+        }
+
+        public void setMaxConnectionsTotal(int maxConnectionsTotal) {
+            this.maxConnectionsTotal = maxConnectionsTotal;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        public Duration getConnectionTimeToLive() {
+            return connectionTimeToLive;
+        }
+
+        public void setConnectionTimeToLive(Duration connectionTimeToLive) {
+            this.connectionTimeToLive = connectionTimeToLive;
+        }
+
+        public DataSize getMaxResponseSize() {
+            return maxResponseSize;
+        }
+
+        public void setMaxResponseSize(DataSize maxResponseSize) {
+            this.maxResponseSize = maxResponseSize;
+        }
+
+    }
+
+    public static class RateLimit {
+
+        private boolean enabled = true;
+
+        /** Starting request rate per model path, in requests per second. */
+        private double initialRate = 2.0;
+
+        /** Rate overrides keyed by model name, e.g. {@code rates[llama-3-1-405b]=0.5}. */
+        private Map<String, Double> rates = new LinkedHashMap<>();
+
+        private double minRate = 0.1;
+
+        private double maxRate = 20.0;
+
+        /** Requests that may be issued back-to-back before pacing applies. */
+        private int burst = 2;
+
+        /** Rate added after each successful call (additive increase). */
+        private double increaseStep = 0.05;
+
+        /** Factor applied to the rate after a 429 (multiplicative decrease). */
+        private double decreaseFactor = 0.5;
+
+        /** Longest a request may wait for a permit before failing fast. */
+        private Duration maxWait = Duration.ofSeconds(5);
+
+        /** Maximum number of requests waiting for a permit per model path. */
+        private int maxQueue = 50;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getInitialRate() {
+            return initialRate;
+        }
+
+        public void setInitialRate(double initialRate) {
+            this.initialRate = initialRate;
+        }
+
+        public Map<String, Double> getRates() {
+            return rates;
+        }
+
+        public void setRates(Map<String, Double> rates) {
+            this.rates = rates;
+        }
+
+        public double getMinRate() {
+            return minRate;
+        }
+
+        public void setMinRate(double minRate) {
+            this.minRate = minRate;
+        }
+
+        public double getMaxRate() {
+            return maxRate;
+        }
+
+        public void setMaxRate(double maxRate) {
+            this.maxRate = maxRate;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public double getIncreaseStep() {
+            return increaseStep;
+        }
+
+        public void setIncreaseStep(double increaseStep) {
+            this.increaseStep = increaseStep;
+        }
+
+        public double getDecreaseFactor() {
+            return decreaseFactor;
+        }
+
+        public void setDecreaseFactor(double decreaseFactor) {
+            this.decreaseFactor = decreaseFactor;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public int getMaxQueue() {
+            return maxQueue;
+        }
+
+        public void setMaxQueue(int maxQueue) {
+            this.maxQueue = maxQueue;
+        }
+    }
+
+    public static class Retry {
+
+        /** Lower bound of the decorrelated-jitter backoff. */
+        private Duration baseDelay = Duration.ofMillis(200);
+
+        /** Upper bound of a single backoff delay. */
+        private Duration maxDelay = Duration.ofSeconds(5);
+
+        /** Upstream HTTP statuses that are retried. */
+        private Set<Integer> retryableStatuses = Set.of(429, 500, 502, 503, 504);
+
+        /** Retry connection failures and timeouts. */
+        private boolean retryOnIoError = true;
+
+        /** Retries allowed as a fraction of first attempts across all upstream calls. */
+        private double budgetRatio = 0.1;
+
+        /** Retries always allowed per second regardless of traffic, so low volume still gets retried. */
+        private double budgetMinPerSecond = 1.0;
+
+        public Duration getBaseDelay() {
+            return baseDelay;
+        }
+
+        public void setBaseDelay(Duration baseDelay) {
+            this.baseDelay = baseDelay;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public Set<Integer> getRetryableStatuses() {
+            return retryableStatuses;
+        }
+
+        public void setRetryableStatuses(Set<Integer> retryableStatuses) {
+            this.retryableStatuses = retryableStatuses;
+        }
+
+        public boolean isRetryOnIoError() {
+            return retryOnIoError;
+        }
+
+        public void setRetryOnIoError(boolean retryOnIoError) {
+            this.retryOnIoError = retryOnIoError;
+        }
+
+        public double getBudgetRatio() {
+            return budgetRatio;
+        }
+
+        public void setBudgetRatio(double budgetRatio) {
+            this.budgetRatio = budgetRatio;
+        }
+
+        public double getBudgetMinPerSecond() {
+            return budgetMinPerSecond;
+        }
+
+        public void setBudgetMinPerSecond(double budgetMinPerSecond) {
+            this.budgetMinPerSecond = budgetMinPerSecond;
+        }
+    }
+
+    public static class CircuitBreaker {
+
+        private boolean enabled = true;
+
+        /** Number of most recent calls the failure and slow-call rates are computed over. */
+        private int slidingWindowSize = 20;
+
+        /** Calls that must be recorded before the breaker may open. */
+        private int minimumCalls = 10;
+
+        /** Failure rate in percent at which the breaker opens. */
+        private double failureRateThreshold = 50;
+
+        /** Calls taking at least this long count as slow. */
+        private Duration slowCallDuration = Duration.ofSeconds(30);
+
+        /** Slow-call rate in percent at which the breaker opens. */
+        private double slowCallRateThreshold = 80;
+
+        /** How long the breaker stays open before admitting probes. */
+        private Duration waitInOpenState = Duration.ofSeconds(30);
+
+        /** Probe calls admitted while half-open; all must succeed to close the breaker. */
+        private int halfOpenProbes = 3;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public double getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public Duration getSlowCallDuration() {
+            return slowCallDuration;
+        }
+
+        public void setSlowCallDuration(Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+        }
+
+        public double getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(double slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public Duration getWaitInOpenState() {
+            return waitInOpenState;
+        }
+
+        public void setWaitInOpenState(Duration waitInOpenState) {
+            this.waitInOpenState = waitInOpenState;
+        }
+
+        public int getHalfOpenProbes() {
+            return halfOpenProbes;
+        }
+
+        public void setHalfOpenProbes(int halfOpenProbes) {
+            this.halfOpenProbes = halfOpenProbes;
+        }
+    }
+
+    public static class Bulkhead {
+
+        private boolean enabled = true;
+
+        /** Concurrent upstream calls allowed per task unless overridden below. */
+        private int maxConcurrent = 16;
+
+        private Map<NlpTask, Integer> maxConcurrentPerTask = new EnumMap<>(NlpTask.class);
+
+        /** How long a call may wait for a free slot; zero rejects immediately when the bulkhead is full. */
+        private Duration maxWait = Duration.ZERO;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public Map<NlpTask, Integer> getMaxConcurrentPerTask() {
+            return maxConcurrentPerTask;
+        }
+
+        public void setMaxConcurrentPerTask(Map<NlpTask, Integer> maxConcurrentPerTask) {
+            this.maxConcurrentPerTask = maxConcurrentPerTask;
+        }
+
+        public int maxConcurrentFor(NlpTask task) {
+            return maxConcurrentPerTask.getOrDefault(task, maxConcurrent);
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+
+    public static class VirtualThreads {
+
+        /**
+         * Mirrors {@code spring.threads.virtual.enabled}; also moves upstream HTTP client work onto virtual threads.
+         * Required while {@code max-retries} is above zero, because retries back off on the request thread.
+         */
+        private boolean enabled = true;
+
+        /** Log virtual threads that stay pinned to their carrier, using the JFR {@code jdk.VirtualThreadPinned} event. */
+        private boolean pinningDiagnostics;
+
+        /** Pinned periods shorter than this are not reported. */
+        private Duration pinnedThreshold = Duration.ofMillis(20);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isPinningDiagnostics() {
+            return pinningDiagnostics;
+        }
+
+        public void setPinningDiagnostics(boolean pinningDiagnostics) {
+            this.pinningDiagnostics = pinningDiagnostics;
+        }
+
+        public Duration getPinnedThreshold() {
+            return pinnedThreshold;
+        }
+
+        public void setPinnedThreshold(Duration pinnedThreshold) {
+            this.pinnedThreshold = pinnedThreshold;
+        }
+    }
+
+    public static class Async {
+
+        /** How long an async request may wait for its NLP result before answering 504. */
+        private Duration timeout = Duration.ofSeconds(30);
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class Timing {
+
+        /** Add a {@code Server-Timing} header with per-phase durations to {@code /api} responses. */
+        private boolean enabled = true;
+
+        /** Fraction of requests that record phases. Spans are additionally sampled by {@code management.tracing}. */
+        private double sampleRate = 1.0;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+    }
+
+    public static class TrafficLog {
+
+        private boolean enabled = true;
+
+        /** Fraction of successful upstream exchanges logged. */
+        private double sampleRate = 0.01;
+
+        /** Log every failed exchange (error status or I/O failure) regardless of sampling. */
+        private boolean logFailures = true;
+
+        /** Redacted body previews are cut to this many characters. */
+        private int maxBodyChars = 512;
+
+        /** Lines waiting for the background writer; further lines are dropped. */
+        private int queueCapacity = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public boolean isLogFailures() {
+            return logFailures;
+        }
+
+        public void setLogFailures(boolean logFailures) {
+            this.logFailures = logFailures;
+        }
+
+        public int getMaxBodyChars() {
+            return maxBodyChars;
+        }
+
+        public void setMaxBodyChars(int maxBodyChars) {
+            this.maxBodyChars = maxBodyChars;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    public static class LongDocument {
+
+        /** Smallest chunk that may end at a content-defined boundary. */
+        private int minChunkChars = 3000;
+
+        /** Hard chunk size limit, overlap included; keeps each prompt within the model context window. */
+        private int maxChunkChars = 6000;
+
+        /** Trailing text of the previous chunk repeated at the start of the next one. */
+        private int overlapChars = 400;
+
+        /** Maximum number of chunk summaries requested at the same time within one document. */
+        private int maxConcurrency = 4;
+
+        /** Longest document accepted. */
+        private int maxDocumentChars = 200_000;
+
+        /** Time budget for the whole map-reduce run. */
+        private Duration timeout = Duration.ofMinutes(2);
+
+        public int getMinChunkChars() {
+            return minChunkChars;
+        }
+
+        public void setMinChunkChars(int minChunkChars) {
+            this.minChunkChars = minChunkChars;
+        }
+
+        public int getMaxChunkChars() {
+            return maxChunkChars;
+        }
+
+        public void setMaxChunkChars(int maxChunkChars) {
+            this.maxChunkChars = maxChunkChars;
+        }
+
+        public int getOverlapChars() {
+            return overlapChars;
+        }
+
+        public void setOverlapChars(int overlapChars) {
+            this.overlapChars = overlapChars;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public int getMaxDocumentChars() {
+            return maxDocumentChars;
+        }
+
+        public void setMaxDocumentChars(int maxDocumentChars) {
+            this.maxDocumentChars = maxDocumentChars;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class Incremental {
+
+        /** Maximum number of paragraphs sent upstream at the same time within one note. */
+        private int maxConcurrency = 4;
+
+        /** Time budget for all paragraphs of one note. */
+        private Duration deadline = Duration.ofSeconds(20);
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public Duration getDeadline() {
+            return deadline;
+        }
+
+        public void setDeadline(Duration deadline) {
+            this.deadline = deadline;
+        }
+    }
+
+    public static class Streaming {
+
+        /**
+         * Ask NLP Cloud to stream the generated text ({@code "stream": true}). Only enable this for models whose
+         * endpoint supports it; otherwise the complete result is sent as a single delta.
+         */
+        private boolean upstreamStream = false;
+
+        /** How long a streamed response may stay open. */
+        private Duration timeout = Duration.ofSeconds(90);
+
+        public boolean isUpstreamStream() {
+            return upstreamStream;
+        }
+
+        public void setUpstreamStream(boolean upstreamStream) {
+            this.upstreamStream = upstreamStream;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class Prompt {
+
+        /** Version used for all requests not routed to the candidate. {@code v1} is built in for every prompt. */
+        private String active = "v1";
+
+        /** Optional version to A/B test against the active one. */
+        private String candidate;
+
+        /** Fraction of notes, chosen by content hash, that get the candidate version. */
+        private double candidateShare = 0.0;
+
+        /** Template text by version, in addition to the built-in {@code v1}. */
+        private Map<String, String> versions = new LinkedHashMap<>();
+
+        public String getActive() {
+            return active;
+        }
+
+        public void setActive(String active) {
+            this.active = active;
+        }
+
+        public String getCandidate() {
+            return candidate;
+        }
+
+        public void setCandidate(String candidate) {
+            this.candidate = candidate;
+        }
+
+        public double getCandidateShare() {
+            return candidateShare;
+        }
+
+        public void setCandidateShare(double candidateShare) {
+            this.candidateShare = candidateShare;
+        }
+
+        public Map<String, String> getVersions() {
+            return versions;
+        }
+
+        public void setVersions(Map<String, String> versions) {
+            this.versions = versions;
+        }
+    }
+
+    public static class LocalExtraction {
+
+        public enum Mode {
+            /** Every note goes to NLP Cloud. */
+            UPSTREAM,
+            /** Dictionary matches only; NLP Cloud is never called. */
+            LOCAL,
+            /**
+             * Dictionary matches first. Notes with fewer than {@code sufficient-matches} of them also go to NLP Cloud
+             * and its results are added to the local ones; if that call fails, the local matches are returned.
+             */
+            LOCAL_FIRST
+        }
+
+        /** Resource with one {@code <type><TAB><term>} per line. */
+        private String dictionary = "classpath:nlp/medical-terms.tsv";
+
+        private Mode keywords = Mode.UPSTREAM;
+
+        private Mode entities = Mode.UPSTREAM;
+
+        /** With {@link Mode#LOCAL_FIRST}, this many dictionary matches answer a note without calling NLP Cloud. */
+        private int sufficientMatches = 3;
+
+        public String getDictionary() {
+            return dictionary;
+        }
+
+        public void setDictionary(String dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        public Mode getKeywords() {
+            return keywords;
+        }
+
+        public void setKeywords(Mode keywords) {
+            this.keywords = keywords;
+        }
+
+        public Mode getEntities() {
+            return entities;
+        }
+
+        public void setEntities(Mode entities) {
+            this.entities = entities;
+        }
+
+        public int getSufficientMatches() {
+            return sufficientMatches;
+        }
+
+        public void setSufficientMatches(int sufficientMatches) {
+            this.sufficientMatches = sufficientMatches;
+        }
+    }
+
+    public static class Backend {
+
+        /** {@code cloud} keeps every task on NLP Cloud; otherwise the name of an {@code NlpBackend} bean. */
+        private String name = "cloud";
+
+        /** Tasks sent to the backend first; each must be supported by it. Notes it declines go to NLP Cloud. */
+        private Set<NlpTask> tasks = EnumSet.of(NlpTask.SUMMARY);
+
+        /** Send a note to NLP Cloud when the backend fails on it, rather than failing the request. */
+        private boolean fallbackToCloud = true;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Set<NlpTask> getTasks() {
+            return tasks;
+        }
+
+        public void setTasks(Set<NlpTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        public boolean isFallbackToCloud() {
+            return fallbackToCloud;
+        }
+
+        public void setFallbackToCloud(boolean fallbackToCloud) {
+            this.fallbackToCloud = fallbackToCloud;
+        }
+    }
+
+    public static class LocalModel {
+
+        /** Concurrent inference sessions; 0 means one per available processor. */
+        private int sessions = 0;
+
+        /** How long a note waits for a free session before it is sent to NLP Cloud instead. */
+        private Duration acquireTimeout = Duration.ofMillis(20);
+
+        /** Longer notes are sent to NLP Cloud. */
+        private int maxNoteChars = 4000;
+
+        private int summarySentences = 3;
+
+        /** Sample notes run through each session at startup. */
+        private int warmUpIterations = 200;
+
+        public int getSessions() {
+            return sessions;
+        }
+
+        public void setSessions(int sessions) {
+            this.sessions = sessions;
+        }
+
+        public Duration getAcquireTimeout() {
+            return acquireTimeout;
+        }
+
+        public void setAcquireTimeout(Duration acquireTimeout) {
+            this.acquireTimeout = acquireTimeout;
+        }
+
+        public int getMaxNoteChars() {
+            return maxNoteChars;
+        }
+
+        public void setMaxNoteChars(int maxNoteChars) {
+            this.maxNoteChars = maxNoteChars;
+        }
+
+        public int getSummarySentences() {
+            return summarySentences;
+        }
+
+        public void setSummarySentences(int summarySentences) {
+            this.summarySentences = summarySentences;
+        }
+
+        public int getWarmUpIterations() {
+            return warmUpIterations;
+        }
+
+        public void setWarmUpIterations(int warmUpIterations) {
+            this.warmUpIterations = warmUpIterations;
+        }
+    }
 }
@@ -0,0 +1,192 @@
+package com.example.demo.config;
+
+import com.example.demo.metrics.RequestTimeline;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Records a {@link RequestTimeline} for sampled {@code /api} requests and adds it as a {@code Server-Timing}
+ * header just before the response is committed, so phases up to the first body byte are included.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    /** Request attributes holding phases that end when the header is written, if still open by then. */
+    static final String VALIDATION_PHASE = ServerTimingFilter.class.getName() + ".validation";
+    static final String SERIALIZATION_PHASE = ServerTimingFilter.class.getName() + ".serialization";
+
+    private final NlpCloudProperties.Timing settings;
+    private final ObservationRegistry observationRegistry;
+
+    @Autowired
+    public ServerTimingFilter(NlpCloudProperties properties, ObjectProvider<ObservationRegistry> observationRegistry) {
+        this(properties, observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+    }
+
+    ServerTimingFilter(NlpCloudProperties properties, ObservationRegistry observationRegistry) {
+        this.settings = properties.getTiming();
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !settings.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (!sampled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RequestTimeline timeline = RequestTimeline.start(observationRegistry);
+        request.setAttribute(RequestTimeline.ATTRIBUTE, timeline);
+        TimingResponse timingResponse = new TimingResponse(request, response, timeline);
+        try (RequestTimeline.Scope ignored = timeline.bind()) {
+            filterChain.doFilter(request, timingResponse);
+        }
+        if (!request.isAsyncStarted()) {
+            timingResponse.addTimingHeader();
+        }
+    }
+
+    private boolean sampled() {
+        double rate = settings.getSampleRate();
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * Sets the header on the first write, flush or error, while headers can still be changed.
+     */
+    private static final class TimingResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private final RequestTimeline timeline;
+        private boolean headerAdded;
+        private ServletOutputStream outputStream;
+
+        private TimingResponse(HttpServletRequest request, HttpServletResponse response, RequestTimeline timeline) {
+            super(response);
+            this.request = request;
+            this.timeline = timeline;
+        }
+
+        synchronized void addTimingHeader() {
+            if (!headerAdded && !isCommitted()) {
+                headerAdded = true;
+                closePhase(VALIDATION_PHASE);
+                closePhase(SERIALIZATION_PHASE);
+                setHeader(SERVER_TIMING_HEADER, timeline.toServerTiming());
+            }
+        }
+
+        private void closePhase(String attribute) {
+            if (request.getAttribute(attribute) instanceof RequestTimeline.Phase phase) {
+                phase.close();
+            }
+        }
+
+        @Override
+        public synchronized ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new TimingOutputStream(super.getOutputStream(), this);
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addTimingHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addTimingHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addTimingHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addTimingHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addTimingHeader();
+            super.sendRedirect(location);
+        }
+    }
+
+    private static final class TimingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private final TimingResponse response;
+
+        private TimingOutputStream(ServletOutputStream delegate, TimingResponse response) {
+            this.delegate = delegate;
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            response.addTimingHeader();
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            response.addTimingHeader();
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            response.addTimingHeader();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            response.addTimingHeader();
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
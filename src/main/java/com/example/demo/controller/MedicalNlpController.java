@@ -1,13 +1,24 @@
 package com.example.demo.controller;
 
 import com.example.demo.config.MedicalDisclaimerFilter;
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.AnalysisResponse;
 import com.example.demo.dto.ApiResult;
+import com.example.demo.dto.BatchAnalysisRequest;
+import com.example.demo.dto.BatchItemResult;
 import com.example.demo.dto.ClinicalNoteRequest;
 import com.example.demo.dto.EntityExtractionResponse;
 import com.example.demo.dto.GrammarResponse;
 import com.example.demo.dto.KeywordResponse;
+import com.example.demo.dto.LongDocumentRequest;
+import com.example.demo.dto.LongDocumentSummaryResponse;
 import com.example.demo.dto.SummaryResponse;
+import com.example.demo.exception.ServiceUnavailableException;
+import com.example.demo.exception.UpstreamServiceException;
+import com.example.demo.metrics.RequestTimeline;
 import com.example.demo.service.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,32 +27,71 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
 
 @RestController
 @RequestMapping("/api/nlp")
 @CrossOrigin
 public class MedicalNlpController {
 
+    private static final Logger log = LoggerFactory.getLogger(MedicalNlpController.class);
+
     private final GrammarService grammarService;
     private final SummarizationService summarizationService;
     private final KeywordExtractionService keywordService;
     private final EntityExtractionService entityService;
+    private final NlpAnalysisService analysisService;
+    private final NlpBatchService batchService;
+    private final LongDocumentSummarizationService longDocumentService;
+    private final IncrementalNoteAnalysisService incrementalService;
+    private final UnifiedNlpService nlpService;
+    private final NlpCloudProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Executor asyncExecutor;
 
     public MedicalNlpController(
             GrammarService grammarService,
             SummarizationService summarizationService,
             KeywordExtractionService keywordService,
-            EntityExtractionService entityService
+            EntityExtractionService entityService,
+            NlpAnalysisService analysisService,
+            NlpBatchService batchService,
+            LongDocumentSummarizationService longDocumentService,
+            IncrementalNoteAnalysisService incrementalService,
+            UnifiedNlpService nlpService,
+            NlpCloudProperties properties,
+            ObjectMapper objectMapper,
+            @Qualifier("nlpAsyncExecutor") Executor asyncExecutor
     ) {
         this.grammarService = grammarService;
         this.summarizationService = summarizationService;
         this.keywordService = keywordService;
         this.entityService = entityService;
+        this.analysisService = analysisService;
+        this.batchService = batchService;
+        this.longDocumentService = longDocumentService;
+        this.incrementalService = incrementalService;
+        this.nlpService = nlpService;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.asyncExecutor = asyncExecutor;
     }
 
     @PostMapping("/grammar")
@@ -66,6 +116,22 @@ public class MedicalNlpController {
         );
     }
 
+    @PostMapping("/summarize/long")
+    @Operation(
+            summary = "Summarize a document longer than a single clinical note",
+            description = "Splits the document into overlapping sentence-aligned chunks, summarizes them in parallel "
+                    + "and combines the section summaries. Unchanged chunks of an edited document are served from cache."
+    )
+    public ResponseEntity<ApiResult<LongDocumentSummaryResponse>> summarizeLong(
+            @Valid @RequestBody LongDocumentRequest request,
+            HttpServletRequest servletRequest
+    ) {
+        return ResponseEntity.ok(
+                ApiResult.success(200, servletRequest.getRequestURI(),
+                        longDocumentService.summarize(request))
+        );
+    }
+
     @PostMapping("/keywords")
     public ResponseEntity<ApiResult<KeywordResponse>> keywords(
             @RequestBody ClinicalNoteRequest request,
@@ -87,4 +153,228 @@ public class MedicalNlpController {
                         entityService.extractEntities(request))
         );
     }
+
+    @PostMapping(value = "/stream/summarize", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Summarization streamed as server-sent events",
+            description = "Sends a 'started' event right away, 'delta' events with summary text as NLP Cloud "
+                    + "produces it, and a final 'result' event with the same envelope as /summarize. A 'restart' "
+                    + "event means a retry began and earlier deltas are to be discarded. Failures end the stream "
+                    + "with an 'error' event. Token streaming needs nlpcloud.streaming.upstream-stream=true; with "
+                    + "the default of false the whole text arrives as one delta."
+    )
+    public SseEmitter summarizeStream(
+            @Valid @RequestBody ClinicalNoteRequest request,
+            HttpServletRequest servletRequest
+    ) {
+        return stream(servletRequest.getRequestURI(), listener -> nlpService.streamSummary(request, listener));
+    }
+
+    @PostMapping(value = "/stream/grammar", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Grammar correction streamed as server-sent events",
+            description = "Same events as /stream/summarize; the deltas add up to the corrected text. As there, "
+                    + "the whole text arrives as one delta unless nlpcloud.streaming.upstream-stream is enabled."
+    )
+    public SseEmitter grammarStream(
+            @Valid @RequestBody ClinicalNoteRequest request,
+            HttpServletRequest servletRequest
+    ) {
+        return stream(servletRequest.getRequestURI(), listener -> nlpService.streamGrammar(request, listener));
+    }
+
+    @PostMapping("/incremental/grammar")
+    @Operation(
+            summary = "Grammar correction for a note that is being edited",
+            description = "Corrects the note paragraph by paragraph. Paragraphs unchanged since an earlier request "
+                    + "are answered from cache, so only edited paragraphs are sent to NLP Cloud."
+    )
+    public ResponseEntity<ApiResult<GrammarResponse>> grammarIncremental(
+            @Valid @RequestBody ClinicalNoteRequest request,
+            HttpServletRequest servletRequest
+    ) {
+        return ResponseEntity.ok(
+                ApiResult.success(200, servletRequest.getRequestURI(),
+                        incrementalService.checkGrammar(request))
+        );
+    }
+
+    @PostMapping("/incremental/entities")
+    @Operation(
+            summary = "Entity extraction for a note that is being edited",
+            description = "Extracts entities paragraph by paragraph, reusing cached results for unchanged paragraphs. "
+                    + "Entity offsets refer to the full note."
+    )
+    public ResponseEntity<ApiResult<EntityExtractionResponse>> entitiesIncremental(
+            @Valid @RequestBody ClinicalNoteRequest request,
+            HttpServletRequest servletRequest
+    ) {
+        return ResponseEntity.ok(
+                ApiResult.success(200, servletRequest.getRequestURI(),
+                        incrementalService.extractEntities(request))
+        );
+    }
+
+    @PostMapping("/async/grammar")
+    @Operation(summary = "Grammar correction without holding a servlet thread while NLP Cloud responds")
+    public CompletableFuture<ResponseEntity<ApiResult<GrammarResponse>>> grammarAsync(
+            @RequestBody ClinicalNoteRequest request,
+            HttpServletRequest servletRequest
+    ) {
+        String path = servletRequest.getRequestURI();
+        return CompletableFuture
+                .supplyAsync(RequestTimeline.wrap(() -> grammarService.checkGrammar(request)), asyncExecutor)
+                .thenApply(result -> ResponseEntity.ok(ApiResult.success(200, path, result)));
+    }
+
+    @PostMapping("/async/summarize")
+    @Operation(summary = "Summarization without holding a servlet thread while NLP Cloud responds")
+    public CompletableFuture<ResponseEntity<ApiResult<SummaryResponse>>> summarizeAsync(
+            @RequestBody ClinicalNoteRequest request,
+            HttpServletRequest servletRequest
+    ) {
+        String path = servletRequest.getRequestURI();
+        return CompletableFuture
+                .supplyAsync(RequestTimeline.wrap(() -> summarizationService.summarize(request)), asyncExecutor)
+                .thenApply(result -> ResponseEntity.ok(ApiResult.success(200, path, result)));
+    }
+
+    @PostMapping("/async/keywords")
+    @Operation(summary = "Keyword extraction without holding a servlet thread while NLP Cloud responds")
+    public CompletableFuture<ResponseEntity<ApiResult<KeywordResponse>>> keywordsAsync(
+            @RequestBody ClinicalNoteRequest request,
+            HttpServletRequest servletRequest
+    ) {
+        String path = servletRequest.getRequestURI();
+        return CompletableFuture
+                .supplyAsync(RequestTimeline.wrap(() -> keywordService.extractKeywords(request)), asyncExecutor)
+                .thenApply(result -> ResponseEntity.ok(ApiResult.success(200, path, result)));
+    }
+
+    @PostMapping("/async/entities")
+    @Operation(summary = "Entity extraction without holding a servlet thread while NLP Cloud responds")
+    public CompletableFuture<ResponseEntity<ApiResult<EntityExtractionResponse>>> entitiesAsync(
+            @RequestBody ClinicalNoteRequest request,
+            HttpServletRequest servletRequest
+    ) {
+        String path = servletRequest.getRequestURI();
+        return CompletableFuture
+                .supplyAsync(RequestTimeline.wrap(() -> entityService.extractEntities(request)), asyncExecutor)
+                .thenApply(result -> ResponseEntity.ok(ApiResult.success(200, path, result)));
+    }
+
+    @PostMapping("/analyze")
+    @Operation(
+            summary = "Run grammar, summary, keyword and entity analysis in parallel",
+            description = "Tasks share one deadline. Tasks that fail or time out are reported under data.errors "
+                    + "while the remaining results are still returned."
+    )
+    public ResponseEntity<ApiResult<AnalysisResponse>> analyze(
+            @RequestBody ClinicalNoteRequest request,
+            HttpServletRequest servletRequest
+    ) {
+        return ResponseEntity.ok(
+                ApiResult.success(200, servletRequest.getRequestURI(),
+                        analysisService.analyzeAll(request))
+        );
+    }
+
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Analyze many clinical notes",
+            description = "Processes notes with bounded concurrency and streams one JSON line per note "
+                    + "as soon as it completes. Lines carry the note index and either data or error."
+    )
+    public ResponseEntity<ResponseBodyEmitter> batch(@Valid @RequestBody BatchAnalysisRequest request) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(batchService.streamTimeout().toMillis());
+        CompletableFuture<Void> job = batchService.process(request, item -> send(emitter, item));
+        job.whenComplete((ignored, ex) -> {
+            if (ex != null) {
+                emitter.completeWithError(ex);
+            } else {
+                emitter.complete();
+            }
+        });
+        emitter.onTimeout(() -> job.cancel(false));
+        emitter.onError(ex -> job.cancel(false));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+    }
+
+    private <T> SseEmitter stream(String path, Function<UnifiedNlpService.TextListener, T> work) {
+        SseEmitter emitter = new SseEmitter(properties.getStreaming().getTimeout().toMillis());
+        sendEvent(emitter, "started", Map.of("path", path));
+        AtomicBoolean connected = new AtomicBoolean(true);
+        UnifiedNlpService.TextListener listener = new UnifiedNlpService.TextListener() {
+            @Override
+            public void onText(String delta) {
+                sendWhileConnected(emitter, connected, "delta", Map.of("text", delta));
+            }
+
+            @Override
+            public void onRestart() {
+                sendWhileConnected(emitter, connected, "restart", Map.of());
+            }
+        };
+        CompletableFuture<T> job = CompletableFuture.supplyAsync(RequestTimeline.wrap(() -> work.apply(listener)),
+                asyncExecutor);
+        job.whenComplete((result, ex) -> {
+            if (!connected.get()) {
+                return;
+            }
+            boolean sent = ex == null
+                    ? sendEvent(emitter, "result", ApiResult.success(200, path, result))
+                    : sendEvent(emitter, "error", streamError(path, ex instanceof CompletionException ? ex.getCause() : ex));
+            if (sent) {
+                emitter.complete();
+            }
+        });
+        // The job is left running: its upstream call may be shared with coalesced requests and its result is cached.
+        emitter.onTimeout(() -> connected.set(false));
+        emitter.onError(ex -> connected.set(false));
+        return emitter;
+    }
+
+    /** Returns false once the client has gone away. */
+    private boolean sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Client left the event stream before the {} event", name);
+            return false;
+        }
+    }
+
+    /**
+     * Stops sending once the client has gone away, but keeps the upstream response being read: the call may be
+     * shared with coalesced requests for the same note, and its result is still cached.
+     */
+    private void sendWhileConnected(SseEmitter emitter, AtomicBoolean connected, String name, Object data) {
+        if (connected.get() && !sendEvent(emitter, name, data)) {
+            connected.set(false);
+        }
+    }
+
+    private ApiResult<Void> streamError(String path, Throwable ex) {
+        if (ex instanceof ServiceUnavailableException) {
+            return ApiResult.error(503, path, ex.getMessage());
+        }
+        if (ex instanceof UpstreamServiceException && ex.getMessage() != null) {
+            log.warn("Upstream service error at {}: {}", path, ex.getMessage());
+            return ApiResult.error(502, path, ex.getMessage());
+        }
+        log.warn("Streamed request at {} failed: {}", path, ex.getClass().getSimpleName());
+        return ApiResult.error(502, path, "Unable to process NLP request at this time. Please try again later.");
+    }
+
+    private void send(ResponseBodyEmitter emitter, BatchItemResult item) {
+        try {
+            emitter.send(objectMapper.writeValueAsString(item) + "\n", MediaType.APPLICATION_NDJSON);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to serialize batch item " + item.getIndex(), ex);
+        } catch (IOException ex) {
+            log.warn("Client disconnected from batch stream at item {}", item.getIndex());
+            throw new UncheckedIOException(ex);
+        }
+    }
 }
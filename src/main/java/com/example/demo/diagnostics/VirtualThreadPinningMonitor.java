@@ -0,0 +1,89 @@
+package com.example.demo.diagnostics;
+
+import com.example.demo.config.NlpCloudProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, typically because they block inside a
+ * {@code synchronized} block or a native frame. Pinned threads hold a carrier for the whole upstream wait, which
+ * undoes the benefit of virtual threads.
+ * <p>
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event in-process, so it can be switched on without restarting
+ * the JVM with {@code -Djdk.tracePinnedThreads}. Events are counted in {@code nlp.virtual.threads.pinned}.
+ */
+@Component
+@ConditionalOnProperty(name = "nlpcloud.virtual-threads.pinning-diagnostics", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_FRAMES = 12;
+
+    private final NlpCloudProperties properties;
+    private final LongAdder pinnedEvents = new LongAdder();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(NlpCloudProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        FunctionCounter.builder("nlp.virtual.threads.pinned", pinnedEvents, LongAdder::sum)
+                .description("Virtual threads pinned to their carrier for longer than the pinned threshold")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT)
+                .withThreshold(properties.getVirtualThreads().getPinnedThreshold())
+                .withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::report);
+        stream.startAsync();
+        log.info("Virtual thread pinning diagnostics enabled (threshold {})",
+                properties.getVirtualThreads().getPinnedThreshold());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    public long pinnedEvents() {
+        return pinnedEvents.sum();
+    }
+
+    private void report(RecordedEvent event) {
+        pinnedEvents.increment();
+        log.warn("Virtual thread pinned for {} ms:\n{}", event.getDuration().toMillis(), frames(event.getStackTrace()));
+    }
+
+    private static String frames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "    <no stack trace>";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(MAX_FRAMES)
+                .map(VirtualThreadPinningMonitor::describe)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return "    at " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + " (line " + frame.getLineNumber() + ")";
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Schema(description = "Combined output of grammar, summary, keyword and entity analysis. Tasks that failed or "
+        + "missed the deadline are reported in errors instead of their result field.")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnalysisResponse {
+
+    private GrammarResponse grammar;
+
+    private SummaryResponse summary;
+
+    private KeywordResponse keywords;
+
+    private EntityExtractionResponse entities;
+
+    @Schema(description = "Per-task error details keyed by task name",
+            example = "{\"keywords\": {\"message\": \"Timed out waiting for NLP result\"}}")
+    private Map<String, ErrorResponse> errors = new LinkedHashMap<>();
+
+    public AnalysisResponse() {
+    }
+
+    public GrammarResponse getGrammar() {
+        return grammar;
+    }
+
+    public void setGrammar(GrammarResponse grammar) {
+        this.grammar = grammar;
+    }
+
+    public SummaryResponse getSummary() {
+        return summary;
+    }
+
+    public void setSummary(SummaryResponse summary) {
+        this.summary = summary;
+    }
+
+    public KeywordResponse getKeywords() {
+        return keywords;
+    }
+
+    public void setKeywords(KeywordResponse keywords) {
+        this.keywords = keywords;
+    }
+
+    public EntityExtractionResponse getEntities() {
+        return entities;
+    }
+
+    public void setEntities(EntityExtractionResponse entities) {
+        this.entities = entities;
+    }
+
+    public Map<String, ErrorResponse> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Map<String, ErrorResponse> errors) {
+        this.errors = errors;
+    }
+}
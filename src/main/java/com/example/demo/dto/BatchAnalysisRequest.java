@@ -0,0 +1,45 @@
+package com.example.demo.dto;
+
+import com.example.demo.service.NlpTask;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+import java.util.Set;
+
+@Schema(description = "Bulk analysis request. Each note is processed independently.")
+public class BatchAnalysisRequest {
+
+    @NotEmpty(message = "At least one clinical note is required")
+    @Schema(description = "Clinical notes to analyze")
+    private List<@Valid ClinicalNoteRequest> notes;
+
+    @Schema(description = "Tasks to run for every note. All tasks are run when omitted.",
+            example = "[\"SUMMARY\", \"ENTITIES\"]")
+    private Set<NlpTask> tasks;
+
+    public BatchAnalysisRequest() {
+    }
+
+    public BatchAnalysisRequest(List<ClinicalNoteRequest> notes, Set<NlpTask> tasks) {
+        this.notes = notes;
+        this.tasks = tasks;
+    }
+
+    public List<ClinicalNoteRequest> getNotes() {
+        return notes;
+    }
+
+    public void setNotes(List<ClinicalNoteRequest> notes) {
+        this.notes = notes;
+    }
+
+    public Set<NlpTask> getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(Set<NlpTask> tasks) {
+        this.tasks = tasks;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Result for a single note of a batch request, streamed as one NDJSON line")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    @Schema(description = "Position of the note in the submitted batch", example = "0")
+    private int index;
+
+    @Schema(description = "HTTP-style status for this item", example = "200")
+    private int status;
+
+    private AnalysisResponse data;
+
+    private ErrorResponse error;
+
+    public BatchItemResult() {
+    }
+
+    private BatchItemResult(int index, int status, AnalysisResponse data, ErrorResponse error) {
+        this.index = index;
+        this.status = status;
+        this.data = data;
+        this.error = error;
+    }
+
+    public static BatchItemResult success(int index, AnalysisResponse data) {
+        return new BatchItemResult(index, 200, data, null);
+    }
+
+    public static BatchItemResult error(int index, int status, String message) {
+        return new BatchItemResult(index, status, null, new ErrorResponse(message));
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public AnalysisResponse getData() {
+        return data;
+    }
+
+    public ErrorResponse getError() {
+        return error;
+    }
+}
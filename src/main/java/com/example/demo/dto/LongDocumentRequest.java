@@ -0,0 +1,43 @@
+package com.example.demo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+@Schema(description = "Clinical document too long for a single model call, such as a discharge summary or history")
+public class LongDocumentRequest {
+
+    @NotBlank(message = "Document is required")
+    @Size(min = 20, message = "Document must be at least 20 characters to ensure sufficient clinical context")
+    @Schema(description = "Full document text; the size limit is set by nlpcloud.long-document.max-document-chars",
+            example = "Discharge summary. Patient admitted with community-acquired pneumonia...")
+    private String document;
+
+    @Size(max = 2000, message = "Context must be 2,000 characters or fewer")
+    @Schema(description = "Optional additional context applied to every chunk", example = "BP 130/90, history of hypertension")
+    private String patientContext;
+
+    public LongDocumentRequest() {
+    }
+
+    public LongDocumentRequest(String document, String patientContext) {
+        this.document = document;
+        this.patientContext = patientContext;
+    }
+
+    public String getDocument() {
+        return document;
+    }
+
+    public void setDocument(String document) {
+        this.document = document;
+    }
+
+    public String getPatientContext() {
+        return patientContext;
+    }
+
+    public void setPatientContext(String patientContext) {
+        this.patientContext = patientContext;
+    }
+}
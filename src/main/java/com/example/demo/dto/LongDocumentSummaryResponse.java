@@ -0,0 +1,51 @@
+package com.example.demo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Summary of a long document built from per-chunk summaries")
+public class LongDocumentSummaryResponse {
+
+    @Schema(description = "Combined summary of the whole document")
+    private String summary;
+
+    @Schema(description = "Summary of each chunk, in document order")
+    private List<String> sectionSummaries;
+
+    @Schema(description = "Number of chunks the document was split into", example = "7")
+    private int chunkCount;
+
+    public LongDocumentSummaryResponse() {
+    }
+
+    public LongDocumentSummaryResponse(String summary, List<String> sectionSummaries) {
+        this.summary = summary;
+        this.sectionSummaries = sectionSummaries;
+        this.chunkCount = sectionSummaries.size();
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+
+    public List<String> getSectionSummaries() {
+        return sectionSummaries;
+    }
+
+    public void setSectionSummaries(List<String> sectionSummaries) {
+        this.sectionSummaries = sectionSummaries;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public void setChunkCount(int chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+}
@@ -8,6 +8,7 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -22,6 +24,8 @@ public class GlobalExceptionHandler {
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
     private static final String GENERIC_UPSTREAM_MESSAGE =
             "Unable to process NLP request at this time. Please try again later.";
+    private static final String ASYNC_TIMEOUT_MESSAGE =
+            "NLP request timed out. Please try again later.";
 
     // ----------------------------
     // Validation errors
@@ -68,6 +72,15 @@ public class GlobalExceptionHandler {
         return build(HttpStatus.BAD_REQUEST, "Request body could not be parsed", request);
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ApiResult<Void>> handleInvalidRequest(
+            InvalidRequestException ex,
+            HttpServletRequest request) {
+
+        log.warn("Invalid request at {}: {}", request.getRequestURI(), ex.getMessage());
+        return build(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
+    }
+
     // ----------------------------
     // Upstream / integration errors
     // ----------------------------
@@ -81,6 +94,31 @@ public class GlobalExceptionHandler {
         return build(HttpStatus.BAD_GATEWAY, ex.getMessage(), request);
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResult<Void>> handleServiceUnavailable(
+            ServiceUnavailableException ex,
+            HttpServletRequest request) {
+
+        log.warn("Rejected request at {}: {}", request.getRequestURI(), ex.getMessage());
+        ResponseEntity<ApiResult<Void>> response = build(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), request);
+        if (ex.getRetryAfter() == null) {
+            return response;
+        }
+        long seconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(response.getBody());
+    }
+
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<ApiResult<Void>> handleAsyncTimeout(
+            AsyncRequestTimeoutException ex,
+            HttpServletRequest request) {
+
+        log.warn("Async request timed out at {}", request.getRequestURI());
+        return build(HttpStatus.GATEWAY_TIMEOUT, ASYNC_TIMEOUT_MESSAGE, request);
+    }
+
     @ExceptionHandler(RestClientException.class)
     public ResponseEntity<ApiResult<Void>> handleRestClient(
             RestClientException ex,
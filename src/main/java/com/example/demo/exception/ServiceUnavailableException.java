@@ -0,0 +1,21 @@
+package com.example.demo.exception;
+
+import java.time.Duration;
+
+/**
+ * Raised when a request is rejected locally because upstream capacity is exhausted. Mapped to 503 with a
+ * {@code Retry-After} hint instead of the 502 used for upstream failures.
+ */
+public class ServiceUnavailableException extends UpstreamServiceException {
+
+    private final Duration retryAfter;
+
+    public ServiceUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,15 +1,54 @@
 package com.example.demo.health;
 
+import com.example.demo.client.UpstreamClientEngine;
+import com.example.demo.resilience.AdaptiveRateLimiter;
+import com.example.demo.resilience.CircuitBreakerRegistry;
+import com.example.demo.resilience.InFlightRequestRegistry;
+import com.example.demo.resilience.TaskBulkhead;
+import com.example.demo.resilience.UpstreamCallExecutor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @RestController
 public class HealthController {
-    
+
+    private final UpstreamClientEngine upstreamClientEngine;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final TaskBulkhead bulkhead;
+    private final InFlightRequestRegistry inFlightRequests;
+    private final UpstreamCallExecutor upstreamCalls;
+
+    public HealthController(UpstreamClientEngine upstreamClientEngine, AdaptiveRateLimiter rateLimiter,
+                            CircuitBreakerRegistry circuitBreakers, TaskBulkhead bulkhead,
+                            InFlightRequestRegistry inFlightRequests, UpstreamCallExecutor upstreamCalls) {
+        this.upstreamClientEngine = upstreamClientEngine;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreakers = circuitBreakers;
+        this.bulkhead = bulkhead;
+        this.inFlightRequests = inFlightRequests;
+        this.upstreamCalls = upstreamCalls;
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("OK");
     }
 
+    @GetMapping("/health/upstream")
+    public ResponseEntity<Map<String, Object>> upstream() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("connectionPool", upstreamClientEngine.stats());
+        details.put("rateLimits", rateLimiter.stats());
+        details.put("circuitBreakers", circuitBreakers.stats());
+        details.put("bulkheads", bulkhead.stats());
+        details.put("coalescedCallers", inFlightRequests.coalescedCallers());
+        details.put("retryBudgetExhausted", upstreamCalls.retryBudgetExhausted());
+        return ResponseEntity.ok(details);
+    }
+
 }
@@ -6,109 +6,422 @@ import com.example.demo.dto.GrammarResponse;
 import com.example.demo.dto.KeywordResponse;
 import com.example.demo.dto.Suggestion;
 import com.example.demo.dto.SummaryResponse;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.demo.metrics.RequestTimeline;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Maps NLP Cloud payloads to DTOs with Jackson's streaming parser. Fields are read token by token straight into
+ * the response objects, so no intermediate {@code JsonNode} tree is built. Missing, null and mistyped fields fall
+ * back to the same defaults as the former tree-based mapping.
+ * <p>
+ * Parse time is recorded in the {@code nlp.mapper.parse} timer, tagged by operation. For payloads parsed
+ * straight from a response stream this includes reading the body off the connection. Each parse is also a
+ * {@code mapping} phase of the current {@link RequestTimeline}.
+ */
 @Component
 public class NlpCloudMapper {
 
-    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+    private final Timer grammarTimer;
+    private final Timer entitiesTimer;
+    private final Timer summaryTimer;
+    private final Timer summaryTextTimer;
+    private final Timer keywordsTimer;
 
+    /**
+     * Without a registry, for use outside Spring: parse times go to a registry with no exporters.
+     */
     public NlpCloudMapper(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+        this(objectMapper, new CompositeMeterRegistry());
+    }
+
+    @Autowired
+    public NlpCloudMapper(ObjectMapper objectMapper, MeterRegistry registry) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.grammarTimer = parseTimer(registry, "grammar");
+        this.entitiesTimer = parseTimer(registry, "entities");
+        this.summaryTimer = parseTimer(registry, "summary");
+        this.summaryTextTimer = parseTimer(registry, "summary_text");
+        this.keywordsTimer = parseTimer(registry, "keywords");
     }
 
     public GrammarResponse toGrammarResponse(String payload) {
-        JsonNode root = parse(payload);
-        String correctedText = root.path("corrected_text").asText("");
+        return read(grammarTimer, payload, this::readGrammar);
+    }
+
+    public EntityExtractionResponse toEntityExtractionResponse(String payload) {
+        long started = System.nanoTime();
+        try (RequestTimeline.Phase ignored = RequestTimeline.current().phase("mapping")) {
+            return toEntityExtractionResponse(read(payload, this::readEntityFields));
+        } finally {
+            entitiesTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public EntityExtractionResponse toEntityExtractionResponse(InputStream payload) {
+        long started = System.nanoTime();
+        try (RequestTimeline.Phase ignored = RequestTimeline.current().phase("mapping")) {
+            return toEntityExtractionResponse(read(payload, this::readEntityFields));
+        } finally {
+            entitiesTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private EntityExtractionResponse toEntityExtractionResponse(EntityFields fields) {
+        // The embedded summary text is parsed only after the outer parser is closed, so the nested parser can
+        // reuse its recycled buffers.
+        List<Entity> entities = fields.entities();
+        if (entities == null || entities.isEmpty()) {
+            entities = entitiesFromSummaryText(fields.summaryText());
+        }
+        return new EntityExtractionResponse(entities);
+    }
+
+    public SummaryResponse toSummaryResponse(String payload) {
+        return read(summaryTimer, payload, this::readSummary);
+    }
+
+    public SummaryResponse toSummaryResponse(InputStream payload) {
+        return read(summaryTimer, payload, this::readSummary);
+    }
+
+    public String readSummaryText(String payload) {
+        return read(summaryTextTimer, payload, this::readSummaryTextField);
+    }
+
+    public String readSummaryText(InputStream payload) {
+        return read(summaryTextTimer, payload, this::readSummaryTextField);
+    }
+
+    public KeywordResponse toKeywordResponse(String payload) {
+        return read(keywordsTimer, payload, this::readKeywords);
+    }
+
+    private GrammarResponse readGrammar(JsonParser parser) throws IOException {
+        String correctedText = null;
+        List<Suggestion> suggestions = null;
+        List<Suggestion> corrections = null;
+        if (startObject(parser)) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "corrected_text" -> correctedText = scalarText(parser, token);
+                    case "suggestions" -> suggestions = readSuggestions(parser, token);
+                    case "corrections" -> corrections = readSuggestions(parser, token);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        List<Suggestion> chosen = suggestions != null ? suggestions : corrections;
+        return new GrammarResponse(orDefault(correctedText, ""), chosen != null ? chosen : new ArrayList<>());
+    }
+
+    private List<Suggestion> readSuggestions(JsonParser parser, JsonToken token) throws IOException {
         List<Suggestion> suggestions = new ArrayList<>();
-        JsonNode suggestionsNode = root.has("suggestions") ? root.path("suggestions") : root.path("corrections");
-        for (JsonNode node : suggestionsNode) {
-            suggestions.add(new Suggestion(
-                    node.path("type").asText(""),
-                    node.path("text").asText(""),
-                    node.path("suggestion").asText(""),
-                    node.path("start").asInt(0),
-                    node.path("end").asInt(0)
-            ));
+        if (token != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return suggestions;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            String type = null;
+            String text = null;
+            String suggestion = null;
+            int start = 0;
+            int end = 0;
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    switch (field) {
+                        case "type" -> type = scalarText(parser, value);
+                        case "text" -> text = scalarText(parser, value);
+                        case "suggestion" -> suggestion = scalarText(parser, value);
+                        case "start" -> start = intValue(parser, value);
+                        case "end" -> end = intValue(parser, value);
+                        default -> parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+            suggestions.add(new Suggestion(orDefault(type, ""), orDefault(text, ""), orDefault(suggestion, ""), start, end));
         }
-        return new GrammarResponse(correctedText, suggestions);
+        return suggestions;
     }
 
-    public EntityExtractionResponse toEntityExtractionResponse(String payload) {
-        JsonNode root = parse(payload);
-        JsonNode entitiesNode = root.path("entities");
+    private EntityFields readEntityFields(JsonParser parser) throws IOException {
+        List<Entity> entities = null;
+        String summaryText = null;
+        String summary = null;
+        if (startObject(parser)) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "entities" -> entities = token == JsonToken.START_ARRAY ? readEntities(parser) : skip(parser);
+                    case "summary_text" -> summaryText = scalarText(parser, token);
+                    case "summary" -> summary = scalarText(parser, token);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return new EntityFields(entities, orDefault(summaryText, orDefault(summary, "")));
+    }
 
-        if (entitiesNode.isMissingNode() || !entitiesNode.isArray() || entitiesNode.isEmpty()) {
-            String summaryText = root.path("summary_text").asText(root.path("summary").asText(""));
-            entitiesNode = tryParseEntities(summaryText);
+    /**
+     * Generative models return entities as JSON inside {@code summary_text}, either as {@code {"entities": [...]}}
+     * or as a bare array. Anything else, including malformed JSON, yields no entities.
+     */
+    private List<Entity> entitiesFromSummaryText(String summaryText) {
+        if (summaryText.isBlank()) {
+            return new ArrayList<>();
         }
+        try (JsonParser parser = jsonFactory.createParser(summaryText)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                return readEntities(parser);
+            }
+            List<Entity> entities = null;
+            if (token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("entities".equals(field) && value == JsonToken.START_ARRAY) {
+                        entities = readEntities(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            return entities != null ? entities : new ArrayList<>();
+        } catch (IOException ignored) {
+            return new ArrayList<>();
+        }
+    }
 
+    private List<Entity> readEntities(JsonParser parser) throws IOException {
         List<Entity> entities = new ArrayList<>();
-        for (JsonNode node : entitiesNode) {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            String entity = null;
+            String type = null;
+            String text = null;
+            int start = 0;
+            int end = 0;
+            Double confidence = null;
+            Double score = null;
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    switch (field) {
+                        case "entity" -> entity = scalarText(parser, value);
+                        case "type" -> type = scalarText(parser, value);
+                        case "text" -> text = scalarText(parser, value);
+                        case "start" -> start = intValue(parser, value);
+                        case "end" -> end = intValue(parser, value);
+                        case "confidence" -> confidence = doubleValue(parser, value);
+                        case "score" -> score = doubleValue(parser, value);
+                        default -> parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
             entities.add(new Entity(
-                    node.path("entity").asText(node.path("type").asText("")),
-                    node.path("text").asText(""),
-                    node.path("start").asInt(0),
-                    node.path("end").asInt(0),
-                    node.path("confidence").asDouble(node.path("score").asDouble(0.0))
+                    orDefault(entity, orDefault(type, "")),
+                    orDefault(text, ""),
+                    start,
+                    end,
+                    confidence != null ? confidence : score != null ? score : 0.0
             ));
         }
-        return new EntityExtractionResponse(entities);
+        return entities;
     }
 
-    private JsonNode tryParseEntities(String summaryText) {
-        if (summaryText == null || summaryText.isBlank()) {
-            return objectMapper.createArrayNode();
+    private SummaryResponse readSummary(JsonParser parser) throws IOException {
+        String summaryText = null;
+        String summary = null;
+        List<String> keyFindings = new ArrayList<>();
+        if (startObject(parser)) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "summary_text" -> summaryText = scalarText(parser, token);
+                    case "summary" -> summary = scalarText(parser, token);
+                    case "key_findings" -> keyFindings = readTextArray(parser, token);
+                    default -> parser.skipChildren();
+                }
+            }
         }
-        try {
-            JsonNode parsed = objectMapper.readTree(summaryText);
-            if (parsed.has("entities")) {
-                return parsed.path("entities");
+        return new SummaryResponse(orDefault(summaryText, orDefault(summary, "")), keyFindings);
+    }
+
+    private String readSummaryTextField(JsonParser parser) throws IOException {
+        String summaryText = null;
+        String summary = null;
+        if (startObject(parser)) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "summary_text" -> summaryText = scalarText(parser, token);
+                    case "summary" -> summary = scalarText(parser, token);
+                    default -> parser.skipChildren();
+                }
             }
-            if (parsed.isArray()) {
-                return parsed;
+        }
+        return orDefault(summaryText, orDefault(summary, ""));
+    }
+
+    private KeywordResponse readKeywords(JsonParser parser) throws IOException {
+        List<String> keywords = new ArrayList<>();
+        if (startObject(parser)) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if ("keywords".equals(field)) {
+                    keywords = readTextArray(parser, token);
+                } else {
+                    parser.skipChildren();
+                }
             }
-        } catch (IOException ignored) {
-            // Fall through to empty array node
         }
-        return objectMapper.createArrayNode();
+        return new KeywordResponse(keywords);
     }
 
-    public SummaryResponse toSummaryResponse(String payload) {
-        JsonNode root = parse(payload);
-        String summary = root.path("summary_text").asText(root.path("summary").asText(""));
-        List<String> keyFindings = StreamSupport.stream(root.path("key_findings").spliterator(), false)
-                .map(JsonNode::asText)
-                .collect(Collectors.toList());
-        return new SummaryResponse(summary, keyFindings);
+    private List<String> readTextArray(JsonParser parser, JsonToken token) throws IOException {
+        List<String> values = new ArrayList<>();
+        if (token != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return values;
+        }
+        JsonToken element;
+        while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+            values.add(element == JsonToken.VALUE_NULL ? "null" : orDefault(scalarText(parser, element), ""));
+        }
+        return values;
     }
 
-    public String readSummaryText(String payload) {
-        JsonNode root = parse(payload);
-        return root.path("summary_text").asText(root.path("summary").asText(""));
+    private <T> T read(Timer timer, String payload, PayloadReader<T> reader) {
+        long started = System.nanoTime();
+        try (RequestTimeline.Phase ignored = RequestTimeline.current().phase("mapping")) {
+            return read(payload, reader);
+        } finally {
+            timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
     }
 
-    public KeywordResponse toKeywordResponse(String payload) {
-        JsonNode root = parse(payload);
-        List<String> keywords = StreamSupport.stream(root.path("keywords").spliterator(), false)
-                .map(JsonNode::asText)
-                .collect(Collectors.toList());
-        return new KeywordResponse(keywords);
+    private <T> T read(Timer timer, InputStream payload, PayloadReader<T> reader) {
+        long started = System.nanoTime();
+        try (RequestTimeline.Phase ignored = RequestTimeline.current().phase("mapping")) {
+            return read(payload, reader);
+        } finally {
+            timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer parseTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("nlp.mapper.parse")
+                .description("Time to map an NLP Cloud payload to a response DTO")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    private <T> T read(String payload, PayloadReader<T> reader) {
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            return reader.read(parser);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to parse NLP Cloud payload", e);
+        }
     }
 
-    private JsonNode parse(String payload) {
-        try {
-            return objectMapper.readTree(payload);
+    /**
+     * Parses straight from an upstream response stream, so the body is never copied into a {@code String}.
+     */
+    private <T> T read(InputStream payload, PayloadReader<T> reader) {
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            return reader.read(parser);
         } catch (IOException e) {
             throw new IllegalArgumentException("Unable to parse NLP Cloud payload", e);
         }
     }
+
+    /**
+     * Positions the parser inside the root object. Empty payloads and non-object roots are treated as having
+     * no fields.
+     */
+    private static boolean startObject(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+            return true;
+        }
+        if (token != null) {
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    /**
+     * Text of a scalar value, {@code null} for JSON null, and an empty string for objects and arrays (which are
+     * skipped).
+     */
+    private static String scalarText(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isStructStart()) {
+            parser.skipChildren();
+            return "";
+        }
+        return parser.getText();
+    }
+
+    private static int intValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token.isStructStart()) {
+            parser.skipChildren();
+            return 0;
+        }
+        return parser.getValueAsInt(0);
+    }
+
+    private static double doubleValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token.isStructStart()) {
+            parser.skipChildren();
+            return 0.0;
+        }
+        return parser.getValueAsDouble(0.0);
+    }
+
+    private static <T> T skip(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        return null;
+    }
+
+    private static String orDefault(String value, String fallback) {
+        return value != null ? value : fallback;
+    }
+
+    private record EntityFields(List<Entity> entities, String summaryText) {
+    }
+
+    @FunctionalInterface
+    private interface PayloadReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
 }
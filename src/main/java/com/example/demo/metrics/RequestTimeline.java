@@ -0,0 +1,194 @@
+package com.example.demo.metrics;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Phases of one HTTP request (validation, prompt build, rate-limit wait, upstream attempts, backoff, mapping,
+ * serialization), reported in the {@code Server-Timing} response header and as {@code nlp.request.phase}
+ * observations. With tracing enabled each observation becomes a span under the request's server span.
+ * <p>
+ * The timeline is bound to the request thread by {@code ServerTimingFilter}. Work handed to other threads
+ * carries it along with {@link #wrap(Supplier)} or {@link #bind()}. Outside a request, or for requests not
+ * sampled, {@link #current()} returns a timeline that records nothing.
+ */
+public final class RequestTimeline {
+
+    public static final String ATTRIBUTE = RequestTimeline.class.getName();
+
+    private static final int MAX_ENTRIES = 64;
+    private static final ThreadLocal<RequestTimeline> CURRENT = new ThreadLocal<>();
+    private static final RequestTimeline NONE = new RequestTimeline(ObservationRegistry.NOOP, null, false);
+    private static final Phase NO_PHASE = new Phase(null, null, null, null);
+
+    private final ObservationRegistry registry;
+    private final Observation parent;
+    private final boolean recording;
+    private final long started = System.nanoTime();
+    private final Queue<Entry> entries = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private RequestTimeline(ObservationRegistry registry, Observation parent, boolean recording) {
+        this.registry = registry;
+        this.parent = parent;
+        this.recording = recording;
+    }
+
+    /**
+     * A recording timeline whose spans are children of the observation current on the calling thread.
+     */
+    public static RequestTimeline start(ObservationRegistry registry) {
+        return new RequestTimeline(registry, registry.getCurrentObservation(), true);
+    }
+
+    public static RequestTimeline current() {
+        RequestTimeline timeline = CURRENT.get();
+        return timeline != null ? timeline : NONE;
+    }
+
+    public static <T> Supplier<T> wrap(Supplier<T> work) {
+        RequestTimeline timeline = current();
+        if (!timeline.recording) {
+            return work;
+        }
+        return () -> {
+            try (Scope ignored = timeline.bind()) {
+                return work.get();
+            }
+        };
+    }
+
+    /**
+     * Makes this the current timeline until the returned scope is closed.
+     */
+    public Scope bind() {
+        RequestTimeline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    public Phase phase(String name) {
+        return phase(name, null);
+    }
+
+    /**
+     * Starts a phase. {@code description} tells apart repeated phases, e.g. {@code summary #2} for the second
+     * summary attempt.
+     */
+    public Phase phase(String name, String description) {
+        if (!recording) {
+            return NO_PHASE;
+        }
+        Observation observation = Observation.createNotStarted("nlp.request.phase", registry)
+                .contextualName(description == null ? name : name + " " + description)
+                .lowCardinalityKeyValue("phase", name)
+                .parentObservation(parent)
+                .start();
+        return new Phase(this, name, description, observation);
+    }
+
+    public <T> T time(String name, Supplier<T> work) {
+        try (Phase phase = phase(name)) {
+            try {
+                return work.get();
+            } catch (RuntimeException ex) {
+                phase.error(ex);
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Header value with one entry per finished phase in completion order, followed by {@code total}.
+     */
+    public String toServerTiming() {
+        StringBuilder header = new StringBuilder();
+        for (Entry entry : entries) {
+            entry.appendTo(header);
+            header.append(", ");
+        }
+        header.append("total;dur=").append(millis(System.nanoTime() - started));
+        return header.toString();
+    }
+
+    private void record(String name, String description, long nanos) {
+        if (size.incrementAndGet() <= MAX_ENTRIES) {
+            entries.add(new Entry(name, description, nanos));
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static final class Phase implements AutoCloseable {
+
+        private final RequestTimeline timeline;
+        private final String name;
+        private final String description;
+        private final Observation observation;
+        private final long started = System.nanoTime();
+        private boolean closed;
+
+        private Phase(RequestTimeline timeline, String name, String description, Observation observation) {
+            this.timeline = timeline;
+            this.name = name;
+            this.description = description;
+            this.observation = observation;
+        }
+
+        public void error(Throwable failure) {
+            if (observation != null) {
+                observation.error(failure);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (timeline != null && markClosed()) {
+                timeline.record(name, description, System.nanoTime() - started);
+                observation.stop();
+            }
+        }
+
+        private synchronized boolean markClosed() {
+            boolean wasOpen = !closed;
+            closed = true;
+            return wasOpen;
+        }
+    }
+
+    private record Entry(String name, String description, long nanos) {
+
+        void appendTo(StringBuilder header) {
+            header.append(name);
+            if (description != null) {
+                header.append(";desc=\"").append(description.replace("\"", "'")).append('"');
+            }
+            header.append(";dur=").append(millis(nanos));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.demo.metrics;
+
+import com.example.demo.exception.ServiceUnavailableException;
+import com.example.demo.service.NlpTask;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micrometer meters for upstream NLP Cloud traffic, exported through {@code /actuator/prometheus}.
+ * <ul>
+ *     <li>{@code nlp.upstream.calls}: logical calls including retries and backoff, by task, model and outcome</li>
+ *     <li>{@code nlp.upstream.attempts}: individual HTTP attempts, by task, model and outcome</li>
+ *     <li>{@code nlp.upstream.retries} and {@code nlp.upstream.backoff}: scheduled retries and their delay</li>
+ *     <li>{@code nlp.upstream.retry.budget.exhausted}: retries refused because the retry budget was empty</li>
+ *     <li>{@code nlp.upstream.in.flight}: logical calls currently running, by task</li>
+ *     <li>{@code nlp.upstream.request.size} and {@code nlp.upstream.response.size}: body bytes, by model</li>
+ * </ul>
+ * The model tag is the model segment of the request path, e.g. {@code bart-large-cnn}.
+ */
+@Component
+public class UpstreamMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<NlpTask, AtomicInteger> inFlight = new EnumMap<>(NlpTask.class);
+
+    public UpstreamMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (NlpTask task : NlpTask.values()) {
+            AtomicInteger count = new AtomicInteger();
+            inFlight.put(task, count);
+            Gauge.builder("nlp.upstream.in.flight", count, AtomicInteger::get)
+                    .description("Upstream calls in progress, including retries and backoff")
+                    .tag("task", tag(task))
+                    .register(registry);
+        }
+    }
+
+    public void callStarted(NlpTask task) {
+        inFlight.get(task).incrementAndGet();
+    }
+
+    public void callFinished(NlpTask task, String path, Throwable failure, long nanos) {
+        inFlight.get(task).decrementAndGet();
+        timer("nlp.upstream.calls", "Upstream calls including retries and backoff", task, path, failure)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordAttempt(NlpTask task, String path, Throwable failure, long nanos) {
+        timer("nlp.upstream.attempts", "Individual upstream HTTP attempts", task, path, failure)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRetry(NlpTask task, String path, long backoffMillis) {
+        Counter.builder("nlp.upstream.retries")
+                .description("Retries scheduled after a failed attempt")
+                .tags("task", tag(task), "model", model(path))
+                .register(registry)
+                .increment();
+        Timer.builder("nlp.upstream.backoff")
+                .description("Backoff delay before a retry")
+                .tags("task", tag(task), "model", model(path))
+                .register(registry)
+                .record(backoffMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordRetryBudgetExhausted(NlpTask task, String path) {
+        Counter.builder("nlp.upstream.retry.budget.exhausted")
+                .description("Retries refused because the retry budget was empty")
+                .tags("task", tag(task), "model", model(path))
+                .register(registry)
+                .increment();
+    }
+
+    public void recordRequestSize(String path, long bytes) {
+        size("nlp.upstream.request.size", "Upstream request body size", path).record(bytes);
+    }
+
+    public void recordResponseSize(String path, long bytes) {
+        size("nlp.upstream.response.size", "Upstream response body size", path).record(bytes);
+    }
+
+    /**
+     * Outcome tag for an upstream failure, or {@code success} when {@code failure} is null.
+     */
+    public static String outcome(Throwable failure) {
+        if (failure == null) {
+            return "success";
+        }
+        if (failure instanceof RestClientResponseException response) {
+            int status = response.getStatusCode().value();
+            if (status == 429) {
+                return "throttled";
+            }
+            return response.getStatusCode().is5xxServerError() ? "server_error" : "client_error";
+        }
+        if (failure instanceof ServiceUnavailableException) {
+            return "rejected";
+        }
+        if (failure instanceof ResourceAccessException || failure.getCause() instanceof IOException
+                || failure.getCause() instanceof TimeoutException) {
+            return "io_error";
+        }
+        return "error";
+    }
+
+    /**
+     * Model segment of an upstream path: {@code /gpu/chatdolphin/gs-correction} becomes {@code chatdolphin}.
+     */
+    public static String model(String path) {
+        String trimmed = path;
+        int query = trimmed.indexOf('?');
+        if (query >= 0) {
+            trimmed = trimmed.substring(0, query);
+        }
+        for (String prefix : new String[]{"/v1/", "/gpu/"}) {
+            int index = trimmed.indexOf(prefix);
+            if (index >= 0) {
+                trimmed = trimmed.substring(index + prefix.length() - 1);
+            }
+        }
+        String[] segments = trimmed.split("/");
+        for (String segment : segments) {
+            if (!segment.isEmpty()) {
+                return segment;
+            }
+        }
+        return "unknown";
+    }
+
+    private Timer timer(String name, String description, NlpTask task, String path, Throwable failure) {
+        return Timer.builder(name)
+                .description(description)
+                .tags("task", tag(task), "model", model(path), "outcome", outcome(failure))
+                .register(registry);
+    }
+
+    private DistributionSummary size(String name, String description, String path) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit("bytes")
+                .tag("model", model(path))
+                .register(registry);
+    }
+
+    private static String tag(NlpTask task) {
+        return task.name().toLowerCase();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.metrics;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Records upstream request and response body sizes. The response is counted as it is read rather than taken
+ * from {@code Content-Length}, so chunked responses are measured too. Its size is recorded when the body or
+ * the response is closed.
+ */
+public class UpstreamSizeInterceptor implements ClientHttpRequestInterceptor {
+
+    private final UpstreamMetrics metrics;
+
+    public UpstreamSizeInterceptor(UpstreamMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String path = request.getURI().getPath();
+        metrics.recordRequestSize(path, body.length);
+        return new CountingResponse(execution.execute(request, body), path);
+    }
+
+    private final class CountingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final String path;
+        private long bytes;
+        private boolean recorded;
+        private InputStream body;
+
+        private CountingResponse(ClientHttpResponse delegate, String path) {
+            this.delegate = delegate;
+            this.path = path;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(delegate.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        int value = super.read();
+                        if (value >= 0) {
+                            bytes++;
+                        }
+                        return value;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int read = super.read(buffer, offset, length);
+                        if (read > 0) {
+                            bytes += read;
+                        }
+                        return read;
+                    }
+
+                    /** Re-reads after {@code reset()} would be counted twice. */
+                    @Override
+                    public boolean markSupported() {
+                        return false;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        record();
+                        super.close();
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            record();
+            delegate.close();
+        }
+
+        private void record() {
+            if (!recorded) {
+                recorded = true;
+                metrics.recordResponseSize(path, bytes);
+            }
+        }
+    }
+}
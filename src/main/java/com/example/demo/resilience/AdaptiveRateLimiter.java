@@ -0,0 +1,234 @@
+package com.example.demo.resilience;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.exception.ServiceUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side token bucket per upstream model path that keeps request volume just under the provider quota.
+ * <p>
+ * The rate adapts AIMD-style: each success adds {@code increase-step} requests/second, each 429 multiplies
+ * the rate by {@code decrease-factor} (at most once per second) and honours {@code Retry-After} by pausing
+ * the bucket. Callers wait for a permit up to {@code max-wait}; when the wait would be longer or too many
+ * callers are already queued the request fails fast with {@link ServiceUnavailableException}.
+ */
+@Component
+public class AdaptiveRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveRateLimiter.class);
+    private static final long DECREASE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final String REJECTED_MESSAGE = "NLP service is busy. Please retry shortly.";
+
+    private final NlpCloudProperties.RateLimit settings;
+    private final LongSupplier clock;
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AdaptiveRateLimiter(NlpCloudProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    AdaptiveRateLimiter(NlpCloudProperties properties, LongSupplier clock) {
+        this.settings = properties.getRateLimit();
+        this.clock = clock;
+    }
+
+    /**
+     * Blocks until the bucket for {@code path} admits one request.
+     *
+     * @throws ServiceUnavailableException if the wait would exceed {@code max-wait} or the queue is full
+     */
+    public void acquire(String path) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        Bucket bucket = bucket(path);
+        long waitNanos = bucket.reserve(clock.getAsLong());
+        if (waitNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(REJECTED_MESSAGE, Duration.ofNanos(waitNanos));
+        } finally {
+            bucket.leaveQueue();
+        }
+    }
+
+    public void onSuccess(String path) {
+        if (settings.isEnabled()) {
+            bucket(path).increase();
+        }
+    }
+
+    public void onThrottled(String path, Duration retryAfter) {
+        if (settings.isEnabled()) {
+            bucket(path).decrease(clock.getAsLong(), retryAfter);
+        }
+    }
+
+    public Map<String, LimiterStats> stats() {
+        Map<String, LimiterStats> stats = new TreeMap<>();
+        buckets.forEach((path, bucket) -> stats.put(path, bucket.stats()));
+        return stats;
+    }
+
+    /**
+     * Parses a {@code Retry-After} header given either as delay-seconds or as an HTTP date.
+     */
+    public static Duration parseRetryAfter(HttpHeaders headers) {
+        String value = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(Long.parseLong(trimmed), 0));
+        } catch (NumberFormatException ignored) {
+            // Not delay-seconds, try HTTP-date
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration delay = Duration.between(ZonedDateTime.now(at.getZone()), at);
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException ignored) {
+            return null;
+        }
+    }
+
+    private Bucket bucket(String path) {
+        return buckets.computeIfAbsent(path, p -> new Bucket(p, initialRate(p)));
+    }
+
+    private double initialRate(String path) {
+        for (Map.Entry<String, Double> entry : settings.getRates().entrySet()) {
+            if (path.contains("/" + entry.getKey() + "/")) {
+                return entry.getValue();
+            }
+        }
+        return settings.getInitialRate();
+    }
+
+    public record LimiterStats(double ratePerSecond, int waiting, long rejected, long throttled) {
+    }
+
+    private final class Bucket {
+
+        private final String path;
+        private final ReentrantLock lock = new ReentrantLock();
+        private double rate;
+        private double storedPermits;
+        private long nextFreeNanos;
+        private long pausedUntilNanos;
+        private long lastDecreaseNanos;
+        private int waiting;
+        private long rejected;
+        private long throttled;
+
+        private Bucket(String path, double rate) {
+            this.path = path;
+            this.rate = clamp(rate);
+            this.storedPermits = settings.getBurst();
+            this.nextFreeNanos = clock.getAsLong();
+            this.lastDecreaseNanos = nextFreeNanos - DECREASE_INTERVAL_NANOS;
+        }
+
+        long reserve(long now) {
+            lock.lock();
+            try {
+                refill(now);
+                long moment = Math.max(nextFreeNanos, pausedUntilNanos);
+                long wait = Math.max(moment - now, 0);
+                if (wait > 0 && (wait > settings.getMaxWait().toNanos() || waiting >= settings.getMaxQueue())) {
+                    rejected++;
+                    throw new ServiceUnavailableException(REJECTED_MESSAGE, Duration.ofNanos(wait));
+                }
+                double fromStored = Math.min(1.0, storedPermits);
+                storedPermits -= fromStored;
+                nextFreeNanos = moment + (long) ((1.0 - fromStored) * TimeUnit.SECONDS.toNanos(1) / rate);
+                if (wait > 0) {
+                    waiting++;
+                }
+                return wait;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void leaveQueue() {
+            lock.lock();
+            try {
+                waiting--;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void increase() {
+            lock.lock();
+            try {
+                rate = clamp(rate + settings.getIncreaseStep());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void decrease(long now, Duration retryAfter) {
+            lock.lock();
+            try {
+                throttled++;
+                storedPermits = 0;
+                if (retryAfter != null) {
+                    pausedUntilNanos = Math.max(pausedUntilNanos, now + retryAfter.toNanos());
+                }
+                if (now - lastDecreaseNanos >= DECREASE_INTERVAL_NANOS) {
+                    rate = clamp(rate * settings.getDecreaseFactor());
+                    lastDecreaseNanos = now;
+                    log.info("Throttled by NLP Cloud on {}, reducing rate to {}/s (Retry-After: {})",
+                            path, String.format("%.2f", rate), retryAfter);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        LimiterStats stats() {
+            lock.lock();
+            try {
+                return new LimiterStats(rate, waiting, rejected, throttled);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void refill(long now) {
+            if (now > nextFreeNanos) {
+                double elapsedSeconds = (now - nextFreeNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+                storedPermits = Math.min(settings.getBurst(), storedPermits + elapsedSeconds * rate);
+                nextFreeNanos = now;
+            }
+        }
+
+        private double clamp(double value) {
+            return Math.max(settings.getMinRate(), Math.min(settings.getMaxRate(), value));
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.demo.resilience;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.exception.ServiceUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker per upstream model path.
+ * <p>
+ * Each breaker tracks the outcomes of the last {@code sliding-window-size} calls. It opens when, with at least
+ * {@code minimum-calls} recorded, the failure rate or the slow-call rate reaches its threshold. While open, calls
+ * fail fast with {@link ServiceUnavailableException}. After {@code wait-in-open-state} the breaker goes half-open
+ * and admits {@code half-open-probes} calls. A failed probe reopens the breaker; once every probe has succeeded
+ * it closes again.
+ */
+@Component
+public class CircuitBreakerRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreakerRegistry.class);
+    private static final String OPEN_MESSAGE = "NLP service is temporarily unavailable. Please retry shortly.";
+
+    private final NlpCloudProperties.CircuitBreaker settings;
+    private final LongSupplier clock;
+    private final ConcurrentMap<String, Breaker> breakers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CircuitBreakerRegistry(NlpCloudProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    CircuitBreakerRegistry(NlpCloudProperties properties, LongSupplier clock) {
+        this.settings = properties.getCircuitBreaker();
+        this.clock = clock;
+    }
+
+    /**
+     * Admits one call to {@code path}. Every admitted call must be followed by exactly one of
+     * {@link #onSuccess}, {@link #onFailure} or {@link #release}.
+     *
+     * @throws ServiceUnavailableException if the breaker is open or all half-open probes are in flight
+     */
+    public void acquirePermission(String path) {
+        if (settings.isEnabled()) {
+            breaker(path).acquire(clock.getAsLong());
+        }
+    }
+
+    public void onSuccess(String path, long durationNanos) {
+        if (settings.isEnabled()) {
+            breaker(path).record(false, durationNanos >= settings.getSlowCallDuration().toNanos(), clock.getAsLong());
+        }
+    }
+
+    public void onFailure(String path, long durationNanos) {
+        if (settings.isEnabled()) {
+            breaker(path).record(true, durationNanos >= settings.getSlowCallDuration().toNanos(), clock.getAsLong());
+        }
+    }
+
+    /**
+     * Gives back a permission without recording an outcome, e.g. when the call was rejected locally.
+     */
+    public void release(String path) {
+        if (settings.isEnabled()) {
+            breaker(path).release();
+        }
+    }
+
+    public Map<String, BreakerStats> stats() {
+        Map<String, BreakerStats> stats = new TreeMap<>();
+        breakers.forEach((path, breaker) -> stats.put(path, breaker.stats()));
+        return stats;
+    }
+
+    private Breaker breaker(String path) {
+        return breakers.computeIfAbsent(path, Breaker::new);
+    }
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    public record BreakerStats(State state, double failureRate, double slowCallRate, int bufferedCalls,
+                               long notPermitted) {
+    }
+
+    private final class Breaker {
+
+        private final String path;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final boolean[] failed;
+        private final boolean[] slow;
+        private State state = State.CLOSED;
+        private int next;
+        private int buffered;
+        private int failures;
+        private int slowCalls;
+        private long openUntilNanos;
+        private int probesInFlight;
+        private int probeSuccesses;
+        private long notPermitted;
+
+        private Breaker(String path) {
+            this.path = path;
+            int size = Math.max(settings.getSlidingWindowSize(), 1);
+            this.failed = new boolean[size];
+            this.slow = new boolean[size];
+        }
+
+        void acquire(long now) {
+            lock.lock();
+            try {
+                if (state == State.OPEN && now >= openUntilNanos) {
+                    transition(State.HALF_OPEN);
+                }
+                if (state == State.OPEN) {
+                    notPermitted++;
+                    throw new ServiceUnavailableException(OPEN_MESSAGE, Duration.ofNanos(openUntilNanos - now));
+                }
+                if (state == State.HALF_OPEN) {
+                    if (probesInFlight + probeSuccesses >= settings.getHalfOpenProbes()) {
+                        notPermitted++;
+                        throw new ServiceUnavailableException(OPEN_MESSAGE, settings.getWaitInOpenState());
+                    }
+                    probesInFlight++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void record(boolean failure, boolean slowCall, long now) {
+            lock.lock();
+            try {
+                if (state == State.HALF_OPEN) {
+                    probesInFlight = Math.max(probesInFlight - 1, 0);
+                    if (failure || slowCall) {
+                        open(now);
+                    } else if (++probeSuccesses >= settings.getHalfOpenProbes()) {
+                        transition(State.CLOSED);
+                    }
+                    return;
+                }
+                if (state == State.OPEN) {
+                    return;
+                }
+                if (buffered == failed.length) {
+                    failures -= failed[next] ? 1 : 0;
+                    slowCalls -= slow[next] ? 1 : 0;
+                } else {
+                    buffered++;
+                }
+                failed[next] = failure;
+                slow[next] = slowCall;
+                failures += failure ? 1 : 0;
+                slowCalls += slowCall ? 1 : 0;
+                next = (next + 1) % failed.length;
+
+                if (buffered >= Math.max(settings.getMinimumCalls(), 1)
+                        && (failureRate() >= settings.getFailureRateThreshold()
+                        || slowCallRate() >= settings.getSlowCallRateThreshold())) {
+                    open(now);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release() {
+            lock.lock();
+            try {
+                if (state == State.HALF_OPEN) {
+                    probesInFlight = Math.max(probesInFlight - 1, 0);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        BreakerStats stats() {
+            lock.lock();
+            try {
+                return new BreakerStats(state, failureRate(), slowCallRate(), buffered, notPermitted);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void open(long now) {
+            if (state == State.HALF_OPEN) {
+                log.warn("Circuit breaker for {} reopened after a failed probe", path);
+            } else {
+                log.warn("Circuit breaker for {} opened (failure rate {}%, slow-call rate {}%)",
+                        path, String.format("%.1f", failureRate()), String.format("%.1f", slowCallRate()));
+            }
+            openUntilNanos = now + settings.getWaitInOpenState().toNanos();
+            transition(State.OPEN);
+        }
+
+        private void transition(State target) {
+            if (target != State.OPEN) {
+                log.info("Circuit breaker for {} is now {}", path, target);
+            }
+            state = target;
+            next = 0;
+            buffered = 0;
+            failures = 0;
+            slowCalls = 0;
+            probesInFlight = 0;
+            probeSuccesses = 0;
+        }
+
+        private double failureRate() {
+            return buffered == 0 ? 0 : failures * 100.0 / buffered;
+        }
+
+        private double slowCallRate() {
+            return buffered == 0 ? 0 : slowCalls * 100.0 / buffered;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.demo.resilience;
+
+import com.example.demo.cache.RequestFingerprint;
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.service.NlpTask;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight registry for upstream calls.
+ * <p>
+ * The first caller for a given task, model path and text performs the call; callers arriving
+ * while it is in flight wait on the same future and receive the same result or exception.
+ * Callers that joined an in-flight call are counted in {@code nlp.upstream.coalesced}, by task.
+ */
+@Component
+public class InFlightRequestRegistry {
+
+    private final boolean enabled;
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<NlpTask, LongAdder> coalesced = new EnumMap<>(NlpTask.class);
+
+    /**
+     * Without a registry, for use outside Spring: the coalesced count goes to a registry with no exporters.
+     */
+    public InFlightRequestRegistry(NlpCloudProperties properties) {
+        this(properties, new CompositeMeterRegistry());
+    }
+
+    @Autowired
+    public InFlightRequestRegistry(NlpCloudProperties properties, MeterRegistry registry) {
+        this.enabled = properties.getCoalescing().isEnabled();
+        for (NlpTask task : NlpTask.values()) {
+            LongAdder count = new LongAdder();
+            coalesced.put(task, count);
+            FunctionCounter.builder("nlp.upstream.coalesced", count, LongAdder::sum)
+                    .description("Callers served by an identical upstream call already in flight")
+                    .tag("task", task.name().toLowerCase())
+                    .register(registry);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(NlpTask task, String path, String text, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        String key = RequestFingerprint.of(task, path, text);
+        CompletableFuture<Object> leader = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            coalesced.get(task).increment();
+            return (T) await(existing);
+        }
+        try {
+            T result = call.get();
+            leader.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            leader.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    public Map<NlpTask, Long> coalescedCallers() {
+        Map<NlpTask, Long> counts = new EnumMap<>(NlpTask.class);
+        coalesced.forEach((task, adder) -> counts.put(task, adder.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+}
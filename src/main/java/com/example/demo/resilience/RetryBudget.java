@@ -0,0 +1,76 @@
+package com.example.demo.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps retries to a fraction of first attempts so retries cannot multiply load during an outage.
+ * <p>
+ * Every first attempt deposits {@code ratio} tokens and a retry withdraws one. A small time-based allowance
+ * ({@code minPerSecond}) keeps retries available at low traffic. The balance is capped so a quiet period cannot
+ * bank an unlimited retry burst.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double minPerSecond;
+    private final double maxBalance;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private double balance;
+    private long lastRefillNanos;
+    private long exhausted;
+
+    public RetryBudget(double ratio, double minPerSecond, LongSupplier clock) {
+        this.ratio = ratio;
+        this.minPerSecond = minPerSecond;
+        this.maxBalance = Math.max(10.0, minPerSecond * 10);
+        this.clock = clock;
+        this.balance = minPerSecond;
+        this.lastRefillNanos = clock.getAsLong();
+    }
+
+    public void recordRequest() {
+        lock.lock();
+        try {
+            refill();
+            balance = Math.min(maxBalance, balance + ratio);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean tryAcquireRetry() {
+        lock.lock();
+        try {
+            refill();
+            if (balance >= 1.0) {
+                balance -= 1.0;
+                return true;
+            }
+            exhausted++;
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long exhaustedCount() {
+        lock.lock();
+        try {
+            return exhausted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill() {
+        long now = clock.getAsLong();
+        double elapsedSeconds = (now - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        if (elapsedSeconds > 0) {
+            balance = Math.min(maxBalance, balance + elapsedSeconds * minPerSecond);
+            lastRefillNanos = now;
+        }
+    }
+}
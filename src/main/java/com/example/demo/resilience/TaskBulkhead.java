@@ -0,0 +1,138 @@
+package com.example.demo.resilience;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.exception.ServiceUnavailableException;
+import com.example.demo.service.NlpTask;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Caps concurrent upstream work per NLP task so a slow model cannot take every request thread from the others.
+ * <p>
+ * Each task has its own semaphore sized by {@code bulkhead.max-concurrent-per-task} (default
+ * {@code bulkhead.max-concurrent}). A call waits at most {@code bulkhead.max-wait} for a slot and is otherwise
+ * rejected with {@link ServiceUnavailableException}. With the default of zero a full bulkhead rejects immediately.
+ * <p>
+ * Per task, the wait for a slot is timed in {@code nlp.bulkhead.queue.wait} (admitted calls only), rejections are
+ * counted in {@code nlp.bulkhead.rejected} and occupied slots are gauged in {@code nlp.bulkhead.active}.
+ */
+@Component
+public class TaskBulkhead {
+
+    private static final String REJECTED_MESSAGE = "NLP service is busy. Please retry shortly.";
+
+    private final NlpCloudProperties.Bulkhead settings;
+    private final Map<NlpTask, Compartment> compartments = new EnumMap<>(NlpTask.class);
+
+    /**
+     * Without a registry, for use outside Spring: meters go to a registry with no exporters.
+     */
+    public TaskBulkhead(NlpCloudProperties properties) {
+        this(properties, new CompositeMeterRegistry());
+    }
+
+    @Autowired
+    public TaskBulkhead(NlpCloudProperties properties, MeterRegistry registry) {
+        this.settings = properties.getBulkhead();
+        for (NlpTask task : NlpTask.values()) {
+            compartments.put(task, new Compartment(task, Math.max(settings.maxConcurrentFor(task), 1), registry));
+        }
+    }
+
+    public <T> T execute(NlpTask task, Supplier<T> call) {
+        if (!settings.isEnabled()) {
+            return call.get();
+        }
+        Compartment compartment = compartments.get(task);
+        compartment.acquire();
+        try {
+            return call.get();
+        } finally {
+            compartment.permits.release();
+        }
+    }
+
+    public Map<NlpTask, BulkheadStats> stats() {
+        Map<NlpTask, BulkheadStats> stats = new EnumMap<>(NlpTask.class);
+        compartments.forEach((task, compartment) -> stats.put(task, compartment.stats()));
+        return stats;
+    }
+
+    public record BulkheadStats(int maxConcurrent, int active, long admitted, long rejected,
+                                double averageQueueWaitMillis, double maxQueueWaitMillis) {
+    }
+
+    private final class Compartment {
+
+        private final int maxConcurrent;
+        private final Semaphore permits;
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder queueWaitNanos = new LongAdder();
+        private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+        private final Timer queueWait;
+
+        private Compartment(NlpTask task, int maxConcurrent, MeterRegistry registry) {
+            this.maxConcurrent = maxConcurrent;
+            this.permits = new Semaphore(maxConcurrent, true);
+            String tag = task.name().toLowerCase();
+            this.queueWait = Timer.builder("nlp.bulkhead.queue.wait")
+                    .description("Time admitted calls waited for a bulkhead slot")
+                    .tag("task", tag)
+                    .register(registry);
+            FunctionCounter.builder("nlp.bulkhead.rejected", rejected, LongAdder::sum)
+                    .description("Calls rejected because the bulkhead stayed full for bulkhead.max-wait")
+                    .tag("task", tag)
+                    .register(registry);
+            Gauge.builder("nlp.bulkhead.active", this, Compartment::active)
+                    .description("Bulkhead slots currently taken")
+                    .tag("task", tag)
+                    .register(registry);
+        }
+
+        void acquire() {
+            long started = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(settings.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            if (!acquired) {
+                rejected.increment();
+                throw new ServiceUnavailableException(REJECTED_MESSAGE, Duration.ofSeconds(1));
+            }
+            long waited = System.nanoTime() - started;
+            admitted.increment();
+            queueWaitNanos.add(waited);
+            maxQueueWaitNanos.accumulate(waited);
+            queueWait.record(waited, TimeUnit.NANOSECONDS);
+        }
+
+        int active() {
+            return maxConcurrent - permits.availablePermits();
+        }
+
+        BulkheadStats stats() {
+            long count = admitted.sum();
+            double averageWait = count == 0 ? 0 : queueWaitNanos.sum() / (double) count / 1_000_000;
+            return new BulkheadStats(maxConcurrent, active(), count,
+                    rejected.sum(), averageWait, maxQueueWaitNanos.get() / 1_000_000.0);
+        }
+    }
+}
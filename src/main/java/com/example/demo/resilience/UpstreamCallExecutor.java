@@ -0,0 +1,233 @@
+package com.example.demo.resilience;
+
+import com.example.demo.client.PerTaskTimeoutRequestFactory;
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.exception.UpstreamServiceException;
+import com.example.demo.metrics.RequestTimeline;
+import com.example.demo.metrics.UpstreamMetrics;
+import com.example.demo.service.NlpTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs upstream NLP Cloud calls behind the per-path circuit breaker and client-side rate limiter, with retries.
+ * Both service paths go through this executor.
+ * <p>
+ * Attempts are limited to {@code max-retries + 1}. A failure is retried only if the configured policy marks it
+ * retryable and the global {@link RetryBudget} still has room. Backoff uses decorrelated jitter between
+ * {@code retry.base-delay} and {@code retry.max-delay}. Every attempt and every backoff runs on the calling thread,
+ * which sleeps through the backoff: retries are only cheap when that thread is virtual. Sync endpoints run on
+ * Tomcat's request threads, so retries require {@code spring.threads.virtual.enabled} (mirrored in
+ * {@code nlpcloud.virtual-threads.enabled}); with {@code max-retries} above zero and virtual threads off the
+ * executor refuses to start. Async and streaming endpoints call in from {@code nlpAsyncExecutor}, which is always
+ * virtual. Final failures surface as {@link UpstreamServiceException}.
+ * <p>
+ * Each attempt runs with its task bound for {@link PerTaskTimeoutRequestFactory}, so it gets that task's read
+ * timeout.
+ * <p>
+ * Every attempt, retry and backoff, and every logical call, is recorded in {@link UpstreamMetrics}. The rate-limit
+ * wait, each attempt and each backoff are also phases of the caller's {@link RequestTimeline}.
+ */
+@Component
+public class UpstreamCallExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamCallExecutor.class);
+    private static final String SAFE_UPSTREAM_MESSAGE = "Unable to process NLP request at this time. Please try again later.";
+
+    private final NlpCloudProperties properties;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final UpstreamMetrics metrics;
+    private final RetryBudget retryBudget;
+
+    @Autowired
+    public UpstreamCallExecutor(NlpCloudProperties properties, AdaptiveRateLimiter rateLimiter,
+                                CircuitBreakerRegistry circuitBreakers, UpstreamMetrics metrics) {
+        this(properties, rateLimiter, circuitBreakers, metrics, new RetryBudget(properties.getRetry().getBudgetRatio(),
+                properties.getRetry().getBudgetMinPerSecond(), System::nanoTime));
+    }
+
+    UpstreamCallExecutor(NlpCloudProperties properties, AdaptiveRateLimiter rateLimiter,
+                         CircuitBreakerRegistry circuitBreakers, UpstreamMetrics metrics, RetryBudget retryBudget) {
+        if (properties.getMaxRetries() > 0 && !properties.getVirtualThreads().isEnabled()) {
+            throw new IllegalStateException("Upstream retries back off on the request thread and need virtual threads: "
+                    + "set spring.threads.virtual.enabled=true, or nlpcloud.max-retries=0 to run without retries");
+        }
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreakers = circuitBreakers;
+        this.metrics = metrics;
+        this.retryBudget = retryBudget;
+    }
+
+    /**
+     * Runs {@code call} against {@code path} and returns its result, retrying on the calling thread. The thread is
+     * blocked for the whole sequence, backoffs included.
+     */
+    public <T> T execute(NlpTask task, String path, Supplier<T> call) {
+        retryBudget.recordRequest();
+        long started = System.nanoTime();
+        metrics.callStarted(task);
+        Throwable failure = null;
+        try {
+            return attempt(task, path, call);
+        } catch (RuntimeException | Error ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            metrics.callFinished(task, path, upstreamCause(failure), System.nanoTime() - started);
+        }
+    }
+
+    /** Retries refused so far because the retry budget was empty. */
+    public long retryBudgetExhausted() {
+        return retryBudget.exhaustedCount();
+    }
+
+    private <T> T attempt(NlpTask task, String path, Supplier<T> call) {
+        int attempts = Math.max(properties.getMaxRetries(), 0) + 1;
+        long delay = properties.getRetry().getBaseDelay().toMillis();
+        RequestTimeline timeline = RequestTimeline.current();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return invoke(task, path, call, timeline, attempt);
+            } catch (RuntimeException ex) {
+                log.warn("Attempt {}/{} failed calling {}: {}", attempt, attempts, path, ex.getClass().getSimpleName());
+                if (attempt >= attempts || !isRetryable(ex)) {
+                    throw mapUpstreamError(path, ex);
+                }
+                if (!retryBudget.tryAcquireRetry()) {
+                    log.warn("Retry budget exhausted, not retrying {}", path);
+                    metrics.recordRetryBudgetExhausted(task, path);
+                    throw mapUpstreamError(path, ex);
+                }
+                delay = nextDelay(delay);
+                metrics.recordRetry(task, path, delay);
+                backOff(task, attempt, delay, timeline);
+            }
+        }
+    }
+
+    private void backOff(NlpTask task, int attempt, long delay, RequestTimeline timeline) {
+        try (RequestTimeline.Phase ignored = timeline.phase("backoff", phaseDescription(task, attempt))) {
+            Thread.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamServiceException(SAFE_UPSTREAM_MESSAGE, ex);
+        }
+    }
+
+    private <T> T invoke(NlpTask task, String path, Supplier<T> call, RequestTimeline timeline, int attempt) {
+        circuitBreakers.acquirePermission(path);
+        try (RequestTimeline.Phase ignored = timeline.phase("rate-limit", phaseDescription(task, attempt))) {
+            rateLimiter.acquire(path);
+        } catch (RuntimeException ex) {
+            circuitBreakers.release(path);
+            throw ex;
+        }
+        RequestTimeline.Phase phase = timeline.phase("upstream", phaseDescription(task, attempt));
+        long started = System.nanoTime();
+        try {
+            T value = PerTaskTimeoutRequestFactory.forTask(task, call);
+            long elapsed = System.nanoTime() - started;
+            metrics.recordAttempt(task, path, null, elapsed);
+            circuitBreakers.onSuccess(path, elapsed);
+            rateLimiter.onSuccess(path);
+            return value;
+        } catch (RuntimeException ex) {
+            long elapsed = System.nanoTime() - started;
+            metrics.recordAttempt(task, path, ex, elapsed);
+            phase.error(ex);
+            if (ex instanceof RestClientResponseException responseException
+                    && responseException.getStatusCode().value() == 429) {
+                rateLimiter.onThrottled(path, AdaptiveRateLimiter.parseRetryAfter(responseException.getResponseHeaders()));
+                circuitBreakers.release(path);
+            } else if (isUpstreamFault(ex)) {
+                circuitBreakers.onFailure(path, elapsed);
+            } else if (ex instanceof RestClientResponseException) {
+                circuitBreakers.onSuccess(path, elapsed);
+            } else {
+                circuitBreakers.release(path);
+            }
+            throw ex;
+        } finally {
+            phase.close();
+        }
+    }
+
+    private static String phaseDescription(NlpTask task, int attempt) {
+        return task.name().toLowerCase() + " #" + attempt;
+    }
+
+    /**
+     * Whether a failure says something about upstream health (5xx, connection problems, timeouts), as opposed
+     * to a rejected request or a local problem.
+     */
+    private boolean isUpstreamFault(Throwable throwable) {
+        if (throwable instanceof RestClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError();
+        }
+        return throwable instanceof ResourceAccessException || throwable.getCause() instanceof IOException
+                || throwable.getCause() instanceof TimeoutException;
+    }
+
+    /**
+     * Decorrelated jitter: a random delay between the base delay and three times the previous delay, capped.
+     */
+    private long nextDelay(long previousDelay) {
+        long base = Math.max(properties.getRetry().getBaseDelay().toMillis(), 1);
+        long cap = Math.max(properties.getRetry().getMaxDelay().toMillis(), base);
+        long upper = Math.max(base, Math.min(cap, previousDelay * 3));
+        return upper == base ? base : ThreadLocalRandom.current().nextLong(base, upper + 1);
+    }
+
+    private boolean isRetryable(Throwable throwable) {
+        if (throwable instanceof UpstreamServiceException) {
+            return false;
+        }
+        if (throwable instanceof RestClientResponseException responseException) {
+            return properties.getRetry().getRetryableStatuses().contains(responseException.getStatusCode().value());
+        }
+        if (throwable instanceof ResourceAccessException || throwable.getCause() instanceof IOException
+                || throwable.getCause() instanceof TimeoutException) {
+            return properties.getRetry().isRetryOnIoError();
+        }
+        return false;
+    }
+
+    /**
+     * The upstream failure behind a mapped {@link UpstreamServiceException}, so call metrics are tagged with
+     * what actually went wrong.
+     */
+    private static Throwable upstreamCause(Throwable failure) {
+        if (failure instanceof UpstreamServiceException upstream && upstream.getCause() != null) {
+            return upstream.getCause();
+        }
+        return failure;
+    }
+
+    private UpstreamServiceException mapUpstreamError(String path, Throwable throwable) {
+        if (throwable instanceof UpstreamServiceException upstream) {
+            return upstream;
+        }
+        if (throwable instanceof RestClientResponseException responseException) {
+            log.error("NLP Cloud returned {} for {} ({} byte body)", responseException.getStatusCode().value(), path,
+                    responseException.getResponseBodyAsByteArray().length);
+            return new UpstreamServiceException(SAFE_UPSTREAM_MESSAGE, responseException);
+        }
+        if (throwable instanceof ResourceAccessException) {
+            log.error("NLP Cloud timeout or resource access issue for {}: {}", path, throwable.getMessage());
+            return new UpstreamServiceException(SAFE_UPSTREAM_MESSAGE, throwable);
+        }
+        return new UpstreamServiceException(SAFE_UPSTREAM_MESSAGE, throwable);
+    }
+}
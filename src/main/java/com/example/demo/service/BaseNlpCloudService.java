@@ -1,28 +1,39 @@
 package com.example.demo.service;
 
+import com.example.demo.client.UpstreamResponseReader;
 import com.example.demo.config.NlpCloudProperties;
-import com.example.demo.exception.UpstreamServiceException;
+import com.example.demo.resilience.InFlightRequestRegistry;
+import com.example.demo.resilience.TaskBulkhead;
+import com.example.demo.resilience.UpstreamCallExecutor;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.function.Supplier;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 public abstract class BaseNlpCloudService {
 
-    private static final Logger log = LoggerFactory.getLogger(BaseNlpCloudService.class);
     protected final RestTemplate restTemplate;
     protected final NlpCloudProperties properties;
+    private final InFlightRequestRegistry inFlightRequests;
+    private final UpstreamCallExecutor upstreamCalls;
+    private final TaskBulkhead bulkhead;
+    private final UpstreamResponseReader responseReader;
 
-    protected BaseNlpCloudService(RestTemplate restTemplate, NlpCloudProperties properties) {
+    protected BaseNlpCloudService(RestTemplate restTemplate, NlpCloudProperties properties,
+                                  InFlightRequestRegistry inFlightRequests, UpstreamCallExecutor upstreamCalls,
+                                  TaskBulkhead bulkhead, UpstreamResponseReader responseReader) {
         this.restTemplate = restTemplate;
         this.properties = properties;
+        this.inFlightRequests = inFlightRequests;
+        this.upstreamCalls = upstreamCalls;
+        this.bulkhead = bulkhead;
+        this.responseReader = responseReader;
     }
 
     protected HttpEntity<Map<String, ?>> buildRequest(Map<String, ?> payload) {
@@ -32,26 +43,25 @@ public abstract class BaseNlpCloudService {
         return new HttpEntity<>(payload, headers);
     }
 
-    protected <T> T executeWithRetry(Supplier<T> supplier) {
-        int maxRetries = 5;
-        long delay = 3000; // 1 second
-        for (int i = 1; i <= maxRetries; i++) {
-            try {
-                return supplier.get();
-            } catch (HttpStatusCodeException ex) {
-                if (ex.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
-
-                    log.info("Rate limit hit, retrying in {}ms (attempt {}/{})", delay, i, maxRetries);
-                    try {
-                        Thread.sleep(delay);
-                    } catch (InterruptedException ignored) {
-                    }
-                    delay *= 2; // exponential backoff
-                } else {
-                    throw ex;
-                }
-            }
-        }
-        throw new RuntimeException("Exceeded max retries due to rate limiting");
+    /**
+     * Posts the payload and maps the response body as it streams in, subject to the configured response size
+     * limit.
+     */
+    protected <T> T post(String path, Map<String, ?> payload, UpstreamResponseReader.BodyMapper<T> mapper) {
+        return responseReader.post(restTemplate, path, buildRequest(payload), mapper);
     }
-}
\ No newline at end of file
+
+    protected static String bodyText(InputStream body) throws IOException {
+        return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Executes an upstream call with retry inside the task's bulkhead, sharing a single in-flight call between
+     * concurrent identical requests (same task, model path and text). Only the call that goes upstream takes a
+     * bulkhead slot; callers waiting on it do not.
+     */
+    protected <T> T execute(NlpTask task, String path, String text, Supplier<T> supplier) {
+        return inFlightRequests.execute(task, path, text,
+                () -> bulkhead.execute(task, () -> upstreamCalls.execute(task, path, supplier)));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.UpstreamServiceException;
+import com.example.demo.metrics.RequestTimeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs one call per input with a bounded number in flight and a shared deadline, for services that split a
+ * document into parts. Results come back in input order; if any call fails or the deadline passes, the calls
+ * still running are cancelled and the whole operation fails.
+ */
+final class BoundedFanOut {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedFanOut.class);
+    private static final String SAFE_UPSTREAM_MESSAGE = "Unable to process NLP request at this time. Please try again later.";
+
+    private BoundedFanOut() {
+    }
+
+    static <T, R> List<R> map(ExecutorService executor, List<T> inputs, Function<T, R> work, int maxConcurrency,
+                              long deadlineNanos) {
+        Semaphore permits = new Semaphore(Math.max(maxConcurrency, 1));
+        List<Future<R>> futures = new ArrayList<>(inputs.size());
+        boolean completed = false;
+        try {
+            for (T input : inputs) {
+                if (!permits.tryAcquire(remaining(deadlineNanos), TimeUnit.NANOSECONDS)) {
+                    throw new TimeoutException();
+                }
+                Supplier<R> task = RequestTimeline.wrap(() -> {
+                    try {
+                        return work.apply(input);
+                    } finally {
+                        permits.release();
+                    }
+                });
+                futures.add(executor.submit(task::get));
+            }
+            List<R> results = new ArrayList<>(futures.size());
+            for (Future<R> future : futures) {
+                results.add(future.get(remaining(deadlineNanos), TimeUnit.NANOSECONDS));
+            }
+            completed = true;
+            return results;
+        } catch (TimeoutException ex) {
+            log.warn("Missed the deadline with {} of {} calls started", futures.size(), inputs.size());
+            throw new UpstreamServiceException("Timed out waiting for NLP result", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            log.warn("Call failed: {}", cause.getClass().getSimpleName());
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new UpstreamServiceException(SAFE_UPSTREAM_MESSAGE, cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamServiceException(SAFE_UPSTREAM_MESSAGE, ex);
+        } finally {
+            if (!completed) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        }
+    }
+
+    private static long remaining(long deadlineNanos) {
+        return Math.max(deadlineNanos - System.nanoTime(), 0);
+    }
+}
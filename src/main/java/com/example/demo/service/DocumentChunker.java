@@ -0,0 +1,120 @@
+package com.example.demo.service;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits long clinical documents into overlapping, sentence-aligned chunks for map-reduce summarization.
+ * <p>
+ * Chunk boundaries are content-defined: once a chunk holds at least {@code minChars}, it ends after the first
+ * sentence whose hash matches a fixed pattern, or before a sentence that would push it, overlap included, past
+ * {@code maxChars}.
+ * Boundaries therefore depend on nearby sentences only, so an edit changes the chunks around it while the rest
+ * of the document splits exactly as before and their summaries can come from the response cache.
+ * <p>
+ * Each chunk after the first is prefixed with trailing sentences of the previous one, up to {@code overlapChars},
+ * so findings that straddle a boundary keep their context. Sentences that do not fit on their own are split at
+ * whitespace.
+ */
+public class DocumentChunker {
+
+    /** On average one sentence in eight ends a chunk once the minimum size is reached. */
+    private static final int BOUNDARY_MASK = 7;
+
+    private final int minChars;
+    private final int overlapChars;
+    /** Room for new sentences once the overlap is accounted for. */
+    private final int budget;
+
+    public DocumentChunker(int minChars, int maxChars, int overlapChars) {
+        if (overlapChars < 0 || minChars < 0 || minChars > maxChars - overlapChars) {
+            throw new IllegalArgumentException("Invalid chunk sizes: min " + minChars + ", max " + maxChars
+                    + ", overlap " + overlapChars);
+        }
+        this.minChars = minChars;
+        this.overlapChars = overlapChars;
+        this.budget = maxChars - overlapChars;
+    }
+
+    public List<String> split(String text) {
+        List<List<String>> groups = group(sentences(text));
+        List<String> chunks = new ArrayList<>(groups.size());
+        for (int i = 0; i < groups.size(); i++) {
+            StringBuilder chunk = new StringBuilder();
+            if (i > 0) {
+                chunk.append(overlap(groups.get(i - 1)));
+            }
+            groups.get(i).forEach(chunk::append);
+            chunks.add(chunk.toString().strip());
+        }
+        return chunks;
+    }
+
+    private List<List<String>> group(List<String> sentences) {
+        List<List<String>> groups = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int length = 0;
+        for (String sentence : sentences) {
+            if (length > 0 && length + sentence.length() > budget) {
+                groups.add(current);
+                current = new ArrayList<>();
+                length = 0;
+            }
+            current.add(sentence);
+            length += sentence.length();
+            if (length >= minChars && (sentence.strip().hashCode() & BOUNDARY_MASK) == 0) {
+                groups.add(current);
+                current = new ArrayList<>();
+                length = 0;
+            }
+        }
+        if (!current.isEmpty()) {
+            groups.add(current);
+        }
+        return groups;
+    }
+
+    private String overlap(List<String> previous) {
+        int length = 0;
+        int first = previous.size();
+        while (first > 0 && length + previous.get(first - 1).length() <= overlapChars) {
+            first--;
+            length += previous.get(first).length();
+        }
+        return String.join("", previous.subList(first, previous.size()));
+    }
+
+    /**
+     * Sentences including their trailing whitespace, so joining them restores the original text.
+     */
+    private List<String> sentences(String text) {
+        List<String> sentences = new ArrayList<>();
+        BreakIterator iterator = BreakIterator.getSentenceInstance(Locale.US);
+        iterator.setText(text);
+        int start = iterator.first();
+        for (int end = iterator.next(); end != BreakIterator.DONE; start = end, end = iterator.next()) {
+            String sentence = text.substring(start, end);
+            if (sentence.length() <= budget) {
+                sentences.add(sentence);
+            } else {
+                splitLongSentence(sentence, sentences);
+            }
+        }
+        return sentences;
+    }
+
+    private void splitLongSentence(String sentence, List<String> into) {
+        int start = 0;
+        while (sentence.length() - start > budget) {
+            int end = sentence.lastIndexOf(' ', start + budget - 1);
+            if (end <= start) {
+                end = start + budget - 1;
+            }
+            into.add(sentence.substring(start, end + 1));
+            start = end + 1;
+        }
+        into.add(sentence.substring(start));
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.demo.service;
 
+import com.example.demo.client.UpstreamResponseReader;
 import com.example.demo.config.NlpCloudProperties;
 import com.example.demo.dto.ClinicalNoteRequest;
 import com.example.demo.dto.EntityExtractionResponse;
 import com.example.demo.mapper.NlpCloudMapper;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.ResponseEntity;
+import com.example.demo.resilience.UpstreamCallExecutor;
+import com.example.demo.resilience.InFlightRequestRegistry;
+import com.example.demo.resilience.TaskBulkhead;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
@@ -15,24 +17,32 @@ import java.util.Map;
 public class EntityExtractionService extends BaseNlpCloudService {
 
     private final NlpCloudMapper mapper;
-
-    public EntityExtractionService(RestTemplate rt, NlpCloudProperties props, NlpCloudMapper mapper) {
-        super(rt, props);
+    private final LocalTermExtractor localTerms;
+    private final NlpBackends backends;
+
+    public EntityExtractionService(RestTemplate rt, NlpCloudProperties props, NlpCloudMapper mapper,
+                                   InFlightRequestRegistry inFlightRequests, UpstreamCallExecutor upstreamCalls, TaskBulkhead bulkhead,
+                                   UpstreamResponseReader responseReader, LocalTermExtractor localTerms,
+                                   NlpBackends backends) {
+        super(rt, props, inFlightRequests, upstreamCalls, bulkhead, responseReader);
         this.mapper = mapper;
+        this.localTerms = localTerms;
+        this.backends = backends;
     }
 
     public EntityExtractionResponse extractEntities(ClinicalNoteRequest request) {
+        return localTerms.entities(request,
+                () -> backends.extractEntities(request).orElseGet(() -> extractUpstream(request)));
+    }
+
+    private EntityExtractionResponse extractUpstream(ClinicalNoteRequest request) {
         String path = "/" + properties.getEntityModel()
                 + properties.getEntityEndpoint();
 
-        return executeWithRetry(() -> {
+        return execute(NlpTask.ENTITIES, path, request.getNote(), () -> {
             var payload = Map.of("text", request.getNote());
 
-            String response = restTemplate.postForObject(
-                    path, buildRequest(payload), String.class
-            );
-
-            return mapper.toEntityExtractionResponse(response);
+            return post(path, payload, mapper::toEntityExtractionResponse);
         });
     }
 }
\ No newline at end of file
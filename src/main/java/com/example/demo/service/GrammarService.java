@@ -1,9 +1,13 @@
 package com.example.demo.service;
 
+import com.example.demo.client.UpstreamResponseReader;
 import com.example.demo.config.NlpCloudClientConfig;
 import com.example.demo.config.NlpCloudProperties;
 import com.example.demo.dto.ClinicalNoteRequest;
 import com.example.demo.dto.GrammarResponse;
+import com.example.demo.resilience.UpstreamCallExecutor;
+import com.example.demo.resilience.InFlightRequestRegistry;
+import com.example.demo.resilience.TaskBulkhead;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.slf4j.Logger;
@@ -16,25 +20,21 @@ public class GrammarService extends BaseNlpCloudService {
 
     private static final Logger log = LoggerFactory.getLogger(GrammarService.class);
 
-    public GrammarService(RestTemplate rt, NlpCloudProperties props) {
-        super(rt, props);
+    public GrammarService(RestTemplate rt, NlpCloudProperties props, InFlightRequestRegistry inFlightRequests,
+                  UpstreamCallExecutor upstreamCalls, TaskBulkhead bulkhead,
+                  UpstreamResponseReader responseReader) {
+        super(rt, props, inFlightRequests, upstreamCalls, bulkhead, responseReader);
     }
 
     public GrammarResponse checkGrammar(ClinicalNoteRequest request) {
         String path = "/gpu/" + properties.getGrammarModel() + properties.getGrammarEndpoint();
 
-        log.info("Grammar model: {}", properties.getGrammarModel());
-        log.info("Grammar endpoint: {}", properties.getGrammarEndpoint());
-        log.info("Full grammar path: {}", path);
-        return executeWithRetry(() -> {
+        return execute(NlpTask.GRAMMAR, path, request.getNote(), () -> {
             var payload = Map.of("text", request.getNote());
             log.debug("Grammar request payload keys → {}", payload.keySet());
             log.debug("Grammar request text length  → {}",
                     request.getNote() != null ? request.getNote().length() : 0);
-            String response = restTemplate.postForObject(
-                    path, buildRequest(payload), String.class
-            );
-            log.info("NLP Cloud response status → {}", response);
+            String response = post(path, payload, BaseNlpCloudService::bodyText);
 
             return new GrammarResponse(response, List.of());
         });
@@ -0,0 +1,146 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.dto.Entity;
+import com.example.demo.dto.EntityExtractionResponse;
+import com.example.demo.dto.GrammarResponse;
+import com.example.demo.metrics.RequestTimeline;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Grammar correction and entity extraction for notes that are edited and re-submitted.
+ * <p>
+ * The note is split into paragraphs at blank lines and each paragraph is sent through {@link UnifiedNlpService}
+ * as a note of its own. Prompts are cached by content, so when a clinician edits one paragraph only that
+ * paragraph goes upstream again; the others are answered from the response cache. Corrected paragraphs are
+ * joined back with the original separators, and entity offsets are moved from the paragraph onto the full note.
+ */
+@Service
+public class IncrementalNoteAnalysisService {
+
+    private static final Pattern PARAGRAPH_BREAK = Pattern.compile("\\R[ \\t]*\\R\\s*");
+
+    private final UnifiedNlpService nlpService;
+    private final NlpCloudProperties properties;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public IncrementalNoteAnalysisService(UnifiedNlpService nlpService, NlpCloudProperties properties) {
+        this.nlpService = nlpService;
+        this.properties = properties;
+    }
+
+    public GrammarResponse checkGrammar(ClinicalNoteRequest request) {
+        String note = request.getNote();
+        List<Paragraph> paragraphs = paragraphs(note);
+        List<String> corrected = forEachParagraph(paragraphs,
+                paragraph -> nlpService.checkGrammar(paragraph.asRequest(request)).getCorrectedText());
+
+        StringBuilder text = new StringBuilder(note.length());
+        int position = 0;
+        for (int i = 0; i < paragraphs.size(); i++) {
+            Paragraph paragraph = paragraphs.get(i);
+            String replacement = corrected.get(i);
+            text.append(note, position, paragraph.start())
+                    .append(replacement == null || replacement.isBlank() ? paragraph.text() : replacement.strip());
+            position = paragraph.end();
+        }
+        text.append(note, position, note.length());
+        return new GrammarResponse(text.toString(), Collections.emptyList());
+    }
+
+    public EntityExtractionResponse extractEntities(ClinicalNoteRequest request) {
+        List<Paragraph> paragraphs = paragraphs(request.getNote());
+        List<List<Entity>> found = forEachParagraph(paragraphs,
+                paragraph -> nlpService.extractEntities(paragraph.asRequest(request)).getEntities());
+
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < paragraphs.size(); i++) {
+            if (found.get(i) != null) {
+                for (Entity entity : found.get(i)) {
+                    entities.add(rebase(entity, paragraphs.get(i)));
+                }
+            }
+        }
+        return new EntityExtractionResponse(entities);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <R> List<R> forEachParagraph(List<Paragraph> paragraphs, Function<Paragraph, R> work) {
+        NlpCloudProperties.Incremental settings = properties.getIncremental();
+        long deadline = System.nanoTime() + settings.getDeadline().toNanos();
+        return BoundedFanOut.map(executor, paragraphs, work, settings.getMaxConcurrency(), deadline);
+    }
+
+    /** Non-blank paragraphs of the note, with their offsets in it. */
+    static List<Paragraph> paragraphs(String note) {
+        return RequestTimeline.current().time("chunking", () -> {
+            List<Paragraph> paragraphs = new ArrayList<>();
+            Matcher breaks = PARAGRAPH_BREAK.matcher(note);
+            int start = 0;
+            while (breaks.find()) {
+                addParagraph(note, start, breaks.start(), paragraphs);
+                start = breaks.end();
+            }
+            addParagraph(note, start, note.length(), paragraphs);
+            return paragraphs;
+        });
+    }
+
+    private static void addParagraph(String note, int start, int end, List<Paragraph> into) {
+        while (start < end && Character.isWhitespace(note.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(note.charAt(end - 1))) {
+            end--;
+        }
+        if (start < end) {
+            into.add(new Paragraph(start, note.substring(start, end)));
+        }
+    }
+
+    /**
+     * Moves an entity found in a paragraph onto the full note. Models do not always count offsets exactly, so
+     * when the reported span does not hold the entity text, the span is taken from where that text occurs in the
+     * paragraph.
+     */
+    static Entity rebase(Entity entity, Paragraph paragraph) {
+        int start = entity.getStart();
+        int end = entity.getEnd();
+        String text = entity.getText();
+        if (text != null && !text.isEmpty() && !paragraph.text().startsWith(text, start)) {
+            int located = paragraph.text().indexOf(text);
+            if (located >= 0) {
+                start = located;
+                end = located + text.length();
+            }
+        }
+        return new Entity(entity.getEntity(), text, paragraph.start() + start, paragraph.start() + end,
+                entity.getConfidence());
+    }
+
+    record Paragraph(int start, String text) {
+
+        int end() {
+            return start + text.length();
+        }
+
+        ClinicalNoteRequest asRequest(ClinicalNoteRequest note) {
+            return new ClinicalNoteRequest(text, note.getPatientContext());
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.demo.service;
 
+import com.example.demo.client.UpstreamResponseReader;
 import com.example.demo.config.NlpCloudClientConfig;
 import com.example.demo.config.NlpCloudProperties;
 import com.example.demo.dto.ClinicalNoteRequest;
 import com.example.demo.dto.KeywordResponse;
+import com.example.demo.resilience.UpstreamCallExecutor;
+import com.example.demo.resilience.InFlightRequestRegistry;
+import com.example.demo.resilience.TaskBulkhead;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.slf4j.Logger;
@@ -15,25 +19,30 @@ import java.util.Map;
 public class KeywordExtractionService extends BaseNlpCloudService {
     private static final Logger log = LoggerFactory.getLogger(NlpCloudClientConfig.class);
 
-    public KeywordExtractionService(RestTemplate rt, NlpCloudProperties props) {
-        super(rt, props);
+    private final LocalTermExtractor localTerms;
+
+    public KeywordExtractionService(RestTemplate rt, NlpCloudProperties props, InFlightRequestRegistry inFlightRequests,
+                  UpstreamCallExecutor upstreamCalls, TaskBulkhead bulkhead,
+                  UpstreamResponseReader responseReader, LocalTermExtractor localTerms) {
+        super(rt, props, inFlightRequests, upstreamCalls, bulkhead, responseReader);
+        this.localTerms = localTerms;
     }
 
     public KeywordResponse extractKeywords(ClinicalNoteRequest request) {
+        return localTerms.keywords(request, () -> extractUpstream(request));
+    }
 
-
+    private KeywordResponse extractUpstream(ClinicalNoteRequest request) {
         String path = "/gpu/" + properties.getKeywordModel()
                 + properties.getKeywordEndpoint();
 
         log.debug("Keyword model: {}", properties.getKeywordModel());
         log.debug("Keyword endpoint: {}", properties.getKeywordEndpoint());
         log.debug("Full keyword path: {}", path);
-        return executeWithRetry(() -> {
+        return execute(NlpTask.KEYWORDS, path, request.getNote(), () -> {
             var payload = Map.of("text", request.getNote());
 
-            String response = restTemplate.postForObject(
-                    path, buildRequest(payload), String.class
-            );
+            String response = post(path, payload, BaseNlpCloudService::bodyText);
 
             return new KeywordResponse(List.of(response.split(",")));
         });
@@ -0,0 +1,192 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.dto.Entity;
+import com.example.demo.dto.EntityExtractionResponse;
+import com.example.demo.dto.SummaryResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * CPU-only backend that runs in the JVM ({@code nlpcloud.backend.name=local}). Summaries are extractive, made of the
+ * sentences that carry the most {@link LocalTermExtractor} dictionary terms, with the problems found as key
+ * findings.
+ * <p>
+ * It does not serve entities: the dictionary matches would be the same ones {@code nlpcloud.local-extraction.entities}
+ * already controls, and answering them here as well would keep NLP Cloud from ever enriching them.
+ * <p>
+ * Inference runs in one of a fixed pool of sessions, one per core by default, and each session owns the state
+ * that is not thread-safe. A note that waits longer than {@code acquire-timeout} for a session is declined, as
+ * are notes longer than {@code max-note-chars} and notes without a single dictionary term, so overflow and
+ * unusual notes go to NLP Cloud.
+ */
+@Component
+public class LocalModelBackend implements NlpBackend {
+
+    public static final String NAME = "local";
+
+    private static final Logger log = LoggerFactory.getLogger(LocalModelBackend.class);
+
+    private static final String WARM_UP_NOTE = "Patient with type 2 diabetes mellitus and hypertension presents with "
+            + "chest pain and dyspnea on exertion. Troponin I and NT-proBNP were elevated. Started aspirin, "
+            + "atorvastatin and metoprolol. Echocardiogram showed reduced left ventricle function. Follow up in "
+            + "two weeks.";
+
+    /** Added to the first sentence, which usually states the presentation. */
+    private static final double LEAD_BONUS = 0.5;
+
+    private final LocalTermExtractor terms;
+    private final NlpCloudProperties.LocalModel settings;
+    private final BlockingQueue<Session> sessions;
+
+    public LocalModelBackend(NlpCloudProperties properties, LocalTermExtractor terms) {
+        this.terms = terms;
+        this.settings = properties.getLocalModel();
+        int count = settings.getSessions() > 0 ? settings.getSessions() : Runtime.getRuntime().availableProcessors();
+        this.sessions = new ArrayBlockingQueue<>(count);
+        for (int i = 0; i < count; i++) {
+            sessions.add(new Session());
+        }
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(NlpTask task) {
+        return task == NlpTask.SUMMARY;
+    }
+
+    /** Runs every session over a sample note so the first real requests do not pay for class loading and JIT. */
+    @Override
+    public void warmUp() {
+        long started = System.nanoTime();
+        List<Session> all = new ArrayList<>();
+        sessions.drainTo(all);
+        try {
+            for (Session session : all) {
+                for (int i = 0; i < settings.getWarmUpIterations(); i++) {
+                    session.summarize(WARM_UP_NOTE);
+                }
+            }
+        } finally {
+            sessions.addAll(all);
+        }
+        log.info("Warmed up {} local model sessions in {} ms", all.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    @Override
+    public Optional<SummaryResponse> summarize(ClinicalNoteRequest request) {
+        String note = request.getNote();
+        if (note.length() > settings.getMaxNoteChars()) {
+            return Optional.empty();
+        }
+        return withSession(session -> session.summarize(note)).flatMap(Function.identity());
+    }
+
+    /** Not supported; entities are left to the local extraction policy and NLP Cloud. */
+    @Override
+    public Optional<EntityExtractionResponse> extractEntities(ClinicalNoteRequest request) {
+        return Optional.empty();
+    }
+
+    /** Empty when no session became free within {@code acquire-timeout}. */
+    private <T> Optional<T> withSession(Function<Session, T> work) {
+        Session session;
+        try {
+            session = sessions.poll(settings.getAcquireTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+        if (session == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(work.apply(session));
+        } finally {
+            sessions.add(session);
+        }
+    }
+
+    private static double weight(String type) {
+        return switch (type) {
+            case "PROBLEM" -> 3;
+            case "DRUG" -> 2;
+            case "SYMPTOM", "TEST" -> 1.5;
+            default -> 1;
+        };
+    }
+
+    private final class Session {
+
+        private final BreakIterator sentences = BreakIterator.getSentenceInstance(Locale.US);
+
+        Optional<SummaryResponse> summarize(String note) {
+            List<Entity> found = terms.localEntities(note);
+            if (found.isEmpty()) {
+                return Optional.empty();
+            }
+
+            List<int[]> bounds = new ArrayList<>();
+            sentences.setText(note);
+            int start = sentences.first();
+            for (int end = sentences.next(); end != BreakIterator.DONE; start = end, end = sentences.next()) {
+                if (!note.substring(start, end).isBlank()) {
+                    bounds.add(new int[]{start, end});
+                }
+            }
+            double[] scores = new double[bounds.size()];
+            scores[0] += LEAD_BONUS;
+            int sentence = 0;
+            for (Entity entity : found) {
+                while (sentence < bounds.size() - 1 && bounds.get(sentence)[1] <= entity.getStart()) {
+                    sentence++;
+                }
+                scores[sentence] += weight(entity.getEntity());
+            }
+
+            int[] chosen = IntStream.range(0, scores.length).boxed()
+                    .sorted(Comparator.<Integer>comparingDouble(i -> scores[i]).reversed())
+                    .limit(settings.getSummarySentences())
+                    .mapToInt(Integer::intValue)
+                    .sorted()
+                    .toArray();
+            StringBuilder summary = new StringBuilder();
+            for (int i : chosen) {
+                if (!summary.isEmpty()) {
+                    summary.append(' ');
+                }
+                summary.append(note, bounds.get(i)[0], bounds.get(i)[1]);
+            }
+
+            Set<String> seen = new HashSet<>();
+            List<String> findings = new ArrayList<>();
+            for (Entity entity : found) {
+                if ("PROBLEM".equals(entity.getEntity()) && seen.add(entity.getText().toLowerCase(Locale.ROOT))) {
+                    findings.add(entity.getText());
+                }
+            }
+            return Optional.of(new SummaryResponse(summary.toString().replaceAll("\\s+", " ").strip(), findings));
+        }
+    }
+}
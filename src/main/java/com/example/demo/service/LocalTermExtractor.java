@@ -0,0 +1,190 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.config.NlpCloudProperties.LocalExtraction.Mode;
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.dto.Entity;
+import com.example.demo.dto.EntityExtractionResponse;
+import com.example.demo.dto.KeywordResponse;
+import com.example.demo.exception.UpstreamServiceException;
+import com.example.demo.metrics.RequestTimeline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * In-process keyword and entity extraction from a {@link MedicalTermDictionary}, and the policy that decides
+ * per task whether a note is answered locally, by NLP Cloud, or locally with NLP Cloud filling in
+ * ({@code nlpcloud.local-extraction.*}).
+ * <p>
+ * Local entities carry exact offsets and a confidence of 1.0; local keywords are the matched terms as listed in
+ * the dictionary, in order of first occurrence. Outcomes are counted in {@code nlp.local.extractions} by task and
+ * source ({@code local}, {@code enriched}, {@code fallback}).
+ */
+@Component
+public class LocalTermExtractor {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalTermExtractor.class);
+
+    private static final String KEYWORDS = "keywords";
+    private static final String ENTITIES = "entities";
+
+    private final NlpCloudProperties.LocalExtraction settings;
+    private final MedicalTermDictionary dictionary;
+    private final MeterRegistry registry;
+
+    /**
+     * Without Spring: the dictionary location is resolved with a {@link DefaultResourceLoader} and outcomes are
+     * counted in a registry with no exporters.
+     */
+    public LocalTermExtractor(NlpCloudProperties properties) {
+        this(properties, new DefaultResourceLoader(), new CompositeMeterRegistry());
+    }
+
+    /**
+     * @throws IllegalStateException if the dictionary cannot be read or has a malformed line
+     */
+    @Autowired
+    public LocalTermExtractor(NlpCloudProperties properties, ResourceLoader resources, MeterRegistry registry) {
+        this.settings = properties.getLocalExtraction();
+        this.dictionary = load(resources.getResource(settings.getDictionary()));
+        this.registry = registry;
+        log.info("Loaded {} medical terms from {} (keywords: {}, entities: {})", dictionary.size(),
+                settings.getDictionary(), settings.getKeywords(), settings.getEntities());
+    }
+
+    /** Keywords for the note under the configured policy; {@code upstream} is only called when it requires. */
+    public KeywordResponse keywords(ClinicalNoteRequest request, Supplier<KeywordResponse> upstream) {
+        Mode mode = settings.getKeywords();
+        if (mode == Mode.UPSTREAM) {
+            return upstream.get();
+        }
+        List<String> local = localKeywords(request.getNote());
+        return new KeywordResponse(route(KEYWORDS, mode, local,
+                () -> upstream.get().getKeywords(), LocalTermExtractor::mergeKeywords));
+    }
+
+    /** Entities for the note under the configured policy; {@code upstream} is only called when it requires. */
+    public EntityExtractionResponse entities(ClinicalNoteRequest request, Supplier<EntityExtractionResponse> upstream) {
+        Mode mode = settings.getEntities();
+        if (mode == Mode.UPSTREAM) {
+            return upstream.get();
+        }
+        List<Entity> local = localEntities(request.getNote());
+        return new EntityExtractionResponse(route(ENTITIES, mode, local,
+                () -> upstream.get().getEntities(), LocalTermExtractor::mergeEntities));
+    }
+
+    public List<String> localKeywords(String note) {
+        return RequestTimeline.current().time("local-extraction", () -> {
+            Set<String> keywords = new LinkedHashSet<>();
+            for (MedicalTermDictionary.Match match : dictionary.find(note)) {
+                keywords.add(match.term());
+            }
+            return new ArrayList<>(keywords);
+        });
+    }
+
+    public List<Entity> localEntities(String note) {
+        return RequestTimeline.current().time("local-extraction", () -> {
+            List<MedicalTermDictionary.Match> matches = dictionary.find(note);
+            List<Entity> entities = new ArrayList<>(matches.size());
+            for (MedicalTermDictionary.Match match : matches) {
+                entities.add(new Entity(match.type(), note.substring(match.start(), match.end()),
+                        match.start(), match.end(), 1.0));
+            }
+            return entities;
+        });
+    }
+
+    private <T> List<T> route(String task, Mode mode, List<T> local, Supplier<List<T>> upstream,
+                              BinaryOperator<List<T>> merge) {
+        if (mode == Mode.LOCAL || local.size() >= settings.getSufficientMatches()) {
+            count(task, "local");
+            return local;
+        }
+        List<T> remote;
+        try {
+            remote = upstream.get();
+        } catch (UpstreamServiceException ex) {
+            if (local.isEmpty()) {
+                throw ex;
+            }
+            log.debug("NLP Cloud {} call failed, answering with {} local matches", task, local.size(), ex);
+            count(task, "fallback");
+            return local;
+        }
+        count(task, "enriched");
+        return remote == null || remote.isEmpty() ? local : merge.apply(local, remote);
+    }
+
+    private void count(String task, String source) {
+        registry.counter("nlp.local.extractions", "task", task, "source", source).increment();
+    }
+
+    /** Local keywords followed by the upstream ones not already among them, ignoring case. */
+    static List<String> mergeKeywords(List<String> local, List<String> remote) {
+        Set<String> seen = new HashSet<>();
+        List<String> merged = new ArrayList<>(local.size() + remote.size());
+        for (List<String> keywords : List.of(local, remote)) {
+            for (String keyword : keywords) {
+                String trimmed = keyword == null ? "" : keyword.strip();
+                if (!trimmed.isEmpty() && seen.add(trimmed.toLowerCase(Locale.ROOT))) {
+                    merged.add(trimmed);
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Local entities plus the upstream entities whose span does not overlap any of them, ordered by offset. Local
+     * spans are exact, so they win over model offsets for the same text.
+     */
+    static List<Entity> mergeEntities(List<Entity> local, List<Entity> remote) {
+        List<Entity> merged = new ArrayList<>(local);
+        for (Entity entity : remote) {
+            boolean overlaps = false;
+            for (Entity kept : local) {
+                if (entity.getStart() < kept.getEnd() && kept.getStart() < entity.getEnd()) {
+                    overlaps = true;
+                    break;
+                }
+            }
+            if (!overlaps) {
+                merged.add(entity);
+            }
+        }
+        merged.sort(Comparator.comparingInt(Entity::getStart));
+        return merged;
+    }
+
+    private static MedicalTermDictionary load(Resource resource) {
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            return MedicalTermDictionary.read(reader);
+        } catch (IOException | IllegalArgumentException ex) {
+            throw new IllegalStateException("Cannot load medical term dictionary "
+                    + resource.getDescription() + ": " + ex.getMessage(), ex);
+        }
+    }
+}
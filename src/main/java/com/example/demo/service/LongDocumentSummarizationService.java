@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.dto.LongDocumentRequest;
+import com.example.demo.dto.LongDocumentSummaryResponse;
+import com.example.demo.exception.InvalidRequestException;
+import com.example.demo.metrics.RequestTimeline;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Summarizes documents longer than the model context window with a map-reduce over chunks.
+ * <p>
+ * The document is split by {@link DocumentChunker}, each chunk is summarized through
+ * {@link UnifiedNlpService#summarize} on virtual threads with a bounded number of chunks in flight, and the
+ * section summaries are merged with {@link UnifiedNlpService#combineSummaries}. When the section summaries
+ * together do not fit in one prompt they are combined in groups first, level by level. Chunk prompts go through
+ * the response cache, so after an edit only the chunks around it are summarized again.
+ * All calls share one deadline; if any chunk fails the whole request fails.
+ */
+@Service
+public class LongDocumentSummarizationService {
+
+    private final UnifiedNlpService nlpService;
+    private final NlpCloudProperties properties;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public LongDocumentSummarizationService(UnifiedNlpService nlpService, NlpCloudProperties properties) {
+        this.nlpService = nlpService;
+        this.properties = properties;
+    }
+
+    public LongDocumentSummaryResponse summarize(LongDocumentRequest request) {
+        NlpCloudProperties.LongDocument settings = properties.getLongDocument();
+        String document = request.getDocument();
+        if (document.length() > settings.getMaxDocumentChars()) {
+            throw new InvalidRequestException("Document must be " + settings.getMaxDocumentChars()
+                    + " characters or fewer");
+        }
+        String context = request.getPatientContext();
+        long deadline = System.nanoTime() + settings.getTimeout().toNanos();
+
+        List<String> chunks = RequestTimeline.current().time("chunking", () ->
+                new DocumentChunker(settings.getMinChunkChars(), settings.getMaxChunkChars(), settings.getOverlapChars())
+                        .split(document));
+        List<String> sections = mapInParallel(chunks,
+                chunk -> nlpService.summarize(new ClinicalNoteRequest(chunk, context)).getSummary(), deadline);
+        if (sections.size() == 1) {
+            return new LongDocumentSummaryResponse(sections.get(0), sections);
+        }
+        return new LongDocumentSummaryResponse(reduce(sections, context, deadline), sections);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private String reduce(List<String> summaries, String context, long deadline) {
+        List<String> level = summaries;
+        List<List<String>> groups = group(level);
+        // Stop once everything fits in one prompt, or when no group holds two summaries and grouping cannot shrink
+        // the level any further.
+        while (groups.size() > 1 && groups.size() < level.size()) {
+            level = mapInParallel(groups, batch -> batch.size() == 1
+                    ? batch.get(0)
+                    : nlpService.combineSummaries(batch, context).getSummary(), deadline);
+            groups = group(level);
+        }
+        return mapInParallel(List.of(level), batch -> nlpService.combineSummaries(batch, context).getSummary(), deadline)
+                .get(0);
+    }
+
+    /** Consecutive summaries packed into groups that each fit within one chunk. */
+    private List<List<String>> group(List<String> summaries) {
+        int maxChars = properties.getLongDocument().getMaxChunkChars();
+        List<List<String>> groups = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int length = 0;
+        for (String summary : summaries) {
+            if (!current.isEmpty() && length + summary.length() > maxChars) {
+                groups.add(current);
+                current = new ArrayList<>();
+                length = 0;
+            }
+            current.add(summary);
+            length += summary.length();
+        }
+        if (!current.isEmpty()) {
+            groups.add(current);
+        }
+        return groups;
+    }
+
+    private <T> List<String> mapInParallel(List<T> inputs, Function<T, String> work, long deadline) {
+        return BoundedFanOut.map(executor, inputs, work, properties.getLongDocument().getMaxConcurrency(), deadline);
+    }
+}
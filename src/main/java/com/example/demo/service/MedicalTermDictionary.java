@@ -0,0 +1,209 @@
+package com.example.demo.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Medical terms compiled into an Aho–Corasick automaton, so all of them are found in one pass over a note.
+ * <p>
+ * Matching ignores case and only accepts whole words: a term must not be preceded or followed by a letter or
+ * digit. Where matches overlap, the one starting first wins, then the longest, so "heart failure with reduced
+ * ejection fraction" is reported once rather than also as "heart failure". Offsets are exact char offsets into
+ * the note.
+ */
+public final class MedicalTermDictionary {
+
+    private static final Comparator<Match> LEFTMOST_LONGEST =
+            Comparator.comparingInt(Match::start).thenComparing(Comparator.comparingInt(Match::end).reversed());
+
+    private final String[] terms;
+    private final String[] types;
+
+    /** Outgoing edges of each state, sorted by char for binary search. */
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] failure;
+    /** Term ending in each state, or -1. */
+    private final int[] termAt;
+    /** Nearest state on the failure chain that ends a term, or -1. */
+    private final int[] nextOutput;
+
+    private MedicalTermDictionary(List<String> terms, List<String> types) {
+        this.terms = terms.toArray(String[]::new);
+        this.types = types.toArray(String[]::new);
+
+        List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        edges.add(new TreeMap<>());
+        ends.add(-1);
+        for (int t = 0; t < this.terms.length; t++) {
+            String key = normalize(this.terms[t]);
+            int state = 0;
+            for (int i = 0; i < key.length(); i++) {
+                Integer next = edges.get(state).get(key.charAt(i));
+                if (next == null) {
+                    next = edges.size();
+                    edges.get(state).put(key.charAt(i), next);
+                    edges.add(new TreeMap<>());
+                    ends.add(-1);
+                }
+                state = next;
+            }
+            if (ends.get(state) < 0) {
+                ends.set(state, t);
+            }
+        }
+
+        int states = edges.size();
+        edgeChars = new char[states][];
+        edgeTargets = new int[states][];
+        termAt = new int[states];
+        for (int s = 0; s < states; s++) {
+            TreeMap<Character, Integer> out = edges.get(s);
+            edgeChars[s] = new char[out.size()];
+            edgeTargets[s] = new int[out.size()];
+            int i = 0;
+            for (var edge : out.entrySet()) {
+                edgeChars[s][i] = edge.getKey();
+                edgeTargets[s][i++] = edge.getValue();
+            }
+            termAt[s] = ends.get(s);
+        }
+
+        failure = new int[states];
+        nextOutput = new int[states];
+        nextOutput[0] = -1;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[0]) {
+            nextOutput[child] = -1;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < edgeChars[state].length; i++) {
+                char c = edgeChars[state][i];
+                int child = edgeTargets[state][i];
+                int fallback = failure[state];
+                int target;
+                while ((target = step(fallback, c)) < 0 && fallback != 0) {
+                    fallback = failure[fallback];
+                }
+                failure[child] = Math.max(target, 0);
+                nextOutput[child] = termAt[failure[child]] >= 0 ? failure[child] : nextOutput[failure[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Reads one term per line as {@code <type><TAB><term>}; blank lines and lines starting with {@code #} are
+     * skipped. When a term is listed twice, the first type wins.
+     *
+     * @throws IllegalArgumentException if a line has no tab or an empty type or term
+     */
+    public static MedicalTermDictionary read(Reader source) throws IOException {
+        List<String> terms = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(source);
+        String line;
+        int number = 0;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            int tab = line.indexOf('\t');
+            String type = tab < 0 ? "" : line.substring(0, tab).strip();
+            String term = tab < 0 ? "" : line.substring(tab + 1).strip().replaceAll("\\s+", " ");
+            if (type.isEmpty() || term.isEmpty()) {
+                throw new IllegalArgumentException("Line " + number + " is not '<type><TAB><term>': " + line);
+            }
+            types.add(type);
+            terms.add(term);
+        }
+        return new MedicalTermDictionary(terms, types);
+    }
+
+    public int size() {
+        return terms.length;
+    }
+
+    /** Non-overlapping whole-word matches in the order they occur in the text. */
+    public List<Match> find(String text) {
+        List<Match> found = new ArrayList<>();
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            int next;
+            while ((next = step(state, c)) < 0 && state != 0) {
+                state = failure[state];
+            }
+            state = Math.max(next, 0);
+            for (int s = termAt[state] >= 0 ? state : nextOutput[state]; s >= 0; s = nextOutput[s]) {
+                int term = termAt[s];
+                int end = i + 1;
+                int start = end - terms[term].length();
+                if (isWordStart(text, start) && isWordEnd(text, end)) {
+                    found.add(new Match(start, end, terms[term], types[term]));
+                }
+            }
+        }
+        if (found.size() < 2) {
+            return found;
+        }
+
+        found.sort(LEFTMOST_LONGEST);
+        List<Match> selected = new ArrayList<>(found.size());
+        int covered = 0;
+        for (Match match : found) {
+            if (match.start() >= covered) {
+                selected.add(match);
+                covered = match.end();
+            }
+        }
+        return selected;
+    }
+
+    private int step(int state, char c) {
+        int i = Arrays.binarySearch(edgeChars[state], c);
+        return i < 0 ? -1 : edgeTargets[state][i];
+    }
+
+    private static boolean isWordStart(String text, int start) {
+        return start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1));
+    }
+
+    private static boolean isWordEnd(String text, int end) {
+        return end == text.length() || !Character.isLetterOrDigit(text.charAt(end));
+    }
+
+    // Case is folded char by char, so a match in the folded text has the same offsets in the original.
+    private static char fold(char c) {
+        return Character.toLowerCase(c);
+    }
+
+    private static String normalize(String term) {
+        char[] folded = term.toCharArray();
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = fold(folded[i]);
+        }
+        return new String(folded);
+    }
+
+    /**
+     * A dictionary term found in the text.
+     *
+     * @param term the term as listed in the dictionary
+     * @param type its entity type, for example {@code DRUG} or {@code PROBLEM}
+     */
+    public record Match(int start, int end, String term, String type) {
+    }
+}
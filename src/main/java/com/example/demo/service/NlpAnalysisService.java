@@ -0,0 +1,128 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.AnalysisResponse;
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.dto.EntityExtractionResponse;
+import com.example.demo.dto.ErrorResponse;
+import com.example.demo.dto.GrammarResponse;
+import com.example.demo.dto.KeywordResponse;
+import com.example.demo.dto.SummaryResponse;
+import com.example.demo.exception.UpstreamServiceException;
+import com.example.demo.metrics.RequestTimeline;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs several {@link UnifiedNlpService} tasks for the same note concurrently on virtual threads.
+ * All tasks share one deadline; each task reports either its result or its error.
+ */
+@Service
+public class NlpAnalysisService {
+
+    private static final Logger log = LoggerFactory.getLogger(NlpAnalysisService.class);
+    private static final String SAFE_UPSTREAM_MESSAGE = "Unable to process NLP request at this time. Please try again later.";
+    private static final String TIMEOUT_MESSAGE = "Timed out waiting for NLP result";
+
+    private final UnifiedNlpService nlpService;
+    private final NlpCloudProperties properties;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public NlpAnalysisService(UnifiedNlpService nlpService, NlpCloudProperties properties) {
+        this.nlpService = nlpService;
+        this.properties = properties;
+    }
+
+    public AnalysisResponse analyzeAll(ClinicalNoteRequest request) {
+        return analyze(request, EnumSet.allOf(NlpTask.class));
+    }
+
+    /**
+     * Runs the requested tasks in parallel and waits at most the configured analysis deadline.
+     *
+     * @throws UpstreamServiceException if every requested task failed
+     */
+    public AnalysisResponse analyze(ClinicalNoteRequest request, Set<NlpTask> tasks) {
+        Map<NlpTask, Future<Object>> futures = new EnumMap<>(NlpTask.class);
+        for (NlpTask task : tasks) {
+            Supplier<Object> work = RequestTimeline.wrap(() -> run(task, request));
+            futures.put(task, executor.submit(work::get));
+        }
+
+        AnalysisResponse response = new AnalysisResponse();
+        long deadline = System.nanoTime() + properties.getAnalysis().getDeadline().toNanos();
+        for (Map.Entry<NlpTask, Future<Object>> entry : futures.entrySet()) {
+            NlpTask task = entry.getKey();
+            Future<Object> future = entry.getValue();
+            try {
+                Object result = future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                apply(response, task, result);
+            } catch (TimeoutException ex) {
+                future.cancel(true);
+                log.warn("Analysis task {} missed the deadline", task);
+                response.getErrors().put(key(task), new ErrorResponse(TIMEOUT_MESSAGE));
+            } catch (ExecutionException ex) {
+                log.warn("Analysis task {} failed: {}", task, ex.getCause().getClass().getSimpleName());
+                response.getErrors().put(key(task), new ErrorResponse(safeMessage(ex.getCause())));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(f -> f.cancel(true));
+                throw new UpstreamServiceException(SAFE_UPSTREAM_MESSAGE, ex);
+            }
+        }
+
+        if (!tasks.isEmpty() && response.getErrors().size() == tasks.size()) {
+            throw new UpstreamServiceException(SAFE_UPSTREAM_MESSAGE);
+        }
+        return response;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Object run(NlpTask task, ClinicalNoteRequest request) {
+        return switch (task) {
+            case GRAMMAR -> nlpService.checkGrammar(request);
+            case SUMMARY -> nlpService.summarize(request);
+            case KEYWORDS -> nlpService.keywords(request);
+            case ENTITIES -> nlpService.extractEntities(request);
+        };
+    }
+
+    private void apply(AnalysisResponse response, NlpTask task, Object result) {
+        switch (task) {
+            case GRAMMAR -> response.setGrammar((GrammarResponse) result);
+            case SUMMARY -> response.setSummary((SummaryResponse) result);
+            case KEYWORDS -> response.setKeywords((KeywordResponse) result);
+            case ENTITIES -> response.setEntities((EntityExtractionResponse) result);
+        }
+    }
+
+    private String safeMessage(Throwable cause) {
+        if (cause instanceof UpstreamServiceException && cause.getMessage() != null) {
+            return cause.getMessage();
+        }
+        return SAFE_UPSTREAM_MESSAGE;
+    }
+
+    private static String key(NlpTask task) {
+        return task.name().toLowerCase(Locale.ROOT);
+    }
+}
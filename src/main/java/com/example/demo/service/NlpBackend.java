@@ -0,0 +1,30 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.dto.EntityExtractionResponse;
+import com.example.demo.dto.SummaryResponse;
+
+import java.util.Optional;
+
+/**
+ * A model runtime that serves some tasks in place of NLP Cloud, chosen with {@code nlpcloud.backend.name}.
+ * <p>
+ * Implementations are Spring beans. A call may decline a note by returning an empty result, for example when the
+ * note is beyond what the model handles well or no capacity is free; {@link UnifiedNlpService} then sends the
+ * note to NLP Cloud as usual.
+ */
+public interface NlpBackend {
+
+    /** Name used in {@code nlpcloud.backend.name}. */
+    String name();
+
+    boolean supports(NlpTask task);
+
+    /** Called once at startup when this backend is selected, before it serves traffic. */
+    default void warmUp() {
+    }
+
+    Optional<SummaryResponse> summarize(ClinicalNoteRequest request);
+
+    Optional<EntityExtractionResponse> extractEntities(ClinicalNoteRequest request);
+}
@@ -0,0 +1,121 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.dto.EntityExtractionResponse;
+import com.example.demo.dto.SummaryResponse;
+import com.example.demo.metrics.RequestTimeline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Selects the {@link NlpBackend} named by {@code nlpcloud.backend.name} and routes the configured tasks to it.
+ * <p>
+ * With the default name {@value #CLOUD} every call returns empty and all traffic stays on NLP Cloud. Otherwise a
+ * note the backend declines goes to NLP Cloud, and so does one it fails on when {@code fallback-to-cloud} is set.
+ * Outcomes are counted in {@code nlp.backend.requests} by backend, task and outcome ({@code served},
+ * {@code declined}, {@code failed}).
+ */
+@Component
+public class NlpBackends {
+
+    public static final String CLOUD = "cloud";
+
+    private static final Logger log = LoggerFactory.getLogger(NlpBackends.class);
+
+    private final NlpBackend backend;
+    private final Set<NlpTask> tasks;
+    private final boolean fallbackToCloud;
+    private final MeterRegistry registry;
+
+    /**
+     * Without a registry, for use outside Spring: outcomes go to a registry with no exporters.
+     */
+    public NlpBackends(NlpCloudProperties properties, List<NlpBackend> available) {
+        this(properties, available, new CompositeMeterRegistry());
+    }
+
+    /**
+     * @throws IllegalStateException if no backend has the configured name, or it does not support a configured task
+     */
+    @Autowired
+    public NlpBackends(NlpCloudProperties properties, List<NlpBackend> available, MeterRegistry registry) {
+        NlpCloudProperties.Backend settings = properties.getBackend();
+        this.fallbackToCloud = settings.isFallbackToCloud();
+        this.registry = registry;
+        if (CLOUD.equals(settings.getName())) {
+            this.backend = null;
+            this.tasks = EnumSet.noneOf(NlpTask.class);
+            return;
+        }
+        this.backend = available.stream()
+                .filter(candidate -> candidate.name().equals(settings.getName()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown 'nlpcloud.backend.name' " + settings.getName()
+                        + ", expected " + CLOUD + " or one of "
+                        + available.stream().map(NlpBackend::name).collect(Collectors.toList())));
+        this.tasks = settings.getTasks().isEmpty() ? EnumSet.noneOf(NlpTask.class) : EnumSet.copyOf(settings.getTasks());
+        for (NlpTask task : tasks) {
+            if (!backend.supports(task)) {
+                throw new IllegalStateException("Backend '" + backend.name() + "' does not support " + task
+                        + " (nlpcloud.backend.tasks)");
+            }
+        }
+        backend.warmUp();
+        log.info("NLP backend '{}' serves {} (fallback to NLP Cloud on failure: {})", backend.name(), tasks,
+                fallbackToCloud);
+    }
+
+    public boolean serves(NlpTask task) {
+        return tasks.contains(task);
+    }
+
+    /** The selected backend, or empty when everything goes to NLP Cloud. */
+    public Optional<NlpBackend> backend() {
+        return Optional.ofNullable(backend);
+    }
+
+    public Optional<SummaryResponse> summarize(ClinicalNoteRequest request) {
+        return serve(NlpTask.SUMMARY, () -> backend.summarize(request));
+    }
+
+    public Optional<EntityExtractionResponse> extractEntities(ClinicalNoteRequest request) {
+        return serve(NlpTask.ENTITIES, () -> backend.extractEntities(request));
+    }
+
+    private <T> Optional<T> serve(NlpTask task, Supplier<Optional<T>> call) {
+        if (!serves(task)) {
+            return Optional.empty();
+        }
+        Optional<T> result;
+        try {
+            result = RequestTimeline.current().time("backend", call);
+        } catch (RuntimeException ex) {
+            count(task, "failed");
+            if (!fallbackToCloud) {
+                throw ex;
+            }
+            log.warn("NLP backend '{}' failed on {}, sending it to NLP Cloud: {}", backend.name(), task,
+                    ex.toString());
+            return Optional.empty();
+        }
+        count(task, result.isPresent() ? "served" : "declined");
+        return result;
+    }
+
+    private void count(NlpTask task, String outcome) {
+        registry.counter("nlp.backend.requests", "backend", backend.name(), "task", task.name(), "outcome", outcome)
+                .increment();
+    }
+}
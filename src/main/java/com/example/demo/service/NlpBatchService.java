@@ -0,0 +1,115 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.BatchAnalysisRequest;
+import com.example.demo.dto.BatchItemResult;
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.exception.InvalidRequestException;
+import com.example.demo.exception.UpstreamServiceException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Processes bulk analysis requests note by note with a bounded number of notes in flight.
+ * Item results are handed to the caller's sink as soon as each note completes, in completion order.
+ */
+@Service
+public class NlpBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(NlpBatchService.class);
+
+    private final NlpAnalysisService analysisService;
+    private final NlpCloudProperties properties;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public NlpBatchService(NlpAnalysisService analysisService, NlpCloudProperties properties) {
+        this.analysisService = analysisService;
+        this.properties = properties;
+    }
+
+    /**
+     * Starts processing the batch in the background.
+     * <p>
+     * The returned future completes once every item has been passed to {@code sink}. Cancelling it stops
+     * dispatching items that have not started yet.
+     */
+    public CompletableFuture<Void> process(BatchAnalysisRequest request, Consumer<BatchItemResult> sink) {
+        List<ClinicalNoteRequest> notes = request.getNotes();
+        int maxItems = properties.getBatch().getMaxItems();
+        if (notes.size() > maxItems) {
+            throw new InvalidRequestException("Batch must contain " + maxItems + " notes or fewer");
+        }
+        Set<NlpTask> tasks = request.getTasks() == null || request.getTasks().isEmpty()
+                ? EnumSet.allOf(NlpTask.class)
+                : EnumSet.copyOf(request.getTasks());
+
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        executor.execute(() -> dispatch(notes, tasks, sink, completion));
+        return completion;
+    }
+
+    public Duration streamTimeout() {
+        return properties.getBatch().getTimeout();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void dispatch(List<ClinicalNoteRequest> notes, Set<NlpTask> tasks,
+                          Consumer<BatchItemResult> sink, CompletableFuture<Void> completion) {
+        Semaphore permits = new Semaphore(Math.max(properties.getBatch().getMaxConcurrency(), 1));
+        List<CompletableFuture<Void>> items = new ArrayList<>(notes.size());
+        try {
+            for (int i = 0; i < notes.size() && !completion.isDone(); i++) {
+                permits.acquire();
+                int index = i;
+                ClinicalNoteRequest note = notes.get(i);
+                items.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        sink.accept(processItem(index, note, tasks));
+                    } finally {
+                        permits.release();
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(items.toArray(CompletableFuture[]::new))
+                    .whenComplete((ignored, ex) -> {
+                        if (ex != null) {
+                            completion.completeExceptionally(ex);
+                        } else {
+                            completion.complete(null);
+                        }
+                    });
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            completion.completeExceptionally(ex);
+        }
+    }
+
+    private BatchItemResult processItem(int index, ClinicalNoteRequest note, Set<NlpTask> tasks) {
+        try {
+            return BatchItemResult.success(index, analysisService.analyze(note, tasks));
+        } catch (UpstreamServiceException ex) {
+            log.warn("Batch item {} failed upstream: {}", index, ex.getMessage());
+            return BatchItemResult.error(index, 502, ex.getMessage());
+        } catch (RuntimeException ex) {
+            log.warn("Batch item {} failed: {}", index, ex.getClass().getSimpleName());
+            return BatchItemResult.error(index, 500, "An unexpected error occurred");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.service;
+
+/**
+ * NLP tasks offered by the API. Used to key caches, metrics and resilience state per task.
+ */
+public enum NlpTask {
+    GRAMMAR,
+    SUMMARY,
+    KEYWORDS,
+    ENTITIES
+}
@@ -0,0 +1,143 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A prompt compiled once from its configured text into literal segments and placeholders.
+ * <p>
+ * Placeholders are {@code {note}} and {@code {context}}; text between {@code {?context}} and {@code {/context}}
+ * appears only when the context is not blank. The context is trimmed like {@link String#trim()}, by index rather
+ * than by copying it, and each prompt is rendered into a builder of exactly its final length.
+ */
+public final class PromptTemplate {
+
+    private static final Pattern TOKEN = Pattern.compile("\\{([?/]?)([A-Za-z_]+)}");
+
+    private static final int LITERAL = 0;
+    private static final int NOTE = 1;
+    private static final int CONTEXT = 2;
+    /** Skip to the operation given in {@link #jumps} when the context is blank. */
+    private static final int IF_CONTEXT = 3;
+
+    private final String version;
+    private final int[] operations;
+    private final String[] literals;
+    private final int[] jumps;
+
+    private PromptTemplate(String version, int[] operations, String[] literals, int[] jumps) {
+        this.version = version;
+        this.operations = operations;
+        this.literals = literals;
+        this.jumps = jumps;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text has no {@code {note}}, an unknown placeholder, or an
+     *                                  unbalanced or nested {@code {?context}} section
+     */
+    public static PromptTemplate compile(String version, String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Prompt " + version + " is empty");
+        }
+        List<Integer> operations = new ArrayList<>();
+        List<String> literals = new ArrayList<>();
+        List<Integer> jumps = new ArrayList<>();
+        int openSection = -1;
+        boolean hasNote = false;
+        int position = 0;
+        Matcher token = TOKEN.matcher(text);
+        while (token.find()) {
+            addLiteral(text.substring(position, token.start()), operations, literals, jumps);
+            position = token.end();
+            String marker = token.group(1);
+            String name = token.group(2);
+            if ((!"note".equals(name) && !"context".equals(name)) || ("note".equals(name) && !marker.isEmpty())) {
+                throw new IllegalArgumentException("Prompt " + version + " has unknown placeholder " + token.group());
+            }
+            if ("?".equals(marker)) {
+                if (openSection >= 0) {
+                    throw new IllegalArgumentException("Prompt " + version + " nests {?context} sections");
+                }
+                openSection = operations.size();
+                add(IF_CONTEXT, null, operations, literals, jumps);
+            } else if ("/".equals(marker)) {
+                if (openSection < 0) {
+                    throw new IllegalArgumentException("Prompt " + version + " closes a section it never opened");
+                }
+                jumps.set(openSection, operations.size());
+                openSection = -1;
+            } else if ("note".equals(name)) {
+                hasNote = true;
+                add(NOTE, null, operations, literals, jumps);
+            } else {
+                add(CONTEXT, null, operations, literals, jumps);
+            }
+        }
+        addLiteral(text.substring(position), operations, literals, jumps);
+        if (openSection >= 0) {
+            throw new IllegalArgumentException("Prompt " + version + " leaves a {?context} section open");
+        }
+        if (!hasNote) {
+            throw new IllegalArgumentException("Prompt " + version + " has no {note} placeholder");
+        }
+        return new PromptTemplate(version,
+                operations.stream().mapToInt(Integer::intValue).toArray(),
+                literals.toArray(String[]::new),
+                jumps.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public String version() {
+        return version;
+    }
+
+    public String render(String note, String context) {
+        int contextStart = 0;
+        int contextEnd = 0;
+        if (context != null) {
+            contextEnd = context.length();
+            while (contextStart < contextEnd && context.charAt(contextStart) <= ' ') {
+                contextStart++;
+            }
+            while (contextEnd > contextStart && context.charAt(contextEnd - 1) <= ' ') {
+                contextEnd--;
+            }
+        }
+        boolean hasContext = contextEnd > contextStart;
+
+        int length = 0;
+        for (int i = 0; i < operations.length; i++) {
+            switch (operations[i]) {
+                case LITERAL -> length += literals[i].length();
+                case NOTE -> length += note.length();
+                case CONTEXT -> length += contextEnd - contextStart;
+                default -> i = hasContext ? i : jumps[i] - 1;
+            }
+        }
+        StringBuilder prompt = new StringBuilder(length);
+        for (int i = 0; i < operations.length; i++) {
+            switch (operations[i]) {
+                case LITERAL -> prompt.append(literals[i]);
+                case NOTE -> prompt.append(note);
+                case CONTEXT -> prompt.append(context, contextStart, contextEnd);
+                default -> i = hasContext ? i : jumps[i] - 1;
+            }
+        }
+        return prompt.toString();
+    }
+
+    private static void addLiteral(String literal, List<Integer> operations, List<String> literals, List<Integer> jumps) {
+        if (!literal.isEmpty()) {
+            add(LITERAL, literal, operations, literals, jumps);
+        }
+    }
+
+    private static void add(int operation, String literal, List<Integer> operations, List<String> literals,
+                            List<Integer> jumps) {
+        operations.add(operation);
+        literals.add(literal);
+        jumps.add(0);
+    }
+}
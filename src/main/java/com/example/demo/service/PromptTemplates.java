@@ -0,0 +1,166 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NlpCloudProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prompt templates for every prompt {@link UnifiedNlpService} sends, compiled and validated at startup.
+ * <p>
+ * Each prompt has a built-in {@code v1} and any number of versions from {@code nlpcloud.prompts.<name>.versions}.
+ * An optional candidate version receives {@code candidate-share} of notes. The choice is made by hashing the
+ * note, so a given note always gets the same version and keeps hitting the same response cache entries.
+ * Renders are counted per prompt and version in {@code nlp.prompt.renders}.
+ */
+@Component
+public class PromptTemplates {
+
+    public static final String GRAMMAR = "grammar";
+    public static final String SUMMARY = "summary";
+    public static final String KEYWORDS = "keywords";
+    public static final String ENTITIES = "entities";
+    /** Reduce step of long-document summarization; {@code {note}} holds the numbered section summaries. */
+    public static final String COMBINE = "combine";
+
+    static final String BUILT_IN_VERSION = "v1";
+
+    private static final Map<String, String> BUILT_IN = Map.of(
+            GRAMMAR, "You are a medical writing assistant. Correct grammar, spelling, and clarity in the following "
+                    + "note. Return only the corrected text without explanations.\n\n"
+                    + "{?context}Clinical context: {context}\n\n{/context}Note: {note}",
+            SUMMARY, "Summarize the following clinical information in 3-4 sentences highlighting key findings and "
+                    + "recommendations.\n\n"
+                    + "{?context}Clinical context: {context}\n\n{/context}Note: {note}",
+            KEYWORDS, "Extract concise medical keywords or keyphrases from the following note. Respond with a "
+                    + "comma-separated list only.\n\n"
+                    + "{?context}Clinical context: {context}\n\n{/context}Note: {note}",
+            ENTITIES, "Extract medical entities from the note and respond as JSON with an 'entities' array where each "
+                    + "object contains entity, text, start, end, and confidence fields.\n\n"
+                    + "{?context}Clinical context: {context}\n\n{/context}Note: {note}",
+            COMBINE, "The following are summaries of consecutive sections of one clinical document. Combine them into "
+                    + "a single summary of 4-6 sentences highlighting key findings, the clinical course, and "
+                    + "recommendations. Do not repeat findings.\n\n"
+                    + "{?context}Clinical context: {context}\n\n{/context}{note}");
+
+    private static final int SHARE_BUCKETS = 10_000;
+
+    private final Map<String, Selection> selections = new HashMap<>();
+
+    /**
+     * Without a registry, for use outside Spring: render counts go to a registry with no exporters.
+     */
+    public PromptTemplates(NlpCloudProperties properties) {
+        this(properties, new CompositeMeterRegistry());
+    }
+
+    /**
+     * @throws IllegalStateException if a configured prompt or version is unknown, a template does not compile,
+     *                               or a candidate share is outside 0..1
+     */
+    @Autowired
+    public PromptTemplates(NlpCloudProperties properties, MeterRegistry registry) {
+        for (String name : properties.getPrompts().keySet()) {
+            if (!BUILT_IN.containsKey(name)) {
+                throw new IllegalStateException("Unknown prompt 'nlpcloud.prompts." + name + "', expected one of "
+                        + BUILT_IN.keySet());
+            }
+        }
+        for (String name : BUILT_IN.keySet()) {
+            NlpCloudProperties.Prompt settings = properties.getPrompts().getOrDefault(name, new NlpCloudProperties.Prompt());
+            selections.put(name, select(name, settings, registry));
+        }
+    }
+
+    public String render(String prompt, String note, String context) {
+        return selections.get(prompt).choose(note).render(note, context);
+    }
+
+    /** The reduce prompt for section summaries given in document order. */
+    public String renderCombine(List<String> sectionSummaries, String context) {
+        int length = 0;
+        for (String summary : sectionSummaries) {
+            length += summary.length() + 16;
+        }
+        StringBuilder sections = new StringBuilder(length);
+        for (int i = 0; i < sectionSummaries.size(); i++) {
+            sections.append("Section ").append(i + 1).append(": ").append(sectionSummaries.get(i).trim()).append('\n');
+        }
+        return render(COMBINE, sections.toString(), context);
+    }
+
+    /** Version a note would be rendered with, for diagnostics and tests. */
+    public String versionFor(String prompt, String note) {
+        return selections.get(prompt).choose(note).template().version();
+    }
+
+    private static Selection select(String name, NlpCloudProperties.Prompt settings, MeterRegistry registry) {
+        Map<String, String> texts = new LinkedHashMap<>();
+        texts.put(BUILT_IN_VERSION, BUILT_IN.get(name));
+        texts.putAll(settings.getVersions());
+
+        Map<String, PromptTemplate> compiled = new LinkedHashMap<>();
+        texts.forEach((version, text) -> {
+            try {
+                compiled.put(version, PromptTemplate.compile(version, text));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalStateException("Invalid template 'nlpcloud.prompts." + name + ".versions." + version
+                        + "': " + ex.getMessage(), ex);
+            }
+        });
+
+        Rendered active = rendered(name, settings.getActive(), compiled, registry);
+        double share = settings.getCandidateShare();
+        if (share < 0 || share > 1) {
+            throw new IllegalStateException("'nlpcloud.prompts." + name + ".candidate-share' must be between 0 and 1");
+        }
+        if (settings.getCandidate() == null || settings.getCandidate().isBlank() || share == 0) {
+            return new Selection(active, null, 0);
+        }
+        Rendered candidate = rendered(name, settings.getCandidate(), compiled, registry);
+        return new Selection(active, candidate, (int) Math.round(share * SHARE_BUCKETS));
+    }
+
+    private static Rendered rendered(String name, String version, Map<String, PromptTemplate> compiled,
+                                     MeterRegistry registry) {
+        PromptTemplate template = compiled.get(version);
+        if (template == null) {
+            throw new IllegalStateException("Prompt '" + name + "' has no version '" + version + "', known versions: "
+                    + compiled.keySet());
+        }
+        Counter renders = Counter.builder("nlp.prompt.renders")
+                .description("Prompts rendered, by prompt and template version")
+                .tag("prompt", name)
+                .tag("version", version)
+                .register(registry);
+        return new Rendered(template, renders);
+    }
+
+    private record Rendered(PromptTemplate template, Counter renders) {
+
+        String render(String note, String context) {
+            renders.increment();
+            return template.render(note, context);
+        }
+    }
+
+    private record Selection(Rendered active, Rendered candidate, int candidateBuckets) {
+
+        Rendered choose(String note) {
+            if (candidate == null) {
+                return active;
+            }
+            // String hashes of similar notes are close together; mix the bits before bucketing.
+            int hash = note.hashCode() * 0x9E3779B9;
+            int bucket = Math.floorMod(hash ^ (hash >>> 16), SHARE_BUCKETS);
+            return bucket < candidateBuckets ? candidate : active;
+        }
+    }
+}
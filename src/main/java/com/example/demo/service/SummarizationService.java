@@ -1,8 +1,12 @@
 package com.example.demo.service;
 
+import com.example.demo.client.UpstreamResponseReader;
 import com.example.demo.config.NlpCloudProperties;
 import com.example.demo.dto.ClinicalNoteRequest;
 import com.example.demo.dto.SummaryResponse;
+import com.example.demo.resilience.UpstreamCallExecutor;
+import com.example.demo.resilience.InFlightRequestRegistry;
+import com.example.demo.resilience.TaskBulkhead;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
@@ -11,23 +15,23 @@ import java.util.Map;
 @Service
 public class SummarizationService extends BaseNlpCloudService {
 
-    public SummarizationService(RestTemplate rt, NlpCloudProperties props) {
-        super(rt, props);
+    public SummarizationService(RestTemplate rt, NlpCloudProperties props, InFlightRequestRegistry inFlightRequests,
+                  UpstreamCallExecutor upstreamCalls, TaskBulkhead bulkhead,
+                  UpstreamResponseReader responseReader) {
+        super(rt, props, inFlightRequests, upstreamCalls, bulkhead, responseReader);
     }
 
     public SummaryResponse summarize(ClinicalNoteRequest request) {
         String path = "/" + properties.getSummarizationModel()
                 + properties.getSummarizationEndpoint();
 
-        return executeWithRetry(() -> {
+        return execute(NlpTask.SUMMARY, path, request.getNote(), () -> {
             var payload = Map.of(
                     "text", request.getNote(),
                     "size", "small"
             );
 
-            var response = restTemplate.postForObject(
-                    path, buildRequest(payload), String.class
-            );
+            var response = post(path, payload, BaseNlpCloudService::bodyText);
 
             return new SummaryResponse(response);
         });
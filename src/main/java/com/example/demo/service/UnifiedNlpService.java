@@ -1,5 +1,7 @@
 package com.example.demo.service;
 
+import com.example.demo.cache.NlpResponseCache;
+import com.example.demo.client.UpstreamResponseReader;
 import com.example.demo.config.NlpCloudProperties;
 import com.example.demo.dto.ClinicalNoteRequest;
 import com.example.demo.dto.EntityExtractionResponse;
@@ -8,25 +10,34 @@ import com.example.demo.dto.KeywordResponse;
 import com.example.demo.dto.SummaryResponse;
 import com.example.demo.exception.UpstreamServiceException;
 import com.example.demo.mapper.NlpCloudMapper;
+import com.example.demo.metrics.RequestTimeline;
+import com.example.demo.resilience.InFlightRequestRegistry;
+import com.example.demo.resilience.TaskBulkhead;
+import com.example.demo.resilience.UpstreamCallExecutor;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.ResourceAccessException;
-import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.TimeoutException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -34,110 +45,200 @@ import java.util.stream.Collectors;
 public class UnifiedNlpService {
 
     private static final Logger log = LoggerFactory.getLogger(UnifiedNlpService.class);
-    private static final String SAFE_UPSTREAM_MESSAGE = "Unable to process NLP request at this time. Please try again later.";
 
     private final RestTemplate nlpCloudRestTemplate;
     private final NlpCloudMapper mapper;
     private final NlpCloudProperties properties;
+    private final NlpResponseCache responseCache;
+    private final InFlightRequestRegistry inFlightRequests;
+    private final UpstreamCallExecutor upstreamCalls;
+    private final TaskBulkhead bulkhead;
+    private final UpstreamResponseReader responseReader;
+    private final Executor asyncExecutor;
+    private final PromptTemplates prompts;
+    private final LocalTermExtractor localTerms;
+    private final NlpBackends backends;
 
     public UnifiedNlpService(
-        @Qualifier("nlpCloudRestTemplate") RestTemplate nlpCloudRestTemplate, NlpCloudMapper mapper, NlpCloudProperties properties) {
+        @Qualifier("nlpCloudRestTemplate") RestTemplate nlpCloudRestTemplate, NlpCloudMapper mapper, NlpCloudProperties properties,
+        NlpResponseCache responseCache, InFlightRequestRegistry inFlightRequests, UpstreamCallExecutor upstreamCalls,
+        TaskBulkhead bulkhead, UpstreamResponseReader responseReader, @Qualifier("nlpAsyncExecutor") Executor asyncExecutor,
+        PromptTemplates prompts, LocalTermExtractor localTerms, NlpBackends backends) {
         this.nlpCloudRestTemplate = nlpCloudRestTemplate;
         this.mapper = mapper;
         this.properties = properties;
+        this.responseCache = responseCache;
+        this.inFlightRequests = inFlightRequests;
+        this.upstreamCalls = upstreamCalls;
+        this.bulkhead = bulkhead;
+        this.responseReader = responseReader;
+        this.asyncExecutor = asyncExecutor;
+        this.prompts = prompts;
+        this.localTerms = localTerms;
+        this.backends = backends;
     }
 
     public GrammarResponse checkGrammar(ClinicalNoteRequest request) {
-        String prompt = grammarPrompt(request.getNote(), request.getPatientContext());
-        String payload = callSummarization(prompt);
-        return new GrammarResponse(mapper.readSummaryText(payload), Collections.emptyList());
+        String prompt = RequestTimeline.current()
+                .time("prompt", () -> prompts.render(PromptTemplates.GRAMMAR, request.getNote(), request.getPatientContext()));
+        byte[] payload = callSummarization(NlpTask.GRAMMAR, prompt);
+        return new GrammarResponse(mapper.readSummaryText(new ByteArrayInputStream(payload)), Collections.emptyList());
     }
 
     public SummaryResponse summarize(ClinicalNoteRequest request) {
-        String prompt = summarizationPrompt(request.getNote(), request.getPatientContext());
-        String payload = callSummarization(prompt);
-        return mapper.toSummaryResponse(payload);
+        return backends.summarize(request).orElseGet(() -> generateSummary(request));
+    }
+
+    private SummaryResponse generateSummary(ClinicalNoteRequest request) {
+        String prompt = RequestTimeline.current()
+                .time("prompt", () -> prompts.render(PromptTemplates.SUMMARY, request.getNote(), request.getPatientContext()));
+        byte[] payload = callSummarization(NlpTask.SUMMARY, prompt);
+        return mapper.toSummaryResponse(new ByteArrayInputStream(payload));
     }
 
     public KeywordResponse keywords(ClinicalNoteRequest request) {
-        String prompt = keywordPrompt(request.getNote(), request.getPatientContext());
-        String payload = callSummarization(prompt);
-        return new KeywordResponse(parseKeywords(mapper.readSummaryText(payload)));
+        return localTerms.keywords(request, () -> generateKeywords(request));
     }
 
     public EntityExtractionResponse extractEntities(ClinicalNoteRequest request) {
-        String prompt = entityPrompt(request.getNote(), request.getPatientContext());
-        String responseBody = callSummarization(prompt);
-        return mapper.toEntityExtractionResponse(responseBody);
+        return localTerms.entities(request, () -> generateEntities(request));
     }
 
-    private String callSummarization(String text) {
-        String path = summarizationPath();
-        Map<String, String> payload = Map.of("text", text);
+    private KeywordResponse generateKeywords(ClinicalNoteRequest request) {
+        String prompt = RequestTimeline.current()
+                .time("prompt", () -> prompts.render(PromptTemplates.KEYWORDS, request.getNote(), request.getPatientContext()));
+        byte[] payload = callSummarization(NlpTask.KEYWORDS, prompt);
+        return new KeywordResponse(parseKeywords(mapper.readSummaryText(new ByteArrayInputStream(payload))));
+    }
 
+    private EntityExtractionResponse generateEntities(ClinicalNoteRequest request) {
+        Optional<EntityExtractionResponse> local = backends.extractEntities(request);
+        if (local.isPresent()) {
+            return local.get();
+        }
+        String prompt = RequestTimeline.current()
+                .time("prompt", () -> prompts.render(PromptTemplates.ENTITIES, request.getNote(), request.getPatientContext()));
+        byte[] payload = callSummarization(NlpTask.ENTITIES, prompt);
+        return mapper.toEntityExtractionResponse(new ByteArrayInputStream(payload));
+    }
 
-        return executeWithRetry(summarizationPath(), () -> {
-            HttpEntity<Map<String, String>> requestEntity = new HttpEntity<>(payload, authorizationHeaders());
+    /**
+     * Reduce step of long-document summarization: merges summaries of consecutive document sections, given in
+     * document order, into one. Cached like any other summarization prompt.
+     */
+    public SummaryResponse combineSummaries(List<String> sectionSummaries, String context) {
+        String prompt = RequestTimeline.current()
+                .time("prompt", () -> prompts.renderCombine(sectionSummaries, context));
+        byte[] payload = callSummarization(NlpTask.SUMMARY, prompt);
+        return mapper.toSummaryResponse(new ByteArrayInputStream(payload));
+    }
 
+    /**
+     * Streaming counterpart of {@link #summarize}: text is passed to {@code listener} as it arrives from NLP Cloud,
+     * and the deltas add up to the summary of the returned response. Notes are routed as in {@link #summarize}, so
+     * one the model backend serves never reaches NLP Cloud. When the result comes from the backend, the cache or a
+     * coalesced call, or the upstream answers with a complete JSON document, the whole text arrives as one delta.
+     */
+    public SummaryResponse streamSummary(ClinicalNoteRequest request, TextListener listener) {
+        TrackingListener tracking = new TrackingListener(listener);
+        SummaryResponse response = backends.summarize(request).orElseGet(() -> {
+            String prompt = RequestTimeline.current()
+                    .time("prompt", () -> prompts.render(PromptTemplates.SUMMARY, request.getNote(), request.getPatientContext()));
+            byte[] payload = streamSummarization(NlpTask.SUMMARY, prompt, tracking);
+            return mapper.toSummaryResponse(new ByteArrayInputStream(payload));
+        });
+        tracking.completeWith(response.getSummary());
+        return response;
+    }
 
-            ResponseEntity<String> response = nlpCloudRestTemplate.postForEntity(summarizationPath(), requestEntity, String.class);
-            log.info("NLP Cloud response status → {}", response.getStatusCode());
-            log.info("NLP Cloud response body → {}", response.getBody());
-            return Objects.requireNonNullElse(response.getBody(), "");
+    /** Streaming counterpart of {@link #checkGrammar}, see {@link #streamSummary}. */
+    public GrammarResponse streamGrammar(ClinicalNoteRequest request, TextListener listener) {
+        String prompt = RequestTimeline.current()
+                .time("prompt", () -> prompts.render(PromptTemplates.GRAMMAR, request.getNote(), request.getPatientContext()));
+        TrackingListener tracking = new TrackingListener(listener);
+        byte[] payload = streamSummarization(NlpTask.GRAMMAR, prompt, tracking);
+        GrammarResponse response = new GrammarResponse(mapper.readSummaryText(new ByteArrayInputStream(payload)),
+                Collections.emptyList());
+        tracking.completeWith(response.getCorrectedText());
+        return response;
+    }
 
+    /**
+     * Async counterparts run on virtual threads from {@code nlpAsyncExecutor}, so callers can compose them
+     * without tying up a thread of their own.
+     */
+    public CompletableFuture<GrammarResponse> checkGrammarAsync(ClinicalNoteRequest request) {
+        return CompletableFuture.supplyAsync(RequestTimeline.wrap(() -> checkGrammar(request)), asyncExecutor);
+    }
 
+    public CompletableFuture<SummaryResponse> summarizeAsync(ClinicalNoteRequest request) {
+        return CompletableFuture.supplyAsync(RequestTimeline.wrap(() -> summarize(request)), asyncExecutor);
+    }
 
-        });
+    public CompletableFuture<KeywordResponse> keywordsAsync(ClinicalNoteRequest request) {
+        return CompletableFuture.supplyAsync(RequestTimeline.wrap(() -> keywords(request)), asyncExecutor);
     }
 
-    private <T> T executeWithRetry(String path, Supplier<T> action) {
-        int attempts = Math.min(Math.max(properties.getMaxRetries() + 1, 1), 3);
-        for (int attempt = 1; attempt <= attempts; attempt++) {
-            try {
-                return action.get();
-            } catch (Exception ex) {
-                boolean retryable = attempt < attempts && isRetryable(ex);
-                log.warn("Attempt {}/{} failed calling {}: {}", attempt, attempts, path, ex.getClass().getSimpleName());
-                if (!retryable) {
-                    throw mapUpstreamError(path, ex);
-                }
-                try {
-                    Thread.sleep(300);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw mapUpstreamError(path, ex);
-                }
-            }
-        }
-        throw new UpstreamServiceException(SAFE_UPSTREAM_MESSAGE, null);
+    public CompletableFuture<EntityExtractionResponse> extractEntitiesAsync(ClinicalNoteRequest request) {
+        return CompletableFuture.supplyAsync(RequestTimeline.wrap(() -> extractEntities(request)), asyncExecutor);
     }
 
-    private boolean isRetryable(Throwable throwable) {
-        if (throwable instanceof TimeoutException || throwable instanceof IOException) {
-            return true;
-        }
-        if (throwable instanceof ResourceAccessException && throwable.getCause() instanceof IOException) {
-            return true;
-        }
-        if (throwable instanceof RestClientResponseException responseException) {
-            return responseException.getStatusCode().is5xxServerError();
-        }
-        return false;
+    /**
+     * Returns the raw UTF-8 response body. The same bytes are cached and parsed, so the body is never decoded
+     * into an intermediate {@code String}.
+     */
+    private byte[] callSummarization(NlpTask task, String text) {
+        String path = summarizationPath();
+        Map<String, String> payload = Map.of("text", text);
+
+        Supplier<byte[]> upstreamCall = () -> upstreamCalls.execute(task, path, () -> {
+            HttpEntity<Map<String, String>> requestEntity = new HttpEntity<>(payload, authorizationHeaders());
+            return responseReader.post(nlpCloudRestTemplate, path, requestEntity, InputStream::readAllBytes);
+        });
+
+        return responseCache.getBytes(task, path, text,
+                () -> inFlightRequests.execute(task, path, text, () -> bulkhead.execute(task, upstreamCall)));
     }
 
-    private UpstreamServiceException mapUpstreamError(String path, Throwable throwable) {
-        if (throwable instanceof UpstreamServiceException upstream) {
-            return upstream;
-        }
-        if (throwable instanceof RestClientResponseException responseException) {
-            log.error("NLP Cloud returned {} for {}. Body: {}", responseException.getStatusCode().value(), path, responseException.getResponseBodyAsString());
-            return new UpstreamServiceException(SAFE_UPSTREAM_MESSAGE, responseException);
+    /**
+     * Like {@link #callSummarization}, but reads a streamed (non-JSON) upstream body incrementally and forwards
+     * it to {@code listener}. Streamed text is cached in the same JSON shape as a regular response, so streaming
+     * and regular requests share cache entries.
+     */
+    private byte[] streamSummarization(NlpTask task, String text, TrackingListener listener) {
+        String path = summarizationPath();
+        Map<String, Object> payload = properties.getStreaming().isUpstreamStream()
+                ? Map.of("text", text, "stream", true)
+                : Map.of("text", text);
+
+        Supplier<byte[]> upstreamCall = () -> upstreamCalls.execute(task, path, () -> {
+            listener.restartIfDelivered();
+            HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(payload, authorizationHeaders());
+            return responseReader.stream(nlpCloudRestTemplate, path, requestEntity,
+                    (contentType, body) -> readStreamed(contentType, body, listener));
+        });
+
+        return responseCache.getBytes(task, path, text,
+                () -> inFlightRequests.execute(task, path, text, () -> bulkhead.execute(task, upstreamCall)));
+    }
+
+    private static byte[] readStreamed(MediaType contentType, InputStream body, TextListener listener)
+            throws IOException {
+        if (contentType == null || contentType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            return body.readAllBytes();
         }
-        if (throwable instanceof TimeoutException || throwable instanceof ResourceAccessException) {
-            log.error("NLP Cloud timeout or resource access issue for {}: {}", path, throwable.getMessage());
-            return new UpstreamServiceException(SAFE_UPSTREAM_MESSAGE, throwable);
+        StringBuilder text = new StringBuilder();
+        Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        char[] buffer = new char[512];
+        for (int read = reader.read(buffer); read >= 0; read = reader.read(buffer)) {
+            if (read > 0) {
+                String delta = new String(buffer, 0, read);
+                text.append(delta);
+                listener.onText(delta);
+            }
         }
-        return new UpstreamServiceException(SAFE_UPSTREAM_MESSAGE, throwable);
+        return ("{\"summary_text\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(text)) + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
     }
 
     private HttpHeaders authorizationHeaders() {
@@ -174,47 +275,75 @@ public class UnifiedNlpService {
         return value == null ? null : value.trim();
     }
 
-    private String grammarPrompt(String note, String context) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("You are a medical writing assistant. Correct grammar, spelling, and clarity in the following note. Return only the corrected text without explanations.\n\n");
-        if (context != null && !context.isBlank()) {
-            builder.append("Clinical context: ").append(context.trim()).append("\n\n");
-        }
-        builder.append("Note: ").append(note);
-        return builder.toString();
+    /**
+     * Receives text from a streamed call as it arrives. A listener that throws receives nothing further; the
+     * call itself carries on.
+     */
+    public interface TextListener {
+
+        void onText(String delta);
+
+        /** A retry starts the response over; text received so far is to be discarded. */
+        void onRestart();
     }
 
-    private String entityPrompt(String note, String context) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("Extract medical entities from the note and respond as JSON with an 'entities' array where each object contains entity, text, start, end, and confidence fields.\n\n");
-        if (context != null && !context.isBlank()) {
-            builder.append("Clinical context: ").append(context.trim()).append("\n\n");
+    /**
+     * Remembers whether any text reached the caller, to signal restarts and to deliver non-streamed results.
+     * <p>
+     * The upstream call may be shared with coalesced callers, so a listener that fails (typically because its
+     * client disconnected) is detached rather than allowed to abort the call: reading continues, and the result
+     * still completes for the other callers and is cached.
+     */
+    private static final class TrackingListener implements TextListener {
+
+        private final TextListener delegate;
+        private volatile boolean delivered;
+        private volatile boolean detached;
+
+        private TrackingListener(TextListener delegate) {
+            this.delegate = delegate;
         }
-        builder.append("Note: ").append(note);
-        return builder.toString();
-    }
 
-    private String summarizationPrompt(String note, String context) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("Summarize the following clinical information in 3-4 sentences highlighting key findings and recommendations.\n\n");
-        if (context != null && !context.isBlank()) {
-            builder.append("Clinical context: ").append(context.trim()).append("\n\n");
+        @Override
+        public void onText(String delta) {
+            delivered = true;
+            forward(() -> delegate.onText(delta));
         }
-        builder.append("Note: ").append(note);
-        return builder.toString();
-    }
 
-    private String keywordPrompt(String note, String context) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("Extract concise medical keywords or keyphrases from the following note. Respond with a comma-separated list only.\n\n");
-        if (context != null && !context.isBlank()) {
-            builder.append("Clinical context: ").append(context.trim()).append("\n\n");
+        @Override
+        public void onRestart() {
+            delivered = false;
+            forward(delegate::onRestart);
+        }
+
+        private void forward(Runnable event) {
+            if (detached) {
+                return;
+            }
+            try {
+                event.run();
+            } catch (RuntimeException ex) {
+                detached = true;
+                log.debug("Stream listener failed, no longer forwarding text: {}", ex.toString());
+            }
+        }
+
+        private void restartIfDelivered() {
+            if (delivered) {
+                onRestart();
+            }
+        }
+
+        private void completeWith(String text) {
+            if (!delivered && text != null && !text.isEmpty()) {
+                onText(text);
+            }
         }
-        builder.append("Note: ").append(note);
-        return builder.toString();
     }
 
-    private List<String> parseKeywords(String summaryText) {
+    // Keyword parsing is package-private and static so the benchmarks in src/jmh can call it directly.
+
+    static List<String> parseKeywords(String summaryText) {
         return Arrays.stream(summaryText.split(",|\n"))
                 .map(String::trim)
                 .filter(s -> !s.isEmpty())
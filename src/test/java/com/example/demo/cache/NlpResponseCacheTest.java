@@ -0,0 +1,70 @@
+package com.example.demo.cache;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.service.NlpTask;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NlpResponseCacheTest {
+
+    private NlpResponseCache cache;
+    private AtomicInteger upstreamCalls;
+
+    @BeforeEach
+    void setUp() {
+        NlpCloudProperties properties = new NlpCloudProperties();
+        properties.getResponseCache().setCompressionThreshold(64);
+        cache = new NlpResponseCache(properties);
+        upstreamCalls = new AtomicInteger();
+    }
+
+    @Test
+    void servesRepeatedPromptFromCache() {
+        String first = cache.get(NlpTask.SUMMARY, "/bart-large-cnn/summarization", "Note: chest pain", this::load);
+        String second = cache.get(NlpTask.SUMMARY, "/bart-large-cnn/summarization", "Note: chest pain", this::load);
+
+        assertEquals(first, second);
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(new NlpResponseCache.TaskStats(1, 1), cache.stats().get(NlpTask.SUMMARY));
+    }
+
+    @Test
+    void keysIncludeTaskAndPath() {
+        cache.get(NlpTask.SUMMARY, "/bart-large-cnn/summarization", "Note: chest pain", this::load);
+        cache.get(NlpTask.KEYWORDS, "/bart-large-cnn/summarization", "Note: chest pain", this::load);
+        cache.get(NlpTask.SUMMARY, "/other-model/summarization", "Note: chest pain", this::load);
+
+        assertEquals(3, upstreamCalls.get());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void roundTripsCompressedPayloads() {
+        String large = "{\"summary_text\":\"" + "Patient stable, afebrile, ambulating. ".repeat(50) + "\"}";
+
+        cache.get(NlpTask.SUMMARY, "/m/summarization", "prompt", () -> large);
+        String cached = cache.get(NlpTask.SUMMARY, "/m/summarization", "prompt", () -> fail("expected cache hit"));
+
+        assertEquals(large, cached);
+    }
+
+    @Test
+    void doesNotCacheFailures() {
+        assertThrows(IllegalStateException.class, () -> cache.get(NlpTask.ENTITIES, "/m/summarization", "prompt", () -> {
+            throw new IllegalStateException("upstream down");
+        }));
+
+        cache.get(NlpTask.ENTITIES, "/m/summarization", "prompt", this::load);
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(new NlpResponseCache.TaskStats(0, 2), cache.stats().get(NlpTask.ENTITIES));
+    }
+
+    private String load() {
+        return "{\"summary_text\":\"call " + upstreamCalls.incrementAndGet() + "\"}";
+    }
+}
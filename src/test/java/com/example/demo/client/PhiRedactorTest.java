@@ -0,0 +1,40 @@
+package com.example.demo.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhiRedactorTest {
+
+    @Test
+    void replacesFreeTextFieldsWithTheirLength() {
+        String redacted = PhiRedactor.redact("{\"text\":\"John Smith has chest pain\",\"size\":\"small\"}");
+
+        assertEquals("{\"text\":\"[REDACTED 25 chars]\",\"size\":\"small\"}", redacted);
+    }
+
+    @Test
+    void keepsStructureOfEntityResponses() {
+        String redacted = PhiRedactor.redact(
+                "{\"entities\":[{\"start\":0,\"end\":10,\"type\":\"PERSON\",\"text\":\"John Smith\"}]}");
+
+        assertEquals("{\"entities\":[{\"start\":0,\"end\":10,\"type\":\"PERSON\",\"text\":\"[REDACTED 10 chars]\"}]}",
+                redacted);
+    }
+
+    @Test
+    void handlesEscapedQuotesAndTruncatedPayloads() {
+        assertEquals("{\"summary_text\":\"[REDACTED 13 chars]\"}",
+                PhiRedactor.redact("{\"summary_text\":\"said \\\"ouch\\\"\"}"));
+        assertEquals("{\"generated_text\":\"[REDACTED 12 chars]",
+                PhiRedactor.redact("{\"generated_text\":\"Patient was "));
+    }
+
+    @Test
+    void masksIdentifiersOutsideFreeTextFields() {
+        String redacted = PhiRedactor.redact("{\"detail\":\"mrn 12345678 dob 04/12/1961 ssn 123-45-6789 "
+                + "call 555-123-4567 or jane.doe@example.org on 2024-03-01\"}");
+
+        assertEquals("{\"detail\":\"mrn [ID] dob [DATE] ssn [SSN] call [PHONE] or [EMAIL] on [DATE]\"}", redacted);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.client;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.service.NlpTask;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamClientEngineTest {
+
+    private static WireMockServer wireMockServer;
+
+    @BeforeAll
+    static void startWireMock() {
+        wireMockServer = new WireMockServer(options().dynamicPort());
+        wireMockServer.start();
+        wireMockServer.stubFor(post(urlEqualTo("/v1/bart-large-cnn/summarization"))
+                .willReturn(aResponse().withStatus(200).withBody("{\"summary_text\":\"ok\"}")));
+        wireMockServer.stubFor(post(urlEqualTo("/v1/en_core_web_lg/entities"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(800).withBody("{\"entities\":[]}")));
+    }
+
+    @AfterAll
+    static void stopWireMock() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    void jdkEngineCallsCleartextUpstreamOverHttp11() {
+        try (UpstreamClientEngine engine = new JdkUpstreamClientEngine(properties(NlpCloudProperties.Http.Engine.JDK))) {
+            String body = restTemplate(engine).postForObject("/bart-large-cnn/summarization", Map.of("text", "note"), String.class);
+
+            assertEquals("{\"summary_text\":\"ok\"}", body);
+            assertEquals("jdk", engine.stats().engine());
+            assertEquals("HTTP_1_1", engine.stats().protocol(), "cleartext upstreams must not attempt h2c");
+            assertEquals(0, engine.stats().leased(), "the permit is returned when the response is closed");
+            assertEquals(List.of("available"), engine.stats().unsupported());
+        }
+    }
+
+    @Test
+    void jdkEngineBoundsInFlightExchangesPerRoute() throws Exception {
+        NlpCloudProperties properties = properties(NlpCloudProperties.Http.Engine.JDK);
+        properties.setTimeout(Duration.ofMillis(300));
+        properties.getHttp().setMaxConnectionsPerRoute(1);
+        try (UpstreamClientEngine engine = new JdkUpstreamClientEngine(properties);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            RestTemplate restTemplate = restTemplate(engine);
+            Future<String> first = executor.submit(
+                    () -> restTemplate.postForObject("/en_core_web_lg/entities", Map.of("text", "note"), String.class));
+            while (engine.stats().leased() == 0) {
+                Thread.onSpinWait();
+            }
+
+            assertThrows(ResourceAccessException.class,
+                    () -> restTemplate.postForObject("/bart-large-cnn/summarization", Map.of("text", "note"), String.class));
+            assertEquals("{\"entities\":[]}", first.get(5, TimeUnit.SECONDS));
+            assertEquals(0, engine.stats().leased());
+        }
+    }
+
+    @Test
+    void apacheEngineReportsPoolStatistics() {
+        try (UpstreamClientEngine engine = new ApacheUpstreamClientEngine(properties(NlpCloudProperties.Http.Engine.APACHE))) {
+            restTemplate(engine).postForObject("/bart-large-cnn/summarization", Map.of("text", "note"), String.class);
+
+            UpstreamPoolStats stats = engine.stats();
+            assertEquals(50, stats.maxTotal());
+            assertEquals(20, stats.maxPerRoute());
+            assertEquals(0, stats.leased());
+            assertEquals(1, stats.available());
+        }
+    }
+
+    @Test
+    void appliesPerTaskReadTimeout() {
+        NlpCloudProperties properties = properties(NlpCloudProperties.Http.Engine.APACHE);
+        properties.getHttp().getReadTimeouts().put(NlpTask.ENTITIES, Duration.ofMillis(200));
+        try (UpstreamClientEngine engine = new ApacheUpstreamClientEngine(properties)) {
+            RestTemplate restTemplate = new RestTemplate(new PerTaskTimeoutRequestFactory(engine, properties));
+            restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory(wireMockServer.baseUrl() + "/v1"));
+
+            assertThrows(ResourceAccessException.class, () -> PerTaskTimeoutRequestFactory.forTask(NlpTask.ENTITIES,
+                    () -> restTemplate.postForObject("/en_core_web_lg/entities", Map.of("text", "note"), String.class)));
+            assertNotNull(restTemplate.postForObject("/en_core_web_lg/entities", Map.of("text", "note"), String.class),
+                    "unbound requests use the default read timeout");
+        }
+    }
+
+    @Test
+    void readTimeoutFollowsTheBoundTaskNotThePath() {
+        NlpCloudProperties properties = properties(NlpCloudProperties.Http.Engine.APACHE);
+        properties.getHttp().getReadTimeouts().put(NlpTask.KEYWORDS, Duration.ofMillis(200));
+        try (UpstreamClientEngine engine = new ApacheUpstreamClientEngine(properties)) {
+            RestTemplate restTemplate = new RestTemplate(new PerTaskTimeoutRequestFactory(engine, properties));
+            restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory(wireMockServer.baseUrl() + "/v1"));
+
+            assertThrows(ResourceAccessException.class, () -> PerTaskTimeoutRequestFactory.forTask(NlpTask.KEYWORDS,
+                    () -> restTemplate.postForObject("/en_core_web_lg/entities", Map.of("text", "note"), String.class)));
+        }
+    }
+
+    private RestTemplate restTemplate(UpstreamClientEngine engine) {
+        RestTemplate restTemplate = new RestTemplate(engine.requestFactory(Duration.ofSeconds(5)));
+        restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory(wireMockServer.baseUrl() + "/v1"));
+        return restTemplate;
+    }
+
+    private static NlpCloudProperties properties(NlpCloudProperties.Http.Engine engine) {
+        NlpCloudProperties properties = new NlpCloudProperties();
+        properties.setBaseUrl(wireMockServer.baseUrl());
+        properties.setTimeout(Duration.ofSeconds(2));
+        properties.setSummarizationModel("bart-large-cnn");
+        properties.setEntityModel("en_core_web_lg");
+        properties.getHttp().setEngine(engine);
+        return properties;
+    }
+}
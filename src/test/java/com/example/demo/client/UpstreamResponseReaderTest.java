@@ -0,0 +1,103 @@
+package com.example.demo.client;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.EntityExtractionResponse;
+import com.example.demo.exception.UpstreamServiceException;
+import com.example.demo.mapper.NlpCloudMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.InputStream;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamResponseReaderTest {
+
+    private static final String ENTITIES = "{\"entities\":[{\"entity\":\"DRUG\",\"text\":\"metoprolol\",\"start\":0,\"end\":10}]}";
+
+    private static WireMockServer wireMockServer;
+
+    @BeforeAll
+    static void startWireMock() {
+        wireMockServer = new WireMockServer(options().dynamicPort());
+        wireMockServer.start();
+        wireMockServer.stubFor(post(urlEqualTo("/v1/entities"))
+                .willReturn(aResponse().withStatus(200).withBody(ENTITIES)));
+        wireMockServer.stubFor(post(urlEqualTo("/v1/large"))
+                .willReturn(aResponse().withStatus(200).withBody("x".repeat(4096))));
+        wireMockServer.stubFor(post(urlEqualTo("/v1/large-chunked"))
+                .willReturn(aResponse().withStatus(200).withBody("x".repeat(4096)).withChunkedDribbleDelay(4, 20)));
+    }
+
+    @AfterAll
+    static void stopWireMock() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    void mapsResponseStreamStraightIntoDto() {
+        UpstreamResponseReader reader = new UpstreamResponseReader(properties(DataSize.ofKilobytes(1)));
+        NlpCloudMapper mapper = new NlpCloudMapper(new ObjectMapper());
+
+        EntityExtractionResponse response = reader.post(restTemplate(), "/entities", request(),
+                mapper::toEntityExtractionResponse);
+
+        assertEquals(1, response.getEntities().size());
+        assertEquals("metoprolol", response.getEntities().get(0).getText());
+    }
+
+    @Test
+    void rejectsBodyWhoseContentLengthExceedsLimit() {
+        UpstreamResponseReader reader = new UpstreamResponseReader(properties(DataSize.ofKilobytes(1)));
+
+        UpstreamServiceException ex = assertThrows(UpstreamServiceException.class,
+                () -> reader.post(restTemplate(), "/large", request(), InputStream::readAllBytes));
+        assertEquals("Unable to process NLP request at this time. Please try again later.", ex.getMessage());
+    }
+
+    @Test
+    void rejectsChunkedBodyOnceLimitIsCrossedWhileStreaming() {
+        UpstreamResponseReader reader = new UpstreamResponseReader(properties(DataSize.ofKilobytes(1)));
+
+        assertThrows(UpstreamServiceException.class,
+                () -> reader.post(restTemplate(), "/large-chunked", request(), InputStream::readAllBytes));
+    }
+
+    @Test
+    void acceptsBodyWithinLimit() {
+        UpstreamResponseReader reader = new UpstreamResponseReader(properties(DataSize.ofKilobytes(8)));
+
+        byte[] body = reader.post(restTemplate(), "/large-chunked", request(), InputStream::readAllBytes);
+
+        assertEquals(4096, body.length);
+    }
+
+    private static NlpCloudProperties properties(DataSize maxResponseSize) {
+        NlpCloudProperties properties = new NlpCloudProperties();
+        properties.getHttp().setMaxResponseSize(maxResponseSize);
+        return properties;
+    }
+
+    private static HttpEntity<Map<String, String>> request() {
+        return new HttpEntity<>(Map.of("text", "note"));
+    }
+
+    private static RestTemplate restTemplate() {
+        RestTemplate restTemplate = new RestTemplate(new SimpleClientHttpRequestFactory());
+        restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory(wireMockServer.baseUrl() + "/v1"));
+        return restTemplate;
+    }
+}
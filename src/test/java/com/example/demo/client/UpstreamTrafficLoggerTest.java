@@ -0,0 +1,122 @@
+package com.example.demo.client;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.example.demo.config.NlpCloudProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class UpstreamTrafficLoggerTest {
+
+    private static final String URL = "http://upstream/v1/bart-large-cnn/summarization";
+    private static final Map<String, String> NOTE = Map.of("text", "John Smith, MRN 12345678, has chest pain");
+
+    private final NlpCloudProperties properties = new NlpCloudProperties();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(UpstreamTrafficLogger.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private Level previousLevel;
+
+    @BeforeEach
+    void setUp() {
+        previousLevel = logger.getLevel();
+        logger.setLevel(Level.INFO);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        logger.setLevel(previousLevel);
+    }
+
+    @Test
+    void logsLengthsAndHashesOfSampledExchangesWithoutContent() {
+        properties.getTrafficLog().setSampleRate(1.0);
+        RestTemplate restTemplate = restTemplate(new UpstreamTrafficLogger(properties, Runnable::run));
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(requestTo(URL)).andRespond(withSuccess("{\"summary_text\":\"John Smith: angina\"}",
+                MediaType.APPLICATION_JSON));
+
+        restTemplate.postForObject(URL, NOTE, String.class);
+
+        assertEquals(1, appender.list.size());
+        ILoggingEvent event = appender.list.get(0);
+        assertEquals(Level.INFO, event.getLevel());
+        String line = event.getFormattedMessage();
+        assertTrue(line.matches("upstream_call method=POST path=/v1/bart-large-cnn/summarization status=200 "
+                + "headers_ms=\\d+ total_ms=\\d+ req_bytes=\\d+ req_sha256=[0-9a-f]{16} resp_bytes=37 "
+                + "resp_sha256=[0-9a-f]{16}"), line);
+        assertFalse(line.contains("John"), line);
+    }
+
+    @Test
+    void skipsUnsampledSuccessfulExchanges() {
+        properties.getTrafficLog().setSampleRate(0);
+        RestTemplate restTemplate = restTemplate(new UpstreamTrafficLogger(properties, Runnable::run));
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(requestTo(URL)).andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        restTemplate.postForObject(URL, NOTE, String.class);
+
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void alwaysLogsFailuresWithRedactedPreviews() {
+        properties.getTrafficLog().setSampleRate(0);
+        RestTemplate restTemplate = restTemplate(new UpstreamTrafficLogger(properties, Runnable::run));
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(requestTo(URL)).andRespond(withStatus(HttpStatus.BAD_GATEWAY)
+                .contentType(MediaType.APPLICATION_JSON).body("{\"detail\":\"Model overloaded\"}"));
+
+        assertThrows(HttpServerErrorException.class, () -> restTemplate.postForObject(URL, NOTE, String.class));
+
+        assertEquals(1, appender.list.size());
+        ILoggingEvent event = appender.list.get(0);
+        assertEquals(Level.WARN, event.getLevel());
+        String line = event.getFormattedMessage();
+        assertTrue(line.contains("status=502"), line);
+        assertTrue(line.contains("req_preview=\"{\"text\":\"[REDACTED 40 chars]\"}\""), line);
+        assertTrue(line.contains("resp_preview=\"{\"detail\":\"Model overloaded\"}\""), line);
+        assertFalse(line.contains("John"), line);
+    }
+
+    @Test
+    void dropsLinesWhenTheWriterIsFull() {
+        properties.getTrafficLog().setSampleRate(1.0);
+        UpstreamTrafficLogger trafficLogger = new UpstreamTrafficLogger(properties, task -> {
+            throw new RejectedExecutionException("full");
+        });
+        RestTemplate restTemplate = restTemplate(trafficLogger);
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(requestTo(URL)).andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        assertEquals("{}", restTemplate.postForObject(URL, NOTE, String.class));
+
+        assertEquals(1, trafficLogger.droppedCount());
+    }
+
+    private static RestTemplate restTemplate(UpstreamTrafficLogger trafficLogger) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(trafficLogger);
+        return restTemplate;
+    }
+}
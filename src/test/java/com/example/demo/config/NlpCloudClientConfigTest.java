@@ -1,5 +1,8 @@
 package com.example.demo.config;
 
+import com.example.demo.client.UpstreamTrafficLogger;
+import com.example.demo.metrics.UpstreamMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.web.client.RestTemplate;
@@ -19,7 +22,8 @@ class NlpCloudClientConfigTest {
         properties.setSummarizationModel("bart-large-cnn");
 
         RestTemplate restTemplate = new NlpCloudClientConfig()
-                .nlpCloudRestTemplate(properties, new RestTemplateBuilder());
+                .nlpCloudRestTemplate(properties, new RestTemplateBuilder(),
+                        new UpstreamMetrics(new SimpleMeterRegistry()), new UpstreamTrafficLogger(properties));
 
         URI expanded = restTemplate.getUriTemplateHandler().expand("/grammar");
 
@@ -0,0 +1,70 @@
+package com.example.demo.config;
+
+import com.example.demo.metrics.RequestTimeline;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingFilterTest {
+
+    private final NlpCloudProperties properties = new NlpCloudProperties();
+
+    @Test
+    void addsPhasesRecordedBeforeTheBodyIsWritten() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/nlp/summarize");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter().doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                RequestTimeline.current().time("prompt", () -> "prompt");
+                res.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+                res.flushBuffer();
+                RequestTimeline.current().time("after-commit", () -> "ignored");
+            }
+        }));
+
+        String header = response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER);
+        assertNotNull(header);
+        assertTrue(header.startsWith("prompt;dur="), header);
+        assertTrue(header.contains("total;dur="), header);
+        assertFalse(header.contains("after-commit"), header);
+        assertEquals("{}", response.getContentAsString());
+    }
+
+    @Test
+    void addsHeaderWhenNothingIsWritten() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/reports");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter().doFilter(request, response, new MockFilterChain());
+
+        assertNotNull(response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER));
+    }
+
+    @Test
+    void skipsNonApiRequestsAndUnsampledRequests() throws Exception {
+        MockHttpServletResponse health = new MockHttpServletResponse();
+        filter().doFilter(new MockHttpServletRequest("GET", "/health"), health, new MockFilterChain());
+        assertNull(health.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER));
+
+        properties.getTiming().setSampleRate(0);
+        MockHttpServletResponse unsampled = new MockHttpServletResponse();
+        filter().doFilter(new MockHttpServletRequest("GET", "/api/reports"), unsampled, new MockFilterChain());
+        assertNull(unsampled.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER));
+    }
+
+    private ServerTimingFilter filter() {
+        return new ServerTimingFilter(properties, ObservationRegistry.NOOP);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.MedicalDisclaimerFilter;
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.ApiResult;
+import com.example.demo.dto.KeywordResponse;
+import com.example.demo.dto.SummaryResponse;
+import com.example.demo.exception.UpstreamServiceException;
+import com.example.demo.service.EntityExtractionService;
+import com.example.demo.service.GrammarService;
+import com.example.demo.service.IncrementalNoteAnalysisService;
+import com.example.demo.service.KeywordExtractionService;
+import com.example.demo.service.LongDocumentSummarizationService;
+import com.example.demo.service.NlpAnalysisService;
+import com.example.demo.service.NlpBatchService;
+import com.example.demo.service.SummarizationService;
+import com.example.demo.service.UnifiedNlpService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(MedicalNlpController.class)
+@ActiveProfiles("test")
+class MedicalNlpControllerAsyncTest {
+
+    private static final String NOTE = "{\"note\":\"Patient reports dizziness and headache.\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private NlpCloudProperties properties;
+
+    @MockBean
+    private GrammarService grammarService;
+
+    @MockBean
+    private SummarizationService summarizationService;
+
+    @MockBean
+    private KeywordExtractionService keywordService;
+
+    @MockBean
+    private EntityExtractionService entityService;
+
+    @MockBean
+    private NlpAnalysisService analysisService;
+
+    @MockBean
+    private NlpBatchService batchService;
+
+    @MockBean
+    private LongDocumentSummarizationService longDocumentService;
+
+    @MockBean
+    private IncrementalNoteAnalysisService incrementalService;
+
+    @MockBean
+    private UnifiedNlpService nlpService;
+
+    @Test
+    void summarizeAsyncReturnsEnvelopeAfterAsyncDispatch() throws Exception {
+        when(summarizationService.summarize(any()))
+                .thenReturn(new SummaryResponse("Dizziness and headache.", List.of()));
+
+        MvcResult started = mockMvc.perform(post("/api/nlp/async/summarize")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(NOTE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(200))
+                .andExpect(jsonPath("$.path").value("/api/nlp/async/summarize"))
+                .andExpect(jsonPath("$.data.summary").value("Dizziness and headache."));
+    }
+
+    @Test
+    void asyncUpstreamFailureUsesErrorEnvelope() throws Exception {
+        when(grammarService.checkGrammar(any())).thenThrow(new UpstreamServiceException("Upstream unavailable"));
+
+        MvcResult started = mockMvc.perform(post("/api/nlp/async/grammar")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(NOTE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isBadGateway())
+                .andExpect(jsonPath("$.status").value(502))
+                .andExpect(jsonPath("$.error.message").value("Upstream unavailable"));
+    }
+
+    @Test
+    void asyncTimeoutUsesConfiguredDefaultAndGatewayTimeoutEnvelope() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(keywordService.extractKeywords(any())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new KeywordResponse(List.of());
+        });
+
+        try {
+            MvcResult started = mockMvc.perform(post("/api/nlp/async/keywords")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(NOTE))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            MockAsyncContext asyncContext = (MockAsyncContext) started.getRequest().getAsyncContext();
+            assertEquals(properties.getAsync().getTimeout().toMillis(), asyncContext.getTimeout());
+
+            // MockMvc never times out by itself; fire the container's timeout callback instead.
+            for (AsyncListener listener : asyncContext.getListeners()) {
+                listener.onTimeout(new AsyncEvent(asyncContext));
+            }
+
+            mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isGatewayTimeout())
+                    .andExpect(jsonPath("$.status").value(504))
+                    .andExpect(jsonPath("$.path").value("/api/nlp/async/keywords"))
+                    .andExpect(jsonPath("$.error.message").value("NLP request timed out. Please try again later."));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void streamedSummaryEndsWithResultEvent() throws Exception {
+        when(nlpService.streamSummary(any(), any())).thenAnswer(inv -> {
+            UnifiedNlpService.TextListener listener = inv.getArgument(1);
+            listener.onText("Dizziness ");
+            listener.onText("and headache.");
+            return new SummaryResponse("Dizziness and headache.", List.of());
+        });
+
+        MvcResult started = mockMvc.perform(post("/api/nlp/stream/summarize")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(NOTE))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string(MedicalDisclaimerFilter.DISCLAIMER_HEADER, ApiResult.MEDICAL_DISCLAIMER))
+                .andReturn();
+        started.getAsyncResult(5_000);
+
+        String body = started.getResponse().getContentAsString();
+        assertTrue(body.startsWith("event:started\n"), body);
+        assertTrue(body.contains("event:delta\ndata:{\"text\":\"Dizziness \"}"), body);
+        assertTrue(body.contains("event:result\ndata:{"), body);
+        assertTrue(body.contains("\"summary\":\"Dizziness and headache.\""), body);
+    }
+
+    @Test
+    void streamTimeoutStopsEventsButLetsTheCallFinish() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        when(nlpService.streamSummary(any(), any())).thenAnswer(inv -> {
+            UnifiedNlpService.TextListener listener = inv.getArgument(1);
+            release.await(5, TimeUnit.SECONDS);
+            listener.onText("Dizziness and headache.");
+            finished.countDown();
+            return new SummaryResponse("Dizziness and headache.", List.of());
+        });
+
+        MvcResult started = mockMvc.perform(post("/api/nlp/stream/summarize")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(NOTE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockAsyncContext asyncContext = (MockAsyncContext) started.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        release.countDown();
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS), "the upstream work is not cancelled");
+        String body = started.getResponse().getContentAsString();
+        assertFalse(body.contains("event:delta"), body);
+        assertFalse(body.contains("event:result"), body);
+    }
+
+    @Test
+    void streamedFailureEndsWithErrorEvent() throws Exception {
+        when(nlpService.streamGrammar(any(), any())).thenThrow(new UpstreamServiceException("Upstream unavailable"));
+
+        MvcResult started = mockMvc.perform(post("/api/nlp/stream/grammar")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(NOTE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult(5_000);
+
+        String body = started.getResponse().getContentAsString();
+        assertTrue(body.contains("event:error\ndata:{"), body);
+        assertTrue(body.contains("\"message\":\"Upstream unavailable\""), body);
+    }
+}
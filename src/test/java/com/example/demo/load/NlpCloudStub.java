@@ -0,0 +1,128 @@
+package com.example.demo.load;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformerV2;
+import com.github.tomakehurst.wiremock.http.DelayDistribution;
+import com.github.tomakehurst.wiremock.http.LogNormal;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.http.UniformDistribution;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Local stand-in for NLP Cloud. Every model path answers with one JSON body that satisfies all task mappers,
+ * padded to the configured size. Latency follows a log-normal or uniform distribution, and a configurable
+ * fraction of calls is answered with 429 ({@code Retry-After: 1}) or 503 instead.
+ */
+final class NlpCloudStub implements AutoCloseable {
+
+    private final Settings settings;
+    private final WireMockServer server;
+    private final String body;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    NlpCloudStub(Settings settings) {
+        this.settings = settings;
+        this.body = body(settings.payloadBytes());
+        this.server = new WireMockServer(options().dynamicPort()
+                .containerThreads(settings.containerThreads())
+                .jettyAcceptQueueSize(settings.containerThreads() * 2)
+                .disableRequestJournal()
+                .extensions(new FaultInjection()));
+        server.stubFor(any(anyUrl()).willReturn(aResponse().withStatus(200)));
+        server.start();
+    }
+
+    String baseUrl() {
+        return server.baseUrl() + "/v1";
+    }
+
+    long calls() {
+        return calls.sum();
+    }
+
+    long throttled() {
+        return throttled.sum();
+    }
+
+    long failed() {
+        return failed.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop();
+    }
+
+    private static String body(int payloadBytes) {
+        String prefix = "{\"summary_text\":\"Hypertension, chest pain, metoprolol. ";
+        String suffix = "\",\"entities\":[{\"entity\":\"DRUG\",\"text\":\"metoprolol\",\"start\":0,\"end\":10,"
+                + "\"confidence\":0.9}],\"keywords\":[\"hypertension\",\"chest pain\"]}";
+        int padding = Math.max(0, payloadBytes - prefix.length() - suffix.length());
+        return prefix + "x".repeat(padding) + suffix;
+    }
+
+    /**
+     * @param latency          {@code lognormal} (median and sigma) or {@code uniform} (min and max)
+     * @param throttleRate     fraction of calls answered with 429
+     * @param serverErrorRate  fraction of calls answered with 503
+     */
+    record Settings(String latency, double medianMillis, double sigma, int minMillis, int maxMillis,
+                    double throttleRate, double serverErrorRate, int payloadBytes, int containerThreads) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    System.getProperty("load.stub.latency", "lognormal"),
+                    Double.parseDouble(System.getProperty("load.stub.median-ms", "250")),
+                    Double.parseDouble(System.getProperty("load.stub.sigma", "0.4")),
+                    Integer.getInteger("load.stub.min-ms", 100),
+                    Integer.getInteger("load.stub.max-ms", 600),
+                    Double.parseDouble(System.getProperty("load.stub.throttle-rate", "0.02")),
+                    Double.parseDouble(System.getProperty("load.stub.server-error-rate", "0.01")),
+                    Integer.getInteger("load.stub.payload-bytes", 2048),
+                    Integer.getInteger("load.stub.threads", 500));
+        }
+
+        DelayDistribution delay() {
+            return "uniform".equalsIgnoreCase(latency)
+                    ? new UniformDistribution(minMillis, maxMillis)
+                    : new LogNormal(medianMillis, sigma);
+        }
+    }
+
+    private final class FaultInjection implements ResponseDefinitionTransformerV2 {
+
+        private final DelayDistribution delay = settings.delay();
+
+        @Override
+        public ResponseDefinition transform(ServeEvent serveEvent) {
+            calls.increment();
+            double roll = ThreadLocalRandom.current().nextDouble();
+            ResponseDefinitionBuilder response = ResponseDefinitionBuilder.responseDefinition().withRandomDelay(delay);
+            if (roll < settings.throttleRate()) {
+                throttled.increment();
+                return response.withStatus(429).withHeader("Retry-After", "1").build();
+            }
+            if (roll < settings.throttleRate() + settings.serverErrorRate()) {
+                failed.increment();
+                return response.withStatus(503).build();
+            }
+            return response.withStatus(200).withHeader("Content-Type", "application/json").withBody(body).build();
+        }
+
+        @Override
+        public String getName() {
+            return "nlp-cloud-fault-injection";
+        }
+    }
+}
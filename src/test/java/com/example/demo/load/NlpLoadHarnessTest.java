@@ -0,0 +1,237 @@
+package com.example.demo.load;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the running application at a fixed request rate against {@link NlpCloudStub} and prints per-endpoint
+ * latency percentiles, throughput, error rate and the number of upstream calls the stub received.
+ * <p>
+ * Run with {@code mvn test -Pload-test -Dtest=NlpLoadHarnessTest}. The load is open-loop: requests start on
+ * schedule whether or not earlier ones have finished, and latency is measured from the scheduled start, so a
+ * stalled server shows up in the percentiles instead of silently lowering the offered rate.
+ * <ul>
+ *     <li>{@code load.rps} (default 40), {@code load.duration} in seconds (default 20), preceded by
+ *     {@code load.warmup} seconds (default 5) at the same rate whose results are discarded</li>
+ *     <li>{@code load.mix}: endpoint weights, default
+ *     {@code grammar=1,summarize=2,keywords=1,entities=2,reports-create=1,reports-list=1}</li>
+ *     <li>{@code load.stub.*}: upstream latency, fault rates and payload size, see {@link NlpCloudStub.Settings}</li>
+ *     <li>{@code load.max-error-rate} (default 0.05) and {@code load.max-p99-ms} (unset) fail the run when
+ *     exceeded</li>
+ *     <li>{@code load.app.<property>}: passed to the application with the prefix removed, e.g.
+ *     {@code -Dload.app.nlpcloud.rate-limit.enabled=true}. Client-side rate limiting is off by default so the
+ *     offered load reaches the stub.</li>
+ * </ul>
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class NlpLoadHarnessTest {
+
+    private static final String NOTE = "58-year-old male with intermittent substernal chest pain radiating to the "
+            + "left arm, hypertension and type 2 diabetes, on metoprolol and metformin. Visit ";
+
+    private static final NlpCloudStub stub = new NlpCloudStub(NlpCloudStub.Settings.fromSystemProperties());
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void registerProps(DynamicPropertyRegistry registry) {
+        registry.add("nlpcloud.base-url", stub::baseUrl);
+        registry.add("nlpcloud.timeout", () -> "10s");
+        registry.add("nlpcloud.max-retries", () -> "2");
+        registry.add("nlpcloud.rate-limit.enabled", () -> "false");
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("load.app."))
+                .forEach(name -> registry.add(name.substring("load.app.".length()), () -> System.getProperty(name)));
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void sustainsTargetRate() throws Exception {
+        int rps = Integer.getInteger("load.rps", 40);
+        int durationSeconds = Integer.getInteger("load.duration", 20);
+        List<Endpoint> schedule = schedule(System.getProperty("load.mix",
+                "grammar=1,summarize=2,keywords=1,entities=2,reports-create=1,reports-list=1"));
+        int warmupSeconds = Integer.getInteger("load.warmup", 5);
+        int total = rps * durationSeconds;
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        run(client, schedule, rps, rps * warmupSeconds, 0, new ConcurrentLinkedQueue<>());
+        long upstreamCallsBefore = stub.calls();
+        long throttledBefore = stub.throttled();
+        long failedBefore = stub.failed();
+
+        ConcurrentLinkedQueue<Sample> samples = new ConcurrentLinkedQueue<>();
+        long started = System.nanoTime();
+        run(client, schedule, rps, total, rps * warmupSeconds, samples);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        long upstreamCalls = stub.calls() - upstreamCallsBefore;
+
+        Map<Endpoint, List<Sample>> byEndpoint = new LinkedHashMap<>();
+        for (Sample sample : samples) {
+            byEndpoint.computeIfAbsent(sample.endpoint(), e -> new ArrayList<>()).add(sample);
+        }
+        System.out.printf("%nOffered %d req/s for %ds: %d requests in %d ms (%.1f req/s achieved)%n",
+                rps, durationSeconds, samples.size(), elapsed.toMillis(), samples.size() * 1000.0 / elapsed.toMillis());
+        System.out.printf("%-16s %7s %9s %9s %9s %9s %8s  %s%n",
+                "endpoint", "count", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors", "error statuses");
+        byEndpoint.forEach((endpoint, list) -> print(endpoint.name, list));
+        Stats overall = print("all", new ArrayList<>(samples));
+        System.out.printf("Upstream calls: %d (429: %d, 503: %d)%n%n", upstreamCalls,
+                stub.throttled() - throttledBefore, stub.failed() - failedBefore);
+
+        assertEquals(total, samples.size());
+        assertTrue(upstreamCalls > 0, "no upstream calls reached the stub");
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.max-error-rate", "0.05"));
+        assertTrue(overall.errorRate() <= maxErrorRate,
+                String.format("error rate %.3f exceeds %.3f", overall.errorRate(), maxErrorRate));
+        String maxP99 = System.getProperty("load.max-p99-ms");
+        if (maxP99 != null) {
+            assertTrue(overall.p99Millis() <= Double.parseDouble(maxP99),
+                    String.format("p99 %.1f ms exceeds %s ms", overall.p99Millis(), maxP99));
+        }
+    }
+
+    /** Starts {@code count} requests at {@code rps} and waits for all of them to finish. */
+    private void run(HttpClient client, List<Endpoint> schedule, int rps, int count, int firstSequence,
+                     ConcurrentLinkedQueue<Sample> samples) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                long scheduled = started + i * intervalNanos;
+                LockSupport.parkNanos(scheduled - System.nanoTime());
+                Endpoint endpoint = schedule.get(i % schedule.size());
+                int sequence = firstSequence + i;
+                executor.execute(() -> samples.add(send(client, endpoint, sequence, scheduled)));
+            }
+        }
+    }
+
+    private Sample send(HttpClient client, Endpoint endpoint, int sequence, long scheduled) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + endpoint.path))
+                .timeout(Duration.ofSeconds(60));
+        if (endpoint.method.equals("GET")) {
+            request.GET();
+        } else {
+            request.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(endpoint.body(sequence)));
+        }
+        int status;
+        try {
+            status = client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            status = -1;
+        }
+        return new Sample(endpoint, status, System.nanoTime() - scheduled);
+    }
+
+    private static Stats print(String label, List<Sample> samples) {
+        long[] latencies = samples.stream().mapToLong(Sample::latencyNanos).sorted().toArray();
+        long errors = samples.stream().filter(sample -> sample.status() < 200 || sample.status() >= 300).count();
+        Stats stats = new Stats(percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6,
+                samples.isEmpty() ? 0 : (double) errors / samples.size());
+        Map<Integer, Long> errorStatuses = samples.stream()
+                .filter(sample -> sample.status() < 200 || sample.status() >= 300)
+                .collect(Collectors.groupingBy(Sample::status, TreeMap::new, Collectors.counting()));
+        System.out.printf("%-16s %7d %9.1f %9.1f %9.1f %9.1f %7.2f%%  %s%n", label, samples.size(),
+                stats.p50Millis(), stats.p95Millis(), stats.p99Millis(), stats.maxMillis(), stats.errorRate() * 100,
+                errorStatuses.isEmpty() ? "" : errorStatuses);
+        return stats;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    /** Expands weights into a repeating schedule, e.g. {@code a=1,b=2} becomes {@code [a, b, b]}. */
+    private static List<Endpoint> schedule(String mix) {
+        List<Endpoint> schedule = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            Endpoint endpoint = Arrays.stream(Endpoint.values())
+                    .filter(candidate -> candidate.name.equals(parts[0]))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown endpoint in load.mix: " + parts[0]));
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+            for (int i = 0; i < weight; i++) {
+                schedule.add(endpoint);
+            }
+        }
+        return schedule;
+    }
+
+    private enum Endpoint {
+        GRAMMAR("grammar", "POST", "/api/nlp/grammar"),
+        SUMMARIZE("summarize", "POST", "/api/nlp/summarize"),
+        KEYWORDS("keywords", "POST", "/api/nlp/keywords"),
+        ENTITIES("entities", "POST", "/api/nlp/entities"),
+        REPORTS_CREATE("reports-create", "POST", "/api/reports"),
+        REPORTS_LIST("reports-list", "GET", "/api/reports");
+
+        private final String name;
+        private final String method;
+        private final String path;
+
+        Endpoint(String name, String method, String path) {
+            this.name = name;
+            this.method = method;
+            this.path = path;
+        }
+
+        /** Each note is unique so the response cache and request coalescing do not hide upstream load. */
+        String body(int sequence) {
+            if (this == REPORTS_CREATE) {
+                return "{\"patientName\":\"Load Test " + sequence + "\",\"reportText\":\"" + NOTE + sequence + "\"}";
+            }
+            return "{\"note\":\"" + NOTE + sequence + "\"}";
+        }
+    }
+
+    private record Sample(Endpoint endpoint, int status, long latencyNanos) {
+    }
+
+    private record Stats(double p50Millis, double p95Millis, double p99Millis, double maxMillis, double errorRate) {
+    }
+}
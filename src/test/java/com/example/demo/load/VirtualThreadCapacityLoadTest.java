@@ -0,0 +1,144 @@
+package com.example.demo.load;
+
+import com.example.demo.PatientApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the application twice, with {@code spring.threads.virtual.enabled} off and then on, and sends the same
+ * burst of concurrent {@code /api/nlp/summarize} requests to each. {@link NlpCloudStub} answers after a fixed
+ * delay, so how many upstream calls can wait at once decides the throughput: with platform threads that is
+ * Tomcat's pool of {@value #PLATFORM_THREADS}, with virtual threads it is only the number of requests.
+ * <p>
+ * Limits that would otherwise cap concurrency (bulkhead, client-side rate limit, connection limits) are raised
+ * above the burst size, and every note is unique so the cache and request coalescing do not absorb calls. Peak
+ * concurrency is sampled from {@code nlp.upstream.in.flight}; pinning diagnostics are on and their count is
+ * reported from {@code nlp.virtual.threads.pinned}. Run with {@code mvn test -Pload-test}.
+ */
+@Tag("load")
+class VirtualThreadCapacityLoadTest {
+
+    private static final int REQUESTS = 1000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int UPSTREAM_DELAY_MILLIS = 300;
+
+    private static final NlpCloudStub stub = new NlpCloudStub(new NlpCloudStub.Settings("uniform", 0, 0,
+            UPSTREAM_DELAY_MILLIS, UPSTREAM_DELAY_MILLIS, 0, 0, 256, REQUESTS + 100));
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void virtualThreadsSustainMoreConcurrentUpstreamWaits() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        assertEquals(REQUESTS, platform.succeeded());
+        assertEquals(REQUESTS, virtual.succeeded());
+        assertTrue(platform.peakInFlight() <= PLATFORM_THREADS,
+                "platform threads peaked at " + platform.peakInFlight() + " in-flight calls");
+        assertTrue(virtual.peakInFlight() > PLATFORM_THREADS,
+                "virtual threads peaked at " + virtual.peakInFlight() + " in-flight calls");
+        assertTrue(virtual.elapsed().compareTo(platform.elapsed()) < 0);
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String label = virtualThreads ? "virtual threads" : "platform threads (" + PLATFORM_THREADS + ")";
+        try (ConfigurableApplicationContext app = start(virtualThreads);
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            MeterRegistry meters = app.getBean(MeterRegistry.class);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clients)
+                    .build();
+
+            AtomicInteger peak = new AtomicInteger();
+            AtomicBoolean sampling = new AtomicBoolean(true);
+            // A platform thread that sleeps between samples, so it never holds a carrier the app needs.
+            Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+                while (sampling.get()) {
+                    double inFlight = meters.get("nlp.upstream.in.flight").tag("task", "summary").gauge().value();
+                    peak.accumulateAndGet((int) inFlight, Math::max);
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            });
+
+            long started = System.nanoTime();
+            List<Future<Integer>> calls = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/nlp/summarize"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"note\":\"Patient with chest pain, visit " + i + " (" + label + ").\"}"))
+                        .timeout(Duration.ofSeconds(60))
+                        .build();
+                calls.add(clients.submit(() -> client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()));
+            }
+            int succeeded = 0;
+            for (Future<Integer> call : calls) {
+                if (call.get() == 200) {
+                    succeeded++;
+                }
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+            sampling.set(false);
+            sampler.join();
+
+            double pinned = meters.get("nlp.virtual.threads.pinned").functionCounter().count();
+            Result result = new Result(succeeded, peak.get(), elapsed);
+            System.out.printf("%-28s %5d requests in %6d ms, %7.1f req/s, peak in-flight %d, pinned events %.0f%n",
+                    label, REQUESTS, elapsed.toMillis(), REQUESTS * 1000.0 / Math.max(elapsed.toMillis(), 1),
+                    result.peakInFlight(), pinned);
+            return result;
+        }
+    }
+
+    /** Settings go in as command-line arguments, so they win over application.properties and the test profile. */
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        return new SpringApplicationBuilder(PatientApplication.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+                        "--server.tomcat.max-connections=" + REQUESTS * 2,
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--nlpcloud.virtual-threads.pinning-diagnostics=true",
+                        "--nlpcloud.base-url=" + stub.baseUrl(),
+                        "--nlpcloud.timeout=30s",
+                        "--nlpcloud.rate-limit.enabled=false",
+                        "--nlpcloud.bulkhead.max-concurrent=" + REQUESTS,
+                        "--nlpcloud.http.max-connections-total=" + REQUESTS,
+                        "--nlpcloud.http.max-connections-per-route=" + REQUESTS,
+                        "--nlpcloud.traffic-log.enabled=false",
+                        "--management.tracing.enabled=false",
+                        "--logging.level.root=WARN");
+    }
+
+    private record Result(int succeeded, int peakInFlight, Duration elapsed) {
+    }
+}
@@ -77,4 +77,51 @@ class NlpCloudMapperTest {
         assertFalse(response.getKeywords().isEmpty());
         assertTrue(response.getKeywords().contains("nlp"));
     }
+
+    @Test
+    void mapsTopLevelEntitiesWithFieldFallbacks() {
+        String payload = """
+                {"model":"en_core_web_lg","entities":[
+                  {"type":"DRUG","text":"aspirin","start":"4","end":11,"score":0.7,"extra":{"nested":[1,2]}},
+                  "not-an-object"
+                ]}""";
+
+        List<Entity> entities = mapper.toEntityExtractionResponse(payload).getEntities();
+
+        assertEquals(2, entities.size());
+        assertEquals("DRUG", entities.get(0).getEntity());
+        assertEquals(4, entities.get(0).getStart());
+        assertEquals(11, entities.get(0).getEnd());
+        assertEquals(0.7, entities.get(0).getConfidence(), 0.0001);
+        assertEquals("", entities.get(1).getText());
+    }
+
+    @Test
+    void fallsBackToSummaryFieldAndIgnoresMalformedEmbeddedEntities() {
+        assertEquals("short", mapper.readSummaryText("{\"summary_text\":null,\"summary\":\"short\"}"));
+        assertTrue(mapper.toEntityExtractionResponse("{\"summary_text\":\"{\\\"entities\\\":[{\\\"text\\\":\"}")
+                .getEntities().isEmpty());
+        assertEquals("", mapper.readSummaryText(""));
+        assertEquals("", mapper.readSummaryText("[1,2]"));
+    }
+
+    @Test
+    void mapsGrammarSuggestionsPreferringSuggestionsOverCorrections() {
+        String payload = """
+                {"corrected_text":"Patient denies chest pain.",
+                 "corrections":[{"type":"ignored"}],
+                 "suggestions":[{"type":"spelling","text":"pian","suggestion":"pain","start":21,"end":25}]}""";
+
+        GrammarResponse response = mapper.toGrammarResponse(payload);
+
+        assertEquals("Patient denies chest pain.", response.getCorrectedText());
+        assertEquals(1, response.getSuggestions().size());
+        assertEquals("pain", response.getSuggestions().get(0).getSuggestion());
+        assertEquals(25, response.getSuggestions().get(0).getEnd());
+    }
+
+    @Test
+    void rejectsInvalidJson() {
+        assertThrows(IllegalArgumentException.class, () -> mapper.toSummaryResponse("{\"summary_text\": "));
+    }
 }
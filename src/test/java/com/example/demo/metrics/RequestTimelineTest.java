@@ -0,0 +1,71 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTimelineTest {
+
+    @Test
+    void recordsNothingOutsideARequest() {
+        RequestTimeline timeline = RequestTimeline.current();
+
+        assertFalse(timeline.isRecording());
+        assertEquals("ok", timeline.time("prompt", () -> "ok"));
+        assertTrue(timeline.toServerTiming().startsWith("total;dur="));
+    }
+
+    @Test
+    void formatsPhasesAsServerTimingEntries() {
+        RequestTimeline timeline = RequestTimeline.start(ObservationRegistry.NOOP);
+
+        timeline.time("prompt", () -> "prompt");
+        timeline.phase("upstream", "summary #1").close();
+
+        String header = timeline.toServerTiming();
+        assertTrue(header.matches("prompt;dur=\\d+\\.\\d, upstream;desc=\"summary #1\";dur=\\d+\\.\\d, total;dur=\\d+\\.\\d"),
+                header);
+    }
+
+    @Test
+    void closingAPhaseTwiceRecordsItOnce() {
+        RequestTimeline timeline = RequestTimeline.start(ObservationRegistry.NOOP);
+        RequestTimeline.Phase phase = timeline.phase("serialization");
+
+        phase.close();
+        phase.close();
+
+        assertEquals(1, timeline.toServerTiming().split("serialization").length - 1);
+    }
+
+    @Test
+    void wrappedWorkRecordsIntoTheCallersTimeline() {
+        RequestTimeline timeline = RequestTimeline.start(ObservationRegistry.NOOP);
+        Supplier<String> work;
+        try (RequestTimeline.Scope ignored = timeline.bind()) {
+            work = RequestTimeline.wrap(() -> RequestTimeline.current().time("mapping", () -> "mapped"));
+        }
+
+        assertEquals("mapped", CompletableFuture.supplyAsync(work).join());
+        assertTrue(timeline.toServerTiming().startsWith("mapping;dur="));
+        assertFalse(RequestTimeline.current().isRecording());
+    }
+
+    @Test
+    void phasesAreObservedWithTheirName() {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        ObservationRegistry observations = ObservationRegistry.create();
+        observations.observationConfig().observationHandler(new DefaultMeterObservationHandler(meters));
+        RequestTimeline timeline = RequestTimeline.start(observations);
+
+        timeline.phase("rate-limit", "summary #1").close();
+
+        assertEquals(1, meters.get("nlp.request.phase").tag("phase", "rate-limit").timer().count());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.metrics;
+
+import com.example.demo.exception.ServiceUnavailableException;
+import com.example.demo.service.NlpTask;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class UpstreamMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UpstreamMetrics metrics = new UpstreamMetrics(registry);
+
+    @Test
+    void extractsModelFromUpstreamPaths() {
+        assertEquals("bart-large-cnn", UpstreamMetrics.model("/bart-large-cnn/summarization"));
+        assertEquals("chatdolphin", UpstreamMetrics.model("/gpu/chatdolphin/gs-correction"));
+        assertEquals("en_core_web_lg", UpstreamMetrics.model("/v1/en_core_web_lg/entities"));
+        assertEquals("llama-3-1-405b", UpstreamMetrics.model("/v1/gpu/llama-3-1-405b/kw-kp-extraction"));
+    }
+
+    @Test
+    void classifiesOutcomes() {
+        assertEquals("success", UpstreamMetrics.outcome(null));
+        assertEquals("throttled", UpstreamMetrics.outcome(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS)));
+        assertEquals("client_error", UpstreamMetrics.outcome(new HttpClientErrorException(HttpStatus.BAD_REQUEST)));
+        assertEquals("server_error", UpstreamMetrics.outcome(new HttpServerErrorException(HttpStatus.BAD_GATEWAY)));
+        assertEquals("io_error", UpstreamMetrics.outcome(new ResourceAccessException("timed out")));
+        assertEquals("rejected", UpstreamMetrics.outcome(new ServiceUnavailableException("busy", Duration.ofSeconds(1))));
+        assertEquals("error", UpstreamMetrics.outcome(new IllegalStateException()));
+    }
+
+    @Test
+    void tracksInFlightCallsAndTagsCompletedOnes() {
+        metrics.callStarted(NlpTask.SUMMARY);
+        assertEquals(1.0, registry.get("nlp.upstream.in.flight").tag("task", "summary").gauge().value());
+
+        metrics.callFinished(NlpTask.SUMMARY, "/bart-large-cnn/summarization", null, 1_000_000);
+
+        assertEquals(0.0, registry.get("nlp.upstream.in.flight").tag("task", "summary").gauge().value());
+        assertEquals(1, registry.get("nlp.upstream.calls")
+                .tags("task", "summary", "model", "bart-large-cnn", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void interceptorRecordsRequestAndResponseSizes() {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new UpstreamSizeInterceptor(metrics));
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(requestTo("http://upstream/v1/bart-large-cnn/summarization"))
+                .andRespond(withSuccess("{\"summary_text\":\"ok\"}", MediaType.APPLICATION_JSON));
+
+        restTemplate.postForObject("http://upstream/v1/bart-large-cnn/summarization", Map.of("text", "note"), String.class);
+
+        assertEquals(15.0, registry.get("nlp.upstream.request.size").tag("model", "bart-large-cnn").summary().totalAmount());
+        assertEquals(21.0, registry.get("nlp.upstream.response.size").tag("model", "bart-large-cnn").summary().totalAmount());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.resilience;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveRateLimiterTest {
+
+    private static final String PATH = "/bart-large-cnn/summarization";
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private NlpCloudProperties properties;
+    private AdaptiveRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new NlpCloudProperties();
+        NlpCloudProperties.RateLimit rateLimit = properties.getRateLimit();
+        rateLimit.setInitialRate(1.0);
+        rateLimit.setBurst(2);
+        rateLimit.setMaxWait(Duration.ZERO);
+        limiter = new AdaptiveRateLimiter(properties, now::get);
+    }
+
+    @Test
+    void allowsBurstThenFailsFastWhenWaitExceedsLimit() {
+        limiter.acquire(PATH);
+        limiter.acquire(PATH);
+        limiter.acquire(PATH);
+
+        ServiceUnavailableException ex = assertThrows(ServiceUnavailableException.class, () -> limiter.acquire(PATH));
+        assertTrue(ex.getRetryAfter().compareTo(Duration.ZERO) > 0);
+        assertEquals(1, limiter.stats().get(PATH).rejected());
+    }
+
+    @Test
+    void refillsAtConfiguredRate() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(PATH);
+        }
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+        assertDoesNotThrow(() -> limiter.acquire(PATH));
+    }
+
+    @Test
+    void halvesRateOnThrottleAndRecoversAdditively() {
+        limiter.onThrottled(PATH, null);
+        assertEquals(0.5, limiter.stats().get(PATH).ratePerSecond(), 1e-9);
+
+        limiter.onThrottled(PATH, null);
+        assertEquals(0.5, limiter.stats().get(PATH).ratePerSecond(), 1e-9, "decreases at most once per second");
+
+        limiter.onSuccess(PATH);
+        assertEquals(0.55, limiter.stats().get(PATH).ratePerSecond(), 1e-9);
+    }
+
+    @Test
+    void honoursRetryAfterPause() {
+        limiter.onThrottled(PATH, Duration.ofSeconds(30));
+
+        assertThrows(ServiceUnavailableException.class, () -> limiter.acquire(PATH));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        assertDoesNotThrow(() -> limiter.acquire(PATH));
+    }
+
+    @Test
+    void usesPerModelRateOverrides() {
+        properties.getRateLimit().getRates().put("llama-3-1-405b", 0.25);
+
+        limiter.acquire("/gpu/llama-3-1-405b/kw-kp-extraction");
+
+        assertEquals(0.25, limiter.stats().get("/gpu/llama-3-1-405b/kw-kp-extraction").ratePerSecond(), 1e-9);
+    }
+
+    @Test
+    void parsesRetryAfterSecondsAndDates() {
+        HttpHeaders seconds = new HttpHeaders();
+        seconds.set(HttpHeaders.RETRY_AFTER, "12");
+        HttpHeaders invalid = new HttpHeaders();
+        invalid.set(HttpHeaders.RETRY_AFTER, "soon");
+        HttpHeaders past = new HttpHeaders();
+        past.set(HttpHeaders.RETRY_AFTER, "Wed, 21 Oct 2015 07:28:00 GMT");
+
+        assertEquals(Duration.ofSeconds(12), AdaptiveRateLimiter.parseRetryAfter(seconds));
+        assertNull(AdaptiveRateLimiter.parseRetryAfter(invalid));
+        assertEquals(Duration.ZERO, AdaptiveRateLimiter.parseRetryAfter(past));
+        assertNull(AdaptiveRateLimiter.parseRetryAfter(new HttpHeaders()));
+    }
+}
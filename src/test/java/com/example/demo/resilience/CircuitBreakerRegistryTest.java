@@ -0,0 +1,131 @@
+package com.example.demo.resilience;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.exception.ServiceUnavailableException;
+import com.example.demo.resilience.CircuitBreakerRegistry.State;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerRegistryTest {
+
+    private static final String PATH = "/gpu/llama-3-1-405b/kw-kp-extraction";
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private CircuitBreakerRegistry breakers;
+
+    @BeforeEach
+    void setUp() {
+        NlpCloudProperties properties = new NlpCloudProperties();
+        NlpCloudProperties.CircuitBreaker settings = properties.getCircuitBreaker();
+        settings.setSlidingWindowSize(10);
+        settings.setMinimumCalls(4);
+        settings.setFailureRateThreshold(50);
+        settings.setSlowCallDuration(Duration.ofSeconds(2));
+        settings.setSlowCallRateThreshold(75);
+        settings.setWaitInOpenState(Duration.ofSeconds(30));
+        settings.setHalfOpenProbes(2);
+        breakers = new CircuitBreakerRegistry(properties, now::get);
+    }
+
+    @Test
+    void staysClosedUntilMinimumCallsRecorded() {
+        record(false);
+        record(true);
+        record(true);
+
+        assertEquals(State.CLOSED, state());
+        assertDoesNotThrow(() -> breakers.acquirePermission(PATH));
+    }
+
+    @Test
+    void opensOnFailureRateAndFailsFast() {
+        record(false);
+        record(false);
+        record(true);
+        record(true);
+
+        assertEquals(State.OPEN, state());
+        ServiceUnavailableException ex = assertThrows(ServiceUnavailableException.class,
+                () -> breakers.acquirePermission(PATH));
+        assertEquals(Duration.ofSeconds(30), ex.getRetryAfter());
+        assertEquals(1, breakers.stats().get(PATH).notPermitted());
+    }
+
+    @Test
+    void opensOnSlowCallRate() {
+        for (int i = 0; i < 4; i++) {
+            breakers.acquirePermission(PATH);
+            breakers.onSuccess(PATH, TimeUnit.SECONDS.toNanos(3));
+        }
+
+        assertEquals(State.OPEN, state());
+    }
+
+    @Test
+    void closesAfterSuccessfulHalfOpenProbes() {
+        tripBreaker();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(31));
+
+        breakers.acquirePermission(PATH);
+        breakers.acquirePermission(PATH);
+        assertEquals(State.HALF_OPEN, state());
+        assertThrows(ServiceUnavailableException.class, () -> breakers.acquirePermission(PATH),
+                "only the configured number of probes is admitted");
+
+        breakers.onSuccess(PATH, FAST);
+        breakers.onSuccess(PATH, FAST);
+
+        assertEquals(State.CLOSED, state());
+    }
+
+    @Test
+    void reopensWhenProbeFails() {
+        tripBreaker();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(31));
+
+        breakers.acquirePermission(PATH);
+        breakers.onFailure(PATH, FAST);
+
+        assertEquals(State.OPEN, state());
+        assertThrows(ServiceUnavailableException.class, () -> breakers.acquirePermission(PATH));
+    }
+
+    @Test
+    void releasedProbeFreesSlot() {
+        tripBreaker();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(31));
+
+        breakers.acquirePermission(PATH);
+        breakers.acquirePermission(PATH);
+        breakers.release(PATH);
+
+        assertDoesNotThrow(() -> breakers.acquirePermission(PATH));
+    }
+
+    private void tripBreaker() {
+        for (int i = 0; i < 4; i++) {
+            record(true);
+        }
+        assertEquals(State.OPEN, state());
+    }
+
+    private void record(boolean failure) {
+        breakers.acquirePermission(PATH);
+        if (failure) {
+            breakers.onFailure(PATH, FAST);
+        } else {
+            breakers.onSuccess(PATH, FAST);
+        }
+    }
+
+    private State state() {
+        return breakers.stats().get(PATH).state();
+    }
+}
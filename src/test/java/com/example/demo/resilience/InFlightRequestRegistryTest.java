@@ -0,0 +1,117 @@
+package com.example.demo.resilience;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.service.NlpTask;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightRequestRegistryTest {
+
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private InFlightRequestRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new InFlightRequestRegistry(new NlpCloudProperties(), meters);
+    }
+
+    @Test
+    void concurrentIdenticalCallsShareOneUpstreamCall() throws Exception {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submitConcurrently(() -> registry.execute(
+                NlpTask.ENTITIES, "/en_core_web_lg/entities", "John Doe was in Paris", () -> {
+                    upstreamCalls.incrementAndGet();
+                    await(release);
+                    return "shared";
+                }), release);
+
+        for (Future<String> result : results) {
+            assertEquals("shared", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(CALLERS - 1, registry.coalescedCallers().get(NlpTask.ENTITIES));
+        assertEquals(CALLERS - 1, meters.get("nlp.upstream.coalesced").tag("task", "entities")
+                .functionCounter().count());
+        assertEquals(0, registry.inFlightCount());
+    }
+
+    @Test
+    void waitersReceiveLeaderFailure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submitConcurrently(() -> registry.execute(
+                NlpTask.GRAMMAR, "/gpu/chatdolphin/gs-correction", "Ths is a bad sentance", () -> {
+                    await(release);
+                    throw new IllegalStateException("upstream down");
+                }), release);
+
+        for (Future<String> result : results) {
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, ex.getCause());
+        }
+    }
+
+    @Test
+    void sequentialCallsAreNotCoalesced() {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+
+        registry.execute(NlpTask.SUMMARY, "/m/summarization", "note", upstreamCalls::incrementAndGet);
+        registry.execute(NlpTask.SUMMARY, "/m/summarization", "note", upstreamCalls::incrementAndGet);
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(0, registry.coalescedCallers().get(NlpTask.SUMMARY));
+    }
+
+    private List<Future<String>> submitConcurrently(Callable<String> call, CountDownLatch release)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(call));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (registry.inFlightCount() == 0 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            // Release the call only once every other caller has joined it.
+            while (coalescedTotal() < CALLERS - 1 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private long coalescedTotal() {
+        return registry.coalescedCallers().values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.resilience;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.exception.ServiceUnavailableException;
+import com.example.demo.service.NlpTask;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskBulkheadTest {
+
+    @Test
+    void rejectsImmediatelyWhenTaskIsFullWithoutAffectingOtherTasks() throws Exception {
+        NlpCloudProperties properties = new NlpCloudProperties();
+        properties.getBulkhead().getMaxConcurrentPerTask().put(NlpTask.KEYWORDS, 1);
+        TaskBulkhead bulkhead = new TaskBulkhead(properties);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> bulkhead.execute(NlpTask.KEYWORDS, () -> {
+                started.countDown();
+                await(release);
+                return "keywords";
+            }), executor);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(ServiceUnavailableException.class, () -> bulkhead.execute(NlpTask.KEYWORDS, () -> "second"));
+            assertEquals("entities", bulkhead.execute(NlpTask.ENTITIES, () -> "entities"));
+
+            release.countDown();
+            assertEquals("keywords", slow.get(5, TimeUnit.SECONDS));
+        }
+
+        TaskBulkhead.BulkheadStats keywords = bulkhead.stats().get(NlpTask.KEYWORDS);
+        assertEquals(1, keywords.maxConcurrent());
+        assertEquals(0, keywords.active());
+        assertEquals(1, keywords.admitted());
+        assertEquals(1, keywords.rejected());
+        assertEquals(16, bulkhead.stats().get(NlpTask.ENTITIES).maxConcurrent());
+    }
+
+    @Test
+    void exportsQueueWaitRejectionsAndActiveSlotsPerTask() throws Exception {
+        NlpCloudProperties properties = new NlpCloudProperties();
+        properties.getBulkhead().getMaxConcurrentPerTask().put(NlpTask.SUMMARY, 1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TaskBulkhead bulkhead = new TaskBulkhead(properties, registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> bulkhead.execute(NlpTask.SUMMARY, () -> {
+                started.countDown();
+                await(release);
+                return "summary";
+            }), executor);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertEquals(1.0, registry.get("nlp.bulkhead.active").tag("task", "summary").gauge().value());
+            assertThrows(ServiceUnavailableException.class, () -> bulkhead.execute(NlpTask.SUMMARY, () -> "second"));
+
+            release.countDown();
+            slow.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(0.0, registry.get("nlp.bulkhead.active").tag("task", "summary").gauge().value());
+        assertEquals(1.0, registry.get("nlp.bulkhead.rejected").tag("task", "summary").functionCounter().count());
+        assertEquals(1, registry.get("nlp.bulkhead.queue.wait").tag("task", "summary").timer().count());
+        assertEquals(0, registry.get("nlp.bulkhead.queue.wait").tag("task", "grammar").timer().count());
+    }
+
+    @Test
+    void passesThroughWhenDisabled() {
+        NlpCloudProperties properties = new NlpCloudProperties();
+        properties.getBulkhead().setEnabled(false);
+        TaskBulkhead bulkhead = new TaskBulkhead(properties);
+
+        assertEquals("ok", bulkhead.execute(NlpTask.SUMMARY, () -> "ok"));
+        assertEquals(0, bulkhead.stats().get(NlpTask.SUMMARY).admitted());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.demo.resilience;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.exception.ServiceUnavailableException;
+import com.example.demo.exception.UpstreamServiceException;
+import com.example.demo.metrics.RequestTimeline;
+import com.example.demo.metrics.UpstreamMetrics;
+import com.example.demo.service.NlpTask;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamCallExecutorTest {
+
+    private static final String PATH = "/bart-large-cnn/summarization";
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private NlpCloudProperties properties;
+    private UpstreamCallExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new NlpCloudProperties();
+        properties.setMaxRetries(2);
+        properties.getRetry().setBaseDelay(Duration.ofMillis(1));
+        properties.getRetry().setMaxDelay(Duration.ofMillis(5));
+        properties.getRateLimit().setEnabled(false);
+        executor = new UpstreamCallExecutor(properties, new AdaptiveRateLimiter(properties),
+                new CircuitBreakerRegistry(properties), new UpstreamMetrics(registry),
+                new RetryBudget(0.1, 10.0, now::get));
+    }
+
+    @Test
+    void retriesTransientFailuresUntilSuccess() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = executor.execute(NlpTask.SUMMARY, PATH, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void retriesOnTheCallingThread() {
+        List<Thread> threads = new ArrayList<>();
+
+        executor.execute(NlpTask.SUMMARY, PATH, () -> {
+            threads.add(Thread.currentThread());
+            if (threads.size() < 3) {
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return "ok";
+        });
+
+        assertEquals(List.of(Thread.currentThread(), Thread.currentThread(), Thread.currentThread()), threads);
+    }
+
+    @Test
+    void refusesToStartWithRetriesButWithoutVirtualThreads() {
+        properties.getVirtualThreads().setEnabled(false);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> new UpstreamCallExecutor(properties,
+                new AdaptiveRateLimiter(properties), new CircuitBreakerRegistry(properties), new UpstreamMetrics(registry)));
+        assertTrue(ex.getMessage().contains("spring.threads.virtual.enabled"), ex.getMessage());
+
+        properties.setMaxRetries(0);
+        assertDoesNotThrow(() -> new UpstreamCallExecutor(properties, new AdaptiveRateLimiter(properties),
+                new CircuitBreakerRegistry(properties), new UpstreamMetrics(registry)));
+    }
+
+    @Test
+    void recordsAttemptsRetriesAndCallOutcome() {
+        AtomicInteger calls = new AtomicInteger();
+
+        executor.execute(NlpTask.SUMMARY, PATH, () -> {
+            if (calls.incrementAndGet() < 2) {
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return "ok";
+        });
+
+        assertEquals(1, registry.get("nlp.upstream.attempts").tag("outcome", "server_error").timer().count());
+        assertEquals(1, registry.get("nlp.upstream.attempts").tag("outcome", "success").timer().count());
+        assertEquals(1.0, registry.get("nlp.upstream.retries").tags("task", "summary", "model", "bart-large-cnn")
+                .counter().count());
+        assertEquals(1, registry.get("nlp.upstream.backoff").timer().count());
+        assertEquals(1, registry.get("nlp.upstream.calls").tag("outcome", "success").timer().count());
+        assertEquals(0.0, registry.get("nlp.upstream.in.flight").tag("task", "summary").gauge().value());
+    }
+
+    @Test
+    void recordsAttemptsAndBackoffInTheCallersTimeline() {
+        AtomicInteger calls = new AtomicInteger();
+        RequestTimeline timeline = RequestTimeline.start(ObservationRegistry.NOOP);
+
+        try (RequestTimeline.Scope ignored = timeline.bind()) {
+            executor.execute(NlpTask.SUMMARY, PATH, () -> {
+                if (calls.incrementAndGet() < 2) {
+                    throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+                }
+                return RequestTimeline.current().time("mapping", () -> "ok");
+            });
+        }
+
+        String header = timeline.toServerTiming();
+        assertTrue(header.contains("upstream;desc=\"summary #1\""), header);
+        assertTrue(header.contains("backoff;desc=\"summary #1\""), header);
+        assertTrue(header.contains("mapping;dur="), header);
+        assertTrue(header.contains("upstream;desc=\"summary #2\""), header);
+    }
+
+    @Test
+    void stopsAfterMaxRetriesAndMapsFailure() {
+        AtomicInteger calls = new AtomicInteger();
+
+        UpstreamServiceException ex = assertThrows(UpstreamServiceException.class, () -> executor.execute(NlpTask.SUMMARY, PATH, () -> {
+            calls.incrementAndGet();
+            throw new ResourceAccessException("Read timed out");
+        }));
+
+        assertEquals(3, calls.get());
+        assertInstanceOf(ResourceAccessException.class, ex.getCause());
+    }
+
+    @Test
+    void doesNotRetryNonRetryableStatuses() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(UpstreamServiceException.class, () -> executor.execute(NlpTask.SUMMARY, PATH, () -> {
+            calls.incrementAndGet();
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+        }));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void passesLocalRejectionsThroughWithoutRetrying() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ServiceUnavailableException.class, () -> executor.execute(NlpTask.SUMMARY, PATH, () -> {
+            calls.incrementAndGet();
+            throw new ServiceUnavailableException("busy", Duration.ofSeconds(1));
+        }));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void stopsRetryingWhenBudgetIsExhausted() {
+        executor = new UpstreamCallExecutor(properties, new AdaptiveRateLimiter(properties),
+                new CircuitBreakerRegistry(properties), new UpstreamMetrics(registry),
+                new RetryBudget(0.1, 1.0, now::get));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(UpstreamServiceException.class, () -> executor.execute(NlpTask.SUMMARY, PATH, () -> {
+            calls.incrementAndGet();
+            throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+        }));
+
+        assertEquals(2, calls.get(), "initial balance allows a single retry");
+        assertEquals(1, executor.retryBudgetExhausted());
+        assertEquals(1.0, registry.counter("nlp.upstream.retry.budget.exhausted",
+                "task", "summary", "model", "bart-large-cnn").count());
+    }
+}
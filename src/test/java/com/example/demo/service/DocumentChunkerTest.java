@@ -0,0 +1,85 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentChunkerTest {
+
+    private final DocumentChunker chunker = new DocumentChunker(600, 1200, 150);
+
+    @Test
+    void keepsShortDocumentsInOneChunk() {
+        assertEquals(List.of("Patient stable. Discharged home."), chunker.split("  Patient stable. Discharged home.\n"));
+    }
+
+    @Test
+    void chunksStayWithinLimitsAndEndOnSentences() {
+        List<String> chunks = chunker.split(document(200, -1));
+
+        assertTrue(chunks.size() > 5, "chunks: " + chunks.size());
+        for (String chunk : chunks) {
+            assertTrue(chunk.length() <= 1200, "chunk of " + chunk.length());
+            assertTrue(chunk.endsWith("."), chunk);
+        }
+        for (String chunk : chunks.subList(0, chunks.size() - 1)) {
+            assertTrue(chunk.length() >= 600, "chunk of " + chunk.length());
+        }
+    }
+
+    @Test
+    void repeatsTheEndOfThePreviousChunk() {
+        List<String> chunks = chunker.split(document(200, -1));
+
+        for (int i = 1; i < chunks.size(); i++) {
+            String previous = chunks.get(i - 1);
+            String firstSentence = chunks.get(i).substring(0, chunks.get(i).indexOf(" C,"));
+            String overlap = previous.substring(previous.lastIndexOf(firstSentence));
+            assertTrue(chunks.get(i).startsWith(overlap), "chunk " + i + " does not overlap its predecessor");
+            assertTrue(overlap.length() <= 150, "overlap of " + overlap.length());
+        }
+    }
+
+    @Test
+    void anEditOnlyChangesNearbyChunks() {
+        List<String> original = chunker.split(document(200, -1));
+        List<String> edited = chunker.split(document(200, 100));
+
+        Set<String> unchanged = new HashSet<>(original);
+        unchanged.retainAll(Set.copyOf(edited));
+        assertTrue(original.size() - unchanged.size() <= 3,
+                (original.size() - unchanged.size()) + " of " + original.size() + " chunks changed");
+    }
+
+    @Test
+    void splitsRunOnTextAtWhitespace() {
+        String runOn = IntStream.range(0, 400).mapToObj(i -> "word" + i).collect(Collectors.joining(" "));
+
+        List<String> chunks = new DocumentChunker(100, 500, 0).split(runOn);
+
+        assertTrue(chunks.size() > 1);
+        assertTrue(chunks.stream().allMatch(chunk -> chunk.length() <= 500));
+        assertEquals(runOn, String.join(" ", chunks));
+    }
+
+    @Test
+    void rejectsInconsistentSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new DocumentChunker(1000, 1200, 400));
+        assertThrows(IllegalArgumentException.class, () -> new DocumentChunker(100, 1200, -1));
+    }
+
+    private static String document(int days, int editedDay) {
+        return IntStream.range(0, days)
+                .mapToObj(day -> "Day " + day + ": temperature " + (36 + day % 3) + "." + (day * 7 % 10)
+                        + " C, heart rate " + (60 + day * 13 % 40) + ", "
+                        + (day == editedDay ? "antibiotics switched to oral amoxicillin" : "continued on IV ceftriaxone")
+                        + ".")
+                .collect(Collectors.joining(" "));
+    }
+}
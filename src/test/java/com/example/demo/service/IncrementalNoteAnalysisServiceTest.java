@@ -0,0 +1,111 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.dto.Entity;
+import com.example.demo.dto.EntityExtractionResponse;
+import com.example.demo.dto.GrammarResponse;
+import com.example.demo.exception.UpstreamServiceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IncrementalNoteAnalysisServiceTest {
+
+    private static final String NOTE = "HPI: pt has chest pain since yesterday.\n\n"
+            + "  Exam: BP 150/90, lungs clear.\r\n \r\n\n"
+            + "Plan: start aspirin, follow up in 2 weeks.\n";
+
+    private UnifiedNlpService nlpService;
+    private IncrementalNoteAnalysisService service;
+
+    @BeforeEach
+    void setUp() {
+        nlpService = mock(UnifiedNlpService.class);
+        service = new IncrementalNoteAnalysisService(nlpService, new NlpCloudProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void splitsAtBlankLinesAndTrimsParagraphs() {
+        List<IncrementalNoteAnalysisService.Paragraph> paragraphs = IncrementalNoteAnalysisService.paragraphs(NOTE);
+
+        assertEquals(List.of("HPI: pt has chest pain since yesterday.", "Exam: BP 150/90, lungs clear.",
+                        "Plan: start aspirin, follow up in 2 weeks."),
+                paragraphs.stream().map(IncrementalNoteAnalysisService.Paragraph::text).toList());
+        for (IncrementalNoteAnalysisService.Paragraph paragraph : paragraphs) {
+            assertEquals(paragraph.text(), NOTE.substring(paragraph.start(), paragraph.end()));
+        }
+    }
+
+    @Test
+    void correctsParagraphsAndKeepsTheirSeparators() {
+        when(nlpService.checkGrammar(any())).thenAnswer(inv -> new GrammarResponse(
+                inv.<ClinicalNoteRequest>getArgument(0).getNote().replace("pt has", "Patient has") + "\n",
+                List.of()));
+
+        GrammarResponse response = service.checkGrammar(new ClinicalNoteRequest(NOTE, "Hypertension"));
+
+        assertEquals(NOTE.replace("pt has", "Patient has"), response.getCorrectedText());
+        verify(nlpService).checkGrammar(argThat(r -> r.getNote().startsWith("Exam:")
+                && "Hypertension".equals(r.getPatientContext())));
+    }
+
+    @Test
+    void unchangedParagraphsProduceIdenticalRequests() {
+        when(nlpService.checkGrammar(any())).thenReturn(new GrammarResponse("ok", List.of()));
+        service.checkGrammar(new ClinicalNoteRequest(NOTE, null));
+        service.checkGrammar(new ClinicalNoteRequest(NOTE.replace("2 weeks", "1 week"), null));
+
+        ArgumentCaptor<ClinicalNoteRequest> requests = ArgumentCaptor.forClass(ClinicalNoteRequest.class);
+        verify(nlpService, atLeastOnce()).checkGrammar(requests.capture());
+        Set<String> distinct = new HashSet<>();
+        requests.getAllValues().forEach(r -> distinct.add(r.getNote()));
+
+        // Identical paragraph prompts share a response cache entry, so only the edited paragraph is new.
+        assertEquals(4, distinct.size());
+    }
+
+    @Test
+    void rebasesEntityOffsetsOntoTheFullNote() {
+        when(nlpService.extractEntities(any())).thenReturn(new EntityExtractionResponse(List.of()));
+        when(nlpService.extractEntities(argThat(r -> r != null && r.getNote().startsWith("Plan:"))))
+                .thenReturn(new EntityExtractionResponse(List.of(
+                        new Entity("MEDICATION", "aspirin", 12, 19, 0.9),
+                        new Entity("DURATION", "2 weeks", 0, 7, 0.8))));
+
+        List<Entity> entities = service.extractEntities(new ClinicalNoteRequest(NOTE, null)).getEntities();
+
+        assertEquals(2, entities.size());
+        for (Entity entity : entities) {
+            assertEquals(entity.getText(), NOTE.substring(entity.getStart(), entity.getEnd()));
+        }
+    }
+
+    @Test
+    void failsWhenAnyParagraphFails() {
+        when(nlpService.extractEntities(any())).thenReturn(new EntityExtractionResponse(List.of()));
+        when(nlpService.extractEntities(argThat(r -> r != null && r.getNote().startsWith("Exam:"))))
+                .thenThrow(new UpstreamServiceException("Model overloaded"));
+
+        assertThrows(UpstreamServiceException.class,
+                () -> service.extractEntities(new ClinicalNoteRequest(NOTE, null)));
+    }
+}
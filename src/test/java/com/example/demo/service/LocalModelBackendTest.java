@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.dto.Entity;
+import com.example.demo.dto.SummaryResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalModelBackendTest {
+
+    private static final String NOTE = "Seen in clinic today. Known hypertension and type 2 diabetes mellitus, "
+            + "on metformin and lisinopril. Reports intermittent chest pain on exertion. Weather was pleasant. "
+            + "Troponin I negative, ECG unchanged. Plan to start atorvastatin.";
+
+    private final NlpCloudProperties properties = new NlpCloudProperties();
+
+    private LocalModelBackend backend() {
+        return new LocalModelBackend(properties, new LocalTermExtractor(properties));
+    }
+
+    @Test
+    void summarizesWithTheSentencesCarryingTheMostClinicalTerms() {
+        properties.getLocalModel().setSummarySentences(2);
+
+        SummaryResponse summary = backend().summarize(new ClinicalNoteRequest(NOTE, null)).orElseThrow();
+
+        assertEquals("Known hypertension and type 2 diabetes mellitus, on metformin and lisinopril. "
+                + "Troponin I negative, ECG unchanged.", summary.getSummary());
+        assertEquals(List.of("hypertension", "type 2 diabetes mellitus"), summary.getKeyFindings());
+    }
+
+    @Test
+    void leavesEntitiesToTheLocalExtractionPolicy() {
+        LocalModelBackend backend = backend();
+
+        assertFalse(backend.supports(NlpTask.ENTITIES));
+        assertTrue(backend.extractEntities(new ClinicalNoteRequest(NOTE, null)).isEmpty());
+    }
+
+    @Test
+    void declinesNotesItCannotHandleWell() {
+        properties.getLocalModel().setMaxNoteChars(100);
+        LocalModelBackend backend = backend();
+
+        assertTrue(backend.summarize(new ClinicalNoteRequest(NOTE, null)).isEmpty());
+        assertTrue(backend.summarize(new ClinicalNoteRequest("Feels well, no complaints.", null)).isEmpty());
+    }
+
+    @Test
+    void declinesWhenNoSessionIsFreeInTime() throws Exception {
+        properties.getLocalModel().setSessions(1);
+        properties.getLocalModel().setAcquireTimeout(Duration.ofMillis(10));
+        CountDownLatch inSession = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LocalModelBackend backend = new LocalModelBackend(properties, new LocalTermExtractor(properties) {
+            @Override
+            public List<Entity> localEntities(String note) {
+                if (note.startsWith("Slow")) {
+                    inSession.countDown();
+                    await(release);
+                }
+                return super.localEntities(note);
+            }
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<SummaryResponse>> slow =
+                    executor.submit(() -> backend.summarize(new ClinicalNoteRequest("Slow: on warfarin.", null)));
+            inSession.await();
+
+            assertTrue(backend.summarize(new ClinicalNoteRequest("On warfarin.", null)).isEmpty());
+            release.countDown();
+            assertTrue(slow.get().isPresent());
+        }
+        assertTrue(backend.summarize(new ClinicalNoteRequest("On warfarin.", null)).isPresent());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.config.NlpCloudProperties.LocalExtraction.Mode;
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.dto.Entity;
+import com.example.demo.dto.EntityExtractionResponse;
+import com.example.demo.dto.KeywordResponse;
+import com.example.demo.exception.UpstreamServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalTermExtractorTest {
+
+    private static final String NOTE = "Admitted with community-acquired pneumonia. Started ceftriaxone and azithromycin.";
+
+    private final NlpCloudProperties properties = new NlpCloudProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private LocalTermExtractor extractor() {
+        return new LocalTermExtractor(properties, new DefaultResourceLoader(), registry);
+    }
+
+    private KeywordResponse upstreamKeywords() {
+        upstreamCalls.incrementAndGet();
+        return new KeywordResponse(List.of("Ceftriaxone", " antibiotics "));
+    }
+
+    private double count(String task, String source) {
+        return registry.counter("nlp.local.extractions", "task", task, "source", source).count();
+    }
+
+    @Test
+    void upstreamModeLeavesEveryNoteToNlpCloud() {
+        KeywordResponse response = extractor().keywords(new ClinicalNoteRequest(NOTE, null), this::upstreamKeywords);
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(List.of("Ceftriaxone", " antibiotics "), response.getKeywords());
+    }
+
+    @Test
+    void localModeAnswersFromTheBundledDictionaryWithExactOffsets() {
+        properties.getLocalExtraction().setEntities(Mode.LOCAL);
+
+        EntityExtractionResponse response = extractor().entities(new ClinicalNoteRequest(NOTE, null), () -> {
+            throw new AssertionError("NLP Cloud must not be called");
+        });
+
+        assertEquals(List.of("PROBLEM", "DRUG", "DRUG"),
+                response.getEntities().stream().map(Entity::getEntity).toList());
+        for (Entity entity : response.getEntities()) {
+            assertEquals(entity.getText(), NOTE.substring(entity.getStart(), entity.getEnd()));
+        }
+        assertEquals(1.0, count("entities", "local"));
+    }
+
+    @Test
+    void localFirstSkipsNlpCloudWhenEnoughTermsMatch() {
+        properties.getLocalExtraction().setKeywords(Mode.LOCAL_FIRST);
+
+        KeywordResponse response = extractor().keywords(new ClinicalNoteRequest(NOTE, null), this::upstreamKeywords);
+
+        assertEquals(0, upstreamCalls.get());
+        assertEquals(List.of("community-acquired pneumonia", "ceftriaxone", "azithromycin"), response.getKeywords());
+    }
+
+    @Test
+    void localFirstEnrichesSparseMatchesWithNlpCloudResults() {
+        properties.getLocalExtraction().setKeywords(Mode.LOCAL_FIRST);
+
+        KeywordResponse response = extractor().keywords(
+                new ClinicalNoteRequest("Switched to ceftriaxone.", null), this::upstreamKeywords);
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(List.of("ceftriaxone", "antibiotics"), response.getKeywords());
+        assertEquals(1.0, count("keywords", "enriched"));
+    }
+
+    @Test
+    void localFirstKeepsLocalSpansOverOverlappingUpstreamEntities() {
+        properties.getLocalExtraction().setEntities(Mode.LOCAL_FIRST);
+        String note = "Chest pain after starting metoprolol.";
+
+        EntityExtractionResponse response = extractor().entities(new ClinicalNoteRequest(note, null),
+                () -> new EntityExtractionResponse(List.of(
+                        new Entity("DRUG", "metoprolol.", 26, 37, 0.7),
+                        new Entity("EVENT", "after starting", 11, 25, 0.6))));
+
+        assertEquals(List.of("chest pain", "after starting", "metoprolol"),
+                response.getEntities().stream().map(entity -> entity.getText().toLowerCase()).toList());
+    }
+
+    @Test
+    void localFirstFallsBackToLocalMatchesWhenNlpCloudFails() {
+        properties.getLocalExtraction().setKeywords(Mode.LOCAL_FIRST);
+        LocalTermExtractor extractor = extractor();
+
+        KeywordResponse response = extractor.keywords(new ClinicalNoteRequest("On warfarin.", null), () -> {
+            throw new UpstreamServiceException("circuit open");
+        });
+
+        assertEquals(List.of("warfarin"), response.getKeywords());
+        assertEquals(1.0, count("keywords", "fallback"));
+        assertThrows(UpstreamServiceException.class, () -> extractor.keywords(
+                new ClinicalNoteRequest("Feels well.", null), () -> {
+                    throw new UpstreamServiceException("circuit open");
+                }));
+    }
+
+    @Test
+    void failsAtStartupWhenTheDictionaryIsMissing() {
+        properties.getLocalExtraction().setDictionary("classpath:nlp/missing.tsv");
+
+        assertThrows(IllegalStateException.class, this::extractor);
+    }
+}
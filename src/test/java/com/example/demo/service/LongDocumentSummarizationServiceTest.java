@@ -0,0 +1,154 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.dto.LongDocumentRequest;
+import com.example.demo.dto.LongDocumentSummaryResponse;
+import com.example.demo.dto.SummaryResponse;
+import com.example.demo.exception.InvalidRequestException;
+import com.example.demo.exception.UpstreamServiceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LongDocumentSummarizationServiceTest {
+
+    private UnifiedNlpService nlpService;
+    private NlpCloudProperties properties;
+    private LongDocumentSummarizationService service;
+
+    @BeforeEach
+    void setUp() {
+        nlpService = mock(UnifiedNlpService.class);
+        properties = new NlpCloudProperties();
+        properties.getLongDocument().setMinChunkChars(300);
+        properties.getLongDocument().setMaxChunkChars(600);
+        properties.getLongDocument().setOverlapChars(100);
+        service = new LongDocumentSummarizationService(nlpService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void summarizesChunksWithinConcurrencyLimitAndCombinesThemInOrder() {
+        properties.getLongDocument().setMaxConcurrency(2);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(nlpService.summarize(any())).thenAnswer(inv -> {
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            active.decrementAndGet();
+            String note = inv.<ClinicalNoteRequest>getArgument(0).getNote();
+            return new SummaryResponse("S" + note.substring(note.lastIndexOf("Day ") + 4, note.lastIndexOf(':')));
+        });
+        when(nlpService.combineSummaries(anyList(), eq("Admitted for pneumonia")))
+                .thenAnswer(inv -> new SummaryResponse(String.join("+", inv.<List<String>>getArgument(0))));
+
+        LongDocumentSummaryResponse response = service.summarize(
+                new LongDocumentRequest(document(60), "Admitted for pneumonia"));
+
+        List<String> sections = response.getSectionSummaries();
+        assertTrue(sections.size() > 3, "sections: " + sections);
+        assertEquals(sections.size(), response.getChunkCount());
+        assertEquals(String.join("+", sections), response.getSummary());
+        assertEquals("S59", sections.get(sections.size() - 1));
+        assertTrue(peak.get() <= 2, "peak concurrency was " + peak.get());
+    }
+
+    @Test
+    void combinesInGroupsWhenSectionSummariesDoNotFitOnePrompt() {
+        String longSummary = "x".repeat(250);
+        when(nlpService.summarize(any())).thenReturn(new SummaryResponse(longSummary));
+        when(nlpService.combineSummaries(anyList(), any())).thenReturn(new SummaryResponse("combined"));
+
+        LongDocumentSummaryResponse response = service.summarize(new LongDocumentRequest(document(60), null));
+
+        assertEquals("combined", response.getSummary());
+        int sections = response.getChunkCount();
+        // Two 250-character summaries fit in 600 characters, so the first level halves the count.
+        verify(nlpService, times((sections / 2) + 1)).combineSummaries(anyList(), any());
+    }
+
+    @Test
+    void shortDocumentsNeedNoReduceStep() {
+        when(nlpService.summarize(any())).thenReturn(new SummaryResponse("Stable."));
+
+        LongDocumentSummaryResponse response = service.summarize(
+                new LongDocumentRequest("Patient admitted with chest pain. Troponin negative. Discharged.", null));
+
+        assertEquals("Stable.", response.getSummary());
+        assertEquals(1, response.getChunkCount());
+        verify(nlpService, never()).combineSummaries(anyList(), any());
+    }
+
+    @Test
+    void failsWhenAnyChunkFails() {
+        when(nlpService.summarize(any())).thenReturn(new SummaryResponse("ok"));
+        when(nlpService.summarize(argThat(n -> n != null && n.getNote().contains("Day 30:"))))
+                .thenThrow(new UpstreamServiceException("Model overloaded"));
+
+        UpstreamServiceException ex = assertThrows(UpstreamServiceException.class,
+                () -> service.summarize(new LongDocumentRequest(document(60), null)));
+        assertEquals("Model overloaded", ex.getMessage());
+    }
+
+    @Test
+    void failsWhenTheDeadlinePasses() {
+        properties.getLongDocument().setTimeout(Duration.ofMillis(100));
+        when(nlpService.summarize(any())).thenAnswer(inv -> {
+            Thread.sleep(5_000);
+            return new SummaryResponse("late");
+        });
+
+        assertThrows(UpstreamServiceException.class, () -> service.summarize(new LongDocumentRequest(document(60), null)));
+    }
+
+    @Test
+    void theFinalCombineStepSharesTheDeadline() {
+        properties.getLongDocument().setTimeout(Duration.ofMillis(200));
+        when(nlpService.summarize(any())).thenReturn(new SummaryResponse("ok"));
+        when(nlpService.combineSummaries(anyList(), any())).thenAnswer(inv -> {
+            Thread.sleep(5_000);
+            return new SummaryResponse("late");
+        });
+
+        long started = System.nanoTime();
+        assertThrows(UpstreamServiceException.class, () -> service.summarize(new LongDocumentRequest(document(60), null)));
+        assertTrue(System.nanoTime() - started < Duration.ofSeconds(2).toNanos(), "waited past the deadline");
+    }
+
+    @Test
+    void rejectsDocumentsOverTheConfiguredLimit() {
+        properties.getLongDocument().setMaxDocumentChars(1000);
+
+        assertThrows(InvalidRequestException.class, () -> service.summarize(new LongDocumentRequest(document(60), null)));
+        verify(nlpService, never()).summarize(any());
+    }
+
+    private static String document(int days) {
+        return IntStream.range(0, days)
+                .mapToObj(day -> "Day " + day + ": afebrile, heart rate " + (60 + day * 13 % 40)
+                        + ", continued on IV ceftriaxone.")
+                .collect(Collectors.joining(" "));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MedicalTermDictionaryTest {
+
+    private static MedicalTermDictionary dictionary(String lines) throws IOException {
+        return MedicalTermDictionary.read(new StringReader(lines));
+    }
+
+    @Test
+    void findsTermsIgnoringCaseWithExactOffsets() throws IOException {
+        MedicalTermDictionary terms = dictionary("""
+                # drugs
+                DRUG\tapixaban
+                DRUG\tNT-proBNP
+
+                PROBLEM\tatrial fibrillation
+                """);
+        String note = "Paroxysmal Atrial Fibrillation on APIXABAN; NT-proBNP 1200.";
+
+        List<MedicalTermDictionary.Match> found = terms.find(note);
+
+        assertEquals(3, found.size());
+        assertEquals(new MedicalTermDictionary.Match(11, 30, "atrial fibrillation", "PROBLEM"), found.get(0));
+        assertEquals("APIXABAN", note.substring(found.get(1).start(), found.get(1).end()));
+        assertEquals("DRUG", found.get(2).type());
+        assertEquals("NT-proBNP", note.substring(found.get(2).start(), found.get(2).end()));
+    }
+
+    @Test
+    void prefersTheLeftmostLongestMatch() throws IOException {
+        MedicalTermDictionary terms = dictionary("""
+                PROBLEM\theart failure
+                PROBLEM\theart failure with reduced ejection fraction
+                PROBLEM\tfailure
+                ANATOMY\theart
+                """);
+
+        List<MedicalTermDictionary.Match> found =
+                terms.find("Heart failure with reduced ejection fraction; heart failure; heart.");
+
+        assertEquals(List.of("heart failure with reduced ejection fraction", "heart failure", "heart"),
+                found.stream().map(MedicalTermDictionary.Match::term).toList());
+    }
+
+    @Test
+    void onlyMatchesWholeWords() throws IOException {
+        MedicalTermDictionary terms = dictionary("PROBLEM\tgout\nANATOMY\tliver\n");
+
+        assertTrue(terms.find("Outgoing, delivered, liverwort").isEmpty());
+        assertEquals(2, terms.find("gout (liver)").size());
+    }
+
+    @Test
+    void fallsBackToTermsStartingInsideAPartialMatch() throws IOException {
+        MedicalTermDictionary terms = dictionary("ANATOMY\tleft lower lobe\nANATOMY\tlower extremity\n");
+
+        List<MedicalTermDictionary.Match> found = terms.find("left lower extremity edema");
+
+        assertEquals(List.of(new MedicalTermDictionary.Match(5, 20, "lower extremity", "ANATOMY")), found);
+    }
+
+    @Test
+    void rejectsMalformedLines() {
+        IllegalArgumentException error =
+                assertThrows(IllegalArgumentException.class, () -> dictionary("DRUG\taspirin\nwarfarin\n"));
+
+        assertTrue(error.getMessage().startsWith("Line 2"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.AnalysisResponse;
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.dto.EntityExtractionResponse;
+import com.example.demo.dto.GrammarResponse;
+import com.example.demo.dto.KeywordResponse;
+import com.example.demo.dto.SummaryResponse;
+import com.example.demo.exception.UpstreamServiceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NlpAnalysisServiceTest {
+
+    private final ClinicalNoteRequest request =
+            new ClinicalNoteRequest("Patient presents with chest pain and shortness of breath.", null);
+
+    private UnifiedNlpService nlpService;
+    private NlpCloudProperties properties;
+    private NlpAnalysisService analysisService;
+
+    @BeforeEach
+    void setUp() {
+        nlpService = mock(UnifiedNlpService.class);
+        properties = new NlpCloudProperties();
+        analysisService = new NlpAnalysisService(nlpService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        analysisService.shutdown();
+    }
+
+    @Test
+    void runsTasksConcurrentlyWithinSlowestTaskLatency() {
+        when(nlpService.checkGrammar(any())).thenAnswer(inv -> delayed(300, new GrammarResponse("ok", List.of())));
+        when(nlpService.summarize(any())).thenAnswer(inv -> delayed(300, new SummaryResponse("summary")));
+        when(nlpService.keywords(any())).thenAnswer(inv -> delayed(300, new KeywordResponse(List.of("chest pain"))));
+        when(nlpService.extractEntities(any())).thenAnswer(inv -> delayed(300, new EntityExtractionResponse(List.of())));
+
+        long start = System.nanoTime();
+        AnalysisResponse response = analysisService.analyzeAll(request);
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertTrue(elapsedMillis < 1000, "expected parallel execution but took " + elapsedMillis + "ms");
+        assertEquals("ok", response.getGrammar().getCorrectedText());
+        assertEquals("summary", response.getSummary().getSummary());
+        assertEquals(List.of("chest pain"), response.getKeywords().getKeywords());
+        assertNotNull(response.getEntities());
+        assertTrue(response.getErrors().isEmpty());
+    }
+
+    @Test
+    void reportsFailedAndTimedOutTasksAlongsidePartialResults() {
+        properties.getAnalysis().setDeadline(Duration.ofMillis(200));
+        when(nlpService.checkGrammar(any())).thenReturn(new GrammarResponse("ok", List.of()));
+        when(nlpService.summarize(any())).thenThrow(new UpstreamServiceException("Upstream unavailable"));
+        when(nlpService.keywords(any())).thenAnswer(inv -> delayed(2000, new KeywordResponse(List.of())));
+        when(nlpService.extractEntities(any())).thenReturn(new EntityExtractionResponse(List.of()));
+
+        AnalysisResponse response = analysisService.analyzeAll(request);
+
+        assertNotNull(response.getGrammar());
+        assertNotNull(response.getEntities());
+        assertNull(response.getSummary());
+        assertNull(response.getKeywords());
+        assertEquals("Upstream unavailable", response.getErrors().get("summary").getMessage());
+        assertEquals("Timed out waiting for NLP result", response.getErrors().get("keywords").getMessage());
+    }
+
+    @Test
+    void failsWhenEveryTaskFails() {
+        UpstreamServiceException failure = new UpstreamServiceException("Upstream unavailable");
+        when(nlpService.checkGrammar(any())).thenThrow(failure);
+        when(nlpService.summarize(any())).thenThrow(failure);
+        when(nlpService.keywords(any())).thenThrow(failure);
+        when(nlpService.extractEntities(any())).thenThrow(failure);
+
+        assertThrows(UpstreamServiceException.class, () -> analysisService.analyzeAll(request));
+    }
+
+    private static <T> T delayed(long millis, T value) throws InterruptedException {
+        Thread.sleep(millis);
+        return value;
+    }
+}
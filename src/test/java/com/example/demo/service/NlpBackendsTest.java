@@ -0,0 +1,111 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.dto.EntityExtractionResponse;
+import com.example.demo.dto.SummaryResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NlpBackendsTest {
+
+    private final NlpCloudProperties properties = new NlpCloudProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StubBackend stub = new StubBackend();
+
+    private static final ClinicalNoteRequest ROUTINE = new ClinicalNoteRequest("Routine note.", null);
+    private static final ClinicalNoteRequest HARD = new ClinicalNoteRequest("Hard note.", null);
+
+    private double count(String task, String outcome) {
+        return registry.counter("nlp.backend.requests", "backend", "stub", "task", task, "outcome", outcome).count();
+    }
+
+    @Test
+    void cloudKeepsEveryTaskOnNlpCloud() {
+        NlpBackends backends = new NlpBackends(properties, List.of(stub), registry);
+
+        assertTrue(backends.backend().isEmpty());
+        assertTrue(backends.summarize(ROUTINE).isEmpty());
+        assertEquals(0, stub.warmUps.get());
+    }
+
+    @Test
+    void routesConfiguredTasksToTheNamedBackendAndWarmsItUp() {
+        properties.getBackend().setName("stub");
+        properties.getBackend().setTasks(EnumSet.of(NlpTask.SUMMARY));
+        NlpBackends backends = new NlpBackends(properties, List.of(stub), registry);
+
+        assertEquals(1, stub.warmUps.get());
+        assertEquals("local summary", backends.summarize(ROUTINE).orElseThrow().getSummary());
+        assertTrue(backends.summarize(HARD).isEmpty());
+        assertTrue(backends.extractEntities(ROUTINE).isEmpty(), "entities are not routed");
+        assertEquals(1.0, count("SUMMARY", "served"));
+        assertEquals(1.0, count("SUMMARY", "declined"));
+    }
+
+    @Test
+    void backendFailuresFallBackToNlpCloudUnlessDisabled() {
+        properties.getBackend().setName("stub");
+        stub.fail = true;
+
+        assertTrue(new NlpBackends(properties, List.of(stub), registry).summarize(ROUTINE).isEmpty());
+        assertEquals(1.0, count("SUMMARY", "failed"));
+
+        properties.getBackend().setFallbackToCloud(false);
+        NlpBackends strict = new NlpBackends(properties, List.of(stub), registry);
+        assertThrows(IllegalStateException.class, () -> strict.summarize(ROUTINE));
+    }
+
+    @Test
+    void rejectsUnknownBackendsAndUnsupportedTasks() {
+        properties.getBackend().setName("onnx");
+        IllegalStateException unknown =
+                assertThrows(IllegalStateException.class, () -> new NlpBackends(properties, List.of(stub)));
+        assertTrue(unknown.getMessage().contains("[stub]"));
+
+        properties.getBackend().setName("stub");
+        properties.getBackend().setTasks(EnumSet.of(NlpTask.GRAMMAR));
+        assertThrows(IllegalStateException.class, () -> new NlpBackends(properties, List.of(stub)));
+    }
+
+    private static final class StubBackend implements NlpBackend {
+
+        private final AtomicInteger warmUps = new AtomicInteger();
+        private boolean fail;
+
+        @Override
+        public String name() {
+            return "stub";
+        }
+
+        @Override
+        public boolean supports(NlpTask task) {
+            return task != NlpTask.GRAMMAR;
+        }
+
+        @Override
+        public void warmUp() {
+            warmUps.incrementAndGet();
+        }
+
+        @Override
+        public Optional<SummaryResponse> summarize(ClinicalNoteRequest request) {
+            if (fail) {
+                throw new IllegalStateException("model crashed");
+            }
+            return request == HARD ? Optional.empty() : Optional.of(new SummaryResponse("local summary"));
+        }
+
+        @Override
+        public Optional<EntityExtractionResponse> extractEntities(ClinicalNoteRequest request) {
+            return Optional.of(new EntityExtractionResponse(List.of()));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.AnalysisResponse;
+import com.example.demo.dto.BatchAnalysisRequest;
+import com.example.demo.dto.BatchItemResult;
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.exception.InvalidRequestException;
+import com.example.demo.exception.UpstreamServiceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NlpBatchServiceTest {
+
+    private NlpAnalysisService analysisService;
+    private NlpCloudProperties properties;
+    private NlpBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        analysisService = mock(NlpAnalysisService.class);
+        properties = new NlpCloudProperties();
+        batchService = new NlpBatchService(analysisService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchService.shutdown();
+    }
+
+    @Test
+    void processesEveryItemWithinConcurrencyLimit() throws Exception {
+        properties.getBatch().setMaxConcurrency(3);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(analysisService.analyze(any(), eq(Set.of(NlpTask.SUMMARY)))).thenAnswer(inv -> {
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            active.decrementAndGet();
+            return new AnalysisResponse();
+        });
+
+        ConcurrentLinkedQueue<BatchItemResult> results = new ConcurrentLinkedQueue<>();
+        batchService.process(new BatchAnalysisRequest(notes(12), Set.of(NlpTask.SUMMARY)), results::add)
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(12, results.size());
+        assertTrue(results.stream().allMatch(r -> r.getStatus() == 200));
+        assertTrue(peak.get() <= 3, "peak concurrency was " + peak.get());
+    }
+
+    @Test
+    void reportsPerItemErrors() throws Exception {
+        when(analysisService.analyze(any(), any())).thenReturn(new AnalysisResponse());
+        when(analysisService.analyze(argThat(n -> n != null && n.getNote().startsWith("Note 1 ")), any()))
+                .thenThrow(new UpstreamServiceException("Upstream unavailable"));
+
+        ConcurrentLinkedQueue<BatchItemResult> results = new ConcurrentLinkedQueue<>();
+        batchService.process(new BatchAnalysisRequest(notes(3), null), results::add).get(10, TimeUnit.SECONDS);
+
+        BatchItemResult failed = results.stream().filter(r -> r.getIndex() == 1).findFirst().orElseThrow();
+        assertEquals(502, failed.getStatus());
+        assertEquals("Upstream unavailable", failed.getError().getMessage());
+        assertEquals(2, results.stream().filter(r -> r.getStatus() == 200).count());
+    }
+
+    @Test
+    void rejectsOversizedBatches() {
+        properties.getBatch().setMaxItems(2);
+
+        assertThrows(InvalidRequestException.class,
+                () -> batchService.process(new BatchAnalysisRequest(notes(3), null), r -> { }));
+    }
+
+    private static List<ClinicalNoteRequest> notes(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new ClinicalNoteRequest("Note " + i + " patient reports dizziness and headache.", null))
+                .toList();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptTemplateTest {
+
+    private final PromptTemplate template =
+            PromptTemplate.compile("test", "Summarize.\n\n{?context}Context: {context}\n\n{/context}Note: {note}");
+
+    @Test
+    void rendersTrimmedContextOnlyWhenPresent() {
+        assertEquals("Summarize.\n\nContext: BP 130/90\n\nNote: Chest pain.",
+                template.render("Chest pain.", " \tBP 130/90\n"));
+        assertEquals("Summarize.\n\nNote: Chest pain.", template.render("Chest pain.", "  \n"));
+        assertEquals("Summarize.\n\nNote: Chest pain.", template.render("Chest pain.", null));
+    }
+
+    @Test
+    void keepsTextThatOnlyLooksLikeAPlaceholder() {
+        PromptTemplate json = PromptTemplate.compile("json", "Respond as {\"entities\": []} for {note}");
+
+        assertEquals("Respond as {\"entities\": []} for x", json.render("x", null));
+    }
+
+    @Test
+    void rejectsInvalidTemplates() {
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("a", "No note here"));
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("b", "{note} {patient}"));
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("c", "{?context}{context} {note}"));
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("d", "{note}{/context}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> PromptTemplate.compile("e", "{?context}{?context}{/context}{/context}{note}"));
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("f", "  "));
+    }
+}
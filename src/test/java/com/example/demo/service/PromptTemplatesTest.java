@@ -0,0 +1,83 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NlpCloudProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptTemplatesTest {
+
+    private final NlpCloudProperties properties = new NlpCloudProperties();
+
+    @Test
+    void builtInPromptsMatchTheCachedPromptText() {
+        PromptTemplates prompts = new PromptTemplates(properties);
+
+        assertEquals("Summarize the following clinical information in 3-4 sentences highlighting key findings and "
+                        + "recommendations.\n\nClinical context: On apixaban\n\nNote: Chest pain.",
+                prompts.render(PromptTemplates.SUMMARY, "Chest pain.", " On apixaban "));
+        assertEquals("Extract concise medical keywords or keyphrases from the following note. Respond with a "
+                        + "comma-separated list only.\n\nNote: Chest pain.",
+                prompts.render(PromptTemplates.KEYWORDS, "Chest pain.", null));
+        assertTrue(prompts.renderCombine(List.of(" Admitted. ", "Discharged."), null)
+                .endsWith("Do not repeat findings.\n\nSection 1: Admitted.\nSection 2: Discharged.\n"));
+    }
+
+    @Test
+    void routesAStableShareOfNotesToTheCandidate() {
+        NlpCloudProperties.Prompt summary = new NlpCloudProperties.Prompt();
+        summary.getVersions().put("v2", "Briefly: {note}");
+        summary.setCandidate("v2");
+        summary.setCandidateShare(0.25);
+        properties.getPrompts().put(PromptTemplates.SUMMARY, summary);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PromptTemplates prompts = new PromptTemplates(properties, registry);
+
+        long candidates = IntStream.range(0, 4000)
+                .mapToObj(i -> "Note " + i)
+                .filter(note -> "v2".equals(prompts.versionFor(PromptTemplates.SUMMARY, note)))
+                .count();
+        assertTrue(candidates > 800 && candidates < 1200, "candidate notes: " + candidates);
+
+        String note = IntStream.range(0, 4000).mapToObj(i -> "Note " + i)
+                .filter(n -> "v2".equals(prompts.versionFor(PromptTemplates.SUMMARY, n)))
+                .findFirst().orElseThrow();
+        assertEquals("Briefly: " + note, prompts.render(PromptTemplates.SUMMARY, note, null));
+        assertEquals("Briefly: " + note, prompts.render(PromptTemplates.SUMMARY, note, null));
+        assertEquals(2.0, registry.get("nlp.prompt.renders").tag("prompt", "summary").tag("version", "v2")
+                .counter().count());
+    }
+
+    @Test
+    void switchesTheActiveVersion() {
+        NlpCloudProperties.Prompt grammar = new NlpCloudProperties.Prompt();
+        grammar.getVersions().put("v2", "Fix: {note}");
+        grammar.setActive("v2");
+        properties.getPrompts().put(PromptTemplates.GRAMMAR, grammar);
+
+        assertEquals("Fix: teh note", new PromptTemplates(properties).render(PromptTemplates.GRAMMAR, "teh note", "x"));
+    }
+
+    @Test
+    void failsAtStartupOnInvalidConfiguration() {
+        NlpCloudProperties.Prompt broken = new NlpCloudProperties.Prompt();
+        broken.getVersions().put("v2", "No placeholder");
+        properties.getPrompts().put(PromptTemplates.SUMMARY, broken);
+        IllegalStateException invalid = assertThrows(IllegalStateException.class, () -> new PromptTemplates(properties));
+        assertTrue(invalid.getMessage().contains("nlpcloud.prompts.summary.versions.v2"), invalid.getMessage());
+
+        properties.getPrompts().clear();
+        NlpCloudProperties.Prompt missing = new NlpCloudProperties.Prompt();
+        missing.setActive("v3");
+        properties.getPrompts().put(PromptTemplates.ENTITIES, missing);
+        assertThrows(IllegalStateException.class, () -> new PromptTemplates(properties));
+
+        properties.getPrompts().clear();
+        properties.getPrompts().put("summery", new NlpCloudProperties.Prompt());
+        assertThrows(IllegalStateException.class, () -> new PromptTemplates(properties));
+    }
+}
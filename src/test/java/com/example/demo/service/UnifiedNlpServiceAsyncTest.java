@@ -0,0 +1,119 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.NlpResponseCache;
+import com.example.demo.client.UpstreamResponseReader;
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.dto.KeywordResponse;
+import com.example.demo.exception.UpstreamServiceException;
+import com.example.demo.mapper.NlpCloudMapper;
+import com.example.demo.metrics.UpstreamMetrics;
+import com.example.demo.resilience.AdaptiveRateLimiter;
+import com.example.demo.resilience.CircuitBreakerRegistry;
+import com.example.demo.resilience.InFlightRequestRegistry;
+import com.example.demo.resilience.TaskBulkhead;
+import com.example.demo.resilience.UpstreamCallExecutor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withBadRequest;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class UnifiedNlpServiceAsyncTest {
+
+    private static final String URL = "http://upstream/bart-large-cnn/summarization";
+    private static final ClinicalNoteRequest NOTE =
+            new ClinicalNoteRequest("Patient reprots dizziness and headache since Monday.", null);
+
+    private final NlpCloudProperties properties = new NlpCloudProperties();
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger dispatched = new AtomicInteger();
+    private MockRestServiceServer server;
+    private UnifiedNlpService service;
+
+    @BeforeEach
+    void setUp() {
+        properties.setApiKey("test-key");
+        properties.setSummarizationModel("bart-large-cnn");
+        properties.setSummarizationEndpoint("/summarization");
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory("http://upstream"));
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        service = new UnifiedNlpService(restTemplate, new NlpCloudMapper(new ObjectMapper()), properties,
+                new NlpResponseCache(properties), new InFlightRequestRegistry(properties),
+                new UpstreamCallExecutor(properties, new AdaptiveRateLimiter(properties),
+                        new CircuitBreakerRegistry(properties), new UpstreamMetrics(new SimpleMeterRegistry())),
+                new TaskBulkhead(properties), new UpstreamResponseReader(properties),
+                command -> {
+                    dispatched.incrementAndGet();
+                    virtualThreads.execute(command);
+                },
+                new PromptTemplates(properties), new LocalTermExtractor(properties),
+                new NlpBackends(properties, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        virtualThreads.shutdownNow();
+    }
+
+    @Test
+    void asyncTasksComposeOnTheAsyncExecutor() throws Exception {
+        server.expect(once(), requestTo(URL))
+                .andRespond(withSuccess("{\"summary_text\":\"Patient reports dizziness and headache since Monday.\"}",
+                        MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo(URL))
+                .andRespond(withSuccess("{\"summary_text\":\"Dizziness and headache.\"}", MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo(URL))
+                .andRespond(withSuccess("{\"summary_text\":\"dizziness, headache\"}", MediaType.APPLICATION_JSON));
+
+        CompletableFuture<KeywordResponse> keywords = service.checkGrammarAsync(NOTE)
+                .thenCompose(grammar -> service.summarizeAsync(new ClinicalNoteRequest(grammar.getCorrectedText(), null)))
+                .thenCompose(summary -> service.keywordsAsync(new ClinicalNoteRequest(summary.getSummary(), null)));
+
+        assertEquals(List.of("dizziness", "headache"), keywords.get(5, TimeUnit.SECONDS).getKeywords());
+        assertEquals(3, dispatched.get(), "each step runs on nlpAsyncExecutor");
+        server.verify();
+    }
+
+    @Test
+    void asyncFailuresCompleteWithTheServiceException() {
+        server.expect(once(), requestTo(URL)).andRespond(withBadRequest());
+
+        CompletableFuture<Integer> entityCount = service.extractEntitiesAsync(NOTE)
+                .thenApply(response -> response.getEntities().size());
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> entityCount.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(UpstreamServiceException.class, ex.getCause());
+        server.verify();
+    }
+
+    @Test
+    void configurationErrorsAlsoSurfaceThroughTheFuture() {
+        properties.setApiKey(" ");
+
+        CompletableFuture<String> summary = service.summarizeAsync(NOTE).thenApply(response -> response.getSummary());
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> summary.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(UpstreamServiceException.class, ex.getCause());
+        assertTrue(ex.getCause().getMessage().contains("nlpcloud.api-key"), ex.getCause().getMessage());
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.NlpResponseCache;
+import com.example.demo.client.UpstreamResponseReader;
+import com.example.demo.config.NlpCloudProperties;
+import com.example.demo.dto.ClinicalNoteRequest;
+import com.example.demo.dto.SummaryResponse;
+import com.example.demo.mapper.NlpCloudMapper;
+import com.example.demo.metrics.UpstreamMetrics;
+import com.example.demo.resilience.AdaptiveRateLimiter;
+import com.example.demo.resilience.CircuitBreakerRegistry;
+import com.example.demo.resilience.InFlightRequestRegistry;
+import com.example.demo.resilience.TaskBulkhead;
+import com.example.demo.resilience.UpstreamCallExecutor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class UnifiedNlpServiceStreamingTest {
+
+    private static final String URL = "http://upstream/bart-large-cnn/summarization";
+    private static final ClinicalNoteRequest NOTE =
+            new ClinicalNoteRequest("Patient reports dizziness and headache since Monday.", null);
+
+    private final NlpCloudProperties properties = new NlpCloudProperties();
+    private final List<String> events = new ArrayList<>();
+    private final InFlightRequestRegistry inFlightRequests = new InFlightRequestRegistry(properties);
+    private MockRestServiceServer server;
+    private UnifiedNlpService service;
+
+    @BeforeEach
+    void setUp() {
+        properties.setApiKey("test-key");
+        properties.setSummarizationModel("bart-large-cnn");
+        properties.setSummarizationEndpoint("/summarization");
+        properties.getBulkhead().getMaxConcurrentPerTask().put(NlpTask.SUMMARY, 1);
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory("http://upstream"));
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        service = service(restTemplate, new NlpBackends(properties, List.of()));
+    }
+
+    private UnifiedNlpService service(RestTemplate restTemplate, NlpBackends backends) {
+        return new UnifiedNlpService(restTemplate, new NlpCloudMapper(new ObjectMapper()), properties,
+                new NlpResponseCache(properties), inFlightRequests,
+                new UpstreamCallExecutor(properties, new AdaptiveRateLimiter(properties),
+                        new CircuitBreakerRegistry(properties), new UpstreamMetrics(new SimpleMeterRegistry())),
+                new TaskBulkhead(properties), new UpstreamResponseReader(properties), Runnable::run,
+                new PromptTemplates(properties), new LocalTermExtractor(properties), backends);
+    }
+
+    @Test
+    void forwardsStreamedTextAndCachesItInTheRegularShape() {
+        properties.getStreaming().setUpstreamStream(true);
+        server.expect(once(), requestTo(URL))
+                .andExpect(jsonPath("$.stream").value(true))
+                .andRespond(withSuccess("Dizziness and headache, \"onset\" Monday.", MediaType.TEXT_PLAIN));
+
+        SummaryResponse streamed = service.streamSummary(NOTE, listener());
+
+        assertEquals("Dizziness and headache, \"onset\" Monday.", streamed.getSummary());
+        assertEquals(streamed.getSummary(), String.join("", events));
+        // The regular endpoint finds the streamed result in the cache; a second upstream call would fail.
+        assertEquals(streamed.getSummary(), service.summarize(NOTE).getSummary());
+        server.verify();
+    }
+
+    @Test
+    void deliversACompleteJsonResponseAsOneDelta() {
+        server.expect(once(), requestTo(URL))
+                .andExpect(jsonPath("$.stream").doesNotExist())
+                .andRespond(withSuccess("{\"summary_text\":\"Dizziness and headache.\"}", MediaType.APPLICATION_JSON));
+
+        SummaryResponse response = service.streamSummary(NOTE, listener());
+
+        assertEquals("Dizziness and headache.", response.getSummary());
+        assertEquals(List.of("Dizziness and headache."), events);
+    }
+
+    @Test
+    void cachedResultsArriveAsOneDelta() {
+        server.expect(once(), requestTo(URL))
+                .andRespond(withSuccess("{\"summary_text\":\"Dizziness.\"}", MediaType.APPLICATION_JSON));
+        service.summarize(NOTE);
+
+        service.streamSummary(NOTE, listener());
+
+        assertEquals(List.of("Dizziness."), events);
+    }
+
+    @Test
+    void summariesTheModelBackendServesAreStreamedWithoutCallingNlpCloud() {
+        properties.getBackend().setName(LocalModelBackend.NAME);
+        properties.getLocalModel().setWarmUpIterations(0);
+        LocalTermExtractor terms = new LocalTermExtractor(properties);
+        RestTemplate restTemplate = new RestTemplate();
+        MockRestServiceServer nlpCloud = MockRestServiceServer.bindTo(restTemplate).build();
+        UnifiedNlpService local = service(restTemplate,
+                new NlpBackends(properties, List.of(new LocalModelBackend(properties, terms))));
+
+        SummaryResponse streamed = local.streamSummary(NOTE, listener());
+
+        assertEquals(local.summarize(NOTE).getSummary(), streamed.getSummary());
+        assertEquals(List.of(streamed.getSummary()), events);
+        nlpCloud.verify();
+    }
+
+    @Test
+    void disconnectedStreamDoesNotFailACoalescedRegularRequest() throws Exception {
+        properties.getStreaming().setUpstreamStream(true);
+        server.expect(once(), requestTo(URL))
+                .andRespond(withSuccess("Dizziness and headache.", MediaType.TEXT_PLAIN));
+        CompletableFuture<SummaryResponse> regular = new CompletableFuture<>();
+        UnifiedNlpService.TextListener disconnecting = new UnifiedNlpService.TextListener() {
+            @Override
+            public void onText(String delta) {
+                // The regular request joins the streamed call, then the streaming client goes away.
+                summarizeConcurrently(regular);
+                while (!regular.isDone()
+                        && inFlightRequests.coalescedCallers().getOrDefault(NlpTask.SUMMARY, 0L) == 0) {
+                    Thread.onSpinWait();
+                }
+                throw new IllegalStateException("Client disconnected");
+            }
+
+            @Override
+            public void onRestart() {
+            }
+        };
+
+        SummaryResponse streamed = service.streamSummary(NOTE, disconnecting);
+
+        assertEquals("Dizziness and headache.", streamed.getSummary());
+        assertEquals("Dizziness and headache.", regular.get(5, TimeUnit.SECONDS).getSummary());
+        assertEquals("Dizziness and headache.", service.summarize(NOTE).getSummary(), "result is cached");
+        server.verify();
+    }
+
+    @Test
+    void coalescedCallersDoNotTakeBulkheadSlots() throws Exception {
+        CompletableFuture<SummaryResponse> regular = new CompletableFuture<>();
+        server.expect(once(), requestTo(URL)).andRespond(request -> {
+            // The streamed call holds the only SUMMARY slot; an identical request must join it, not be rejected.
+            summarizeConcurrently(regular);
+            while (!regular.isDone()
+                    && inFlightRequests.coalescedCallers().getOrDefault(NlpTask.SUMMARY, 0L) == 0) {
+                Thread.onSpinWait();
+            }
+            return withSuccess("{\"summary_text\":\"Dizziness.\"}", MediaType.APPLICATION_JSON).createResponse(request);
+        });
+
+        service.streamSummary(NOTE, listener());
+
+        assertEquals("Dizziness.", regular.get(5, TimeUnit.SECONDS).getSummary());
+        assertEquals(List.of("Dizziness."), events);
+        server.verify();
+    }
+
+    private void summarizeConcurrently(CompletableFuture<SummaryResponse> result) {
+        Thread.ofVirtual().start(() -> {
+            try {
+                result.complete(service.summarize(NOTE));
+            } catch (RuntimeException ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+    }
+
+    private UnifiedNlpService.TextListener listener() {
+        return new UnifiedNlpService.TextListener() {
+            @Override
+            public void onText(String delta) {
+                events.add(delta);
+            }
+
+            @Override
+            public void onRestart() {
+                events.clear();
+            }
+        };
+    }
+}